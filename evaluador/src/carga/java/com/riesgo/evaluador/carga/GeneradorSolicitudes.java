@@ -0,0 +1,142 @@
+package com.riesgo.evaluador.carga;
+
+import com.riesgo.evaluador.dto.EvaluacionRequestDTO;
+import com.riesgo.evaluador.model.SectorEconomico;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Solicitudes de /evaluar con una mezcla parecida a la de producción: 60 % personas naturales,
+ * la mayoría con pocas deudas y algunas con decenas, parte de ellas en mora, y documentos que
+ * vuelven (reintentos idénticos y clientes que se presentan de nuevo con otros datos).
+ *
+ * Con la misma semilla genera siempre la misma secuencia; las fechas se calculan desde una fecha
+ * fija para que las solicitudes no cambien de un día a otro.
+ */
+final class GeneradorSolicitudes {
+
+    private static final LocalDate REFERENCIA = LocalDate.of(2025, 1, 1);
+    private static final SectorEconomico[] SECTORES = SectorEconomico.values();
+    private static final String[] TIPOS_DEUDA = {"CONSUMO", "HIPOTECARIO", "VEHICULAR", "TARJETA", "COMERCIAL"};
+    private static final String[] ESTADOS_CIVILES = {"SOLTERO", "CASADO", "DIVORCIADO", "VIUDO"};
+    private static final int[] DIAS_MORA = {5, 15, 30, 45, 60, 90, 120, 180};
+
+    // Documentos ya enviados entre los que se eligen las repeticiones
+    private static final int MEMORIA_DOCUMENTOS = 2000;
+
+    private final Random random;
+    private final String prefijoDocumento;
+    private final List<EvaluacionRequestDTO> enviadas = new ArrayList<>();
+    private long secuencia;
+
+    GeneradorSolicitudes(long semilla, String prefijoDocumento) {
+        this.random = new Random(semilla);
+        this.prefijoDocumento = prefijoDocumento;
+    }
+
+    EvaluacionRequestDTO siguiente() {
+        int tirada = random.nextInt(100);
+        if (!enviadas.isEmpty() && tirada < 10) {
+            // Reintento: la misma solicitud otra vez (la atiende la cache si está habilitada)
+            return enviadas.get(random.nextInt(enviadas.size()));
+        }
+        if (!enviadas.isEmpty() && tirada < 20) {
+            // El mismo cliente vuelve con ingresos, monto y deudas nuevos
+            int indice = random.nextInt(enviadas.size());
+            EvaluacionRequestDTO anterior = enviadas.get(indice);
+            EvaluacionRequestDTO actualizada = nueva(anterior.getDocumento(), anterior.getTipoCliente());
+            actualizada.setNombre(anterior.getNombre());
+            enviadas.set(indice, actualizada);
+            return actualizada;
+        }
+        String tipo = random.nextInt(100) < 60 ? "NATURAL" : "JURIDICA";
+        EvaluacionRequestDTO solicitud = nueva(prefijoDocumento + (secuencia++), tipo);
+        if (enviadas.size() < MEMORIA_DOCUMENTOS) {
+            enviadas.add(solicitud);
+        } else {
+            enviadas.set(random.nextInt(MEMORIA_DOCUMENTOS), solicitud);
+        }
+        return solicitud;
+    }
+
+    private EvaluacionRequestDTO nueva(String documento, String tipoCliente) {
+        EvaluacionRequestDTO solicitud = new EvaluacionRequestDTO();
+        solicitud.setDocumento(documento);
+        solicitud.setTipoCliente(tipoCliente);
+        solicitud.setPlazoEnMeses(6 * (1 + random.nextInt(10)));
+        // Una de cada diez solicitudes llega sin puntaje de buró
+        solicitud.setPuntajeCrediticio(random.nextInt(10) == 0 ? null : 450 + random.nextInt(400));
+
+        BigDecimal ingresos;
+        if ("NATURAL".equals(tipoCliente)) {
+            solicitud.setNombre("Persona " + documento);
+            ingresos = monto(800, 20_000);
+            // Algunos canales envían la edad en lugar de la fecha de nacimiento
+            if (random.nextInt(5) == 0) {
+                solicitud.setEdad(18 + random.nextInt(60));
+            } else {
+                solicitud.setFechaNacimiento(REFERENCIA.minusYears(18 + random.nextInt(60)).minusDays(random.nextInt(365)));
+            }
+            solicitud.setEstadoCivil(ESTADOS_CIVILES[random.nextInt(ESTADOS_CIVILES.length)]);
+            solicitud.setNumeroDependientes(random.nextInt(6));
+        } else {
+            solicitud.setNombre("Empresa " + documento);
+            ingresos = monto(5_000, 400_000);
+            solicitud.setFechaConstitucion(REFERENCIA.minusDays(90 + random.nextInt(365 * 30)));
+            solicitud.setSectorEconomico(SECTORES[random.nextInt(SECTORES.length)].name());
+            solicitud.setNumeroEmpleados(1 + random.nextInt(random.nextInt(10) == 0 ? 2000 : 50));
+        }
+        solicitud.setIngresos(ingresos);
+        solicitud.setMontoSolicitado(ingresos.multiply(BigDecimal.valueOf(50 + random.nextInt(750), 2))
+            .setScale(2, RoundingMode.HALF_UP));
+        solicitud.setDeudas(deudas(ingresos));
+        return solicitud;
+    }
+
+    // Sin deudas 20 %, 1-3 la mitad, 4-10 un 25 % y 20-50 el 5 % restante
+    private int cantidadDeudas() {
+        int tirada = random.nextInt(100);
+        if (tirada < 20) {
+            return 0;
+        }
+        if (tirada < 70) {
+            return 1 + random.nextInt(3);
+        }
+        if (tirada < 95) {
+            return 4 + random.nextInt(7);
+        }
+        return 20 + random.nextInt(31);
+    }
+
+    private List<EvaluacionRequestDTO.DeudaDTO> deudas(BigDecimal ingresos) {
+        int cantidad = cantidadDeudas();
+        List<EvaluacionRequestDTO.DeudaDTO> deudas = new ArrayList<>(cantidad);
+        if (cantidad == 0) {
+            return deudas;
+        }
+        // El total queda entre 0 y 1.5 veces los ingresos para repartir las solicitudes entre los tres evaluadores
+        BigDecimal montoPorDeuda = ingresos.multiply(BigDecimal.valueOf(random.nextInt(150), 2))
+            .divide(BigDecimal.valueOf(cantidad), 2, RoundingMode.HALF_UP).add(BigDecimal.ONE);
+        // El 15 % de los clientes con deudas tiene entre una y tres en mora
+        int enMora = random.nextInt(100) < 15 ? Math.min(cantidad, 1 + random.nextInt(3)) : 0;
+        for (int i = 0; i < cantidad; i++) {
+            EvaluacionRequestDTO.DeudaDTO deuda = new EvaluacionRequestDTO.DeudaDTO();
+            deuda.setTipo(TIPOS_DEUDA[random.nextInt(TIPOS_DEUDA.length)]);
+            deuda.setMonto(montoPorDeuda);
+            deuda.setFechaVencimiento(REFERENCIA.plusMonths(1 + random.nextInt(60)));
+            deuda.setDiasMora(i < enMora ? DIAS_MORA[random.nextInt(DIAS_MORA.length)] : 0);
+            deuda.setPlazoMeses(12 * (1 + random.nextInt(5)));
+            deudas.add(deuda);
+        }
+        return deudas;
+    }
+
+    private BigDecimal monto(int minimo, int maximo) {
+        return BigDecimal.valueOf(minimo * 100L + (long) (random.nextDouble() * (maximo - minimo) * 100), 2);
+    }
+}
@@ -0,0 +1,80 @@
+package com.riesgo.evaluador.carga;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencias y errores de una operación. Cada hilo de carga tiene las suyas y se combinan al final,
+ * así que no necesita sincronización.
+ */
+final class Latencias {
+
+    private long[] nanos = new long[4096];
+    private int cantidad;
+    private long errores;
+    // Código HTTP (o "excepcion") de cada error
+    private final Map<String, Long> erroresPorCodigo = new TreeMap<>();
+
+    void registrar(long duracionNanos) {
+        if (cantidad == nanos.length) {
+            nanos = Arrays.copyOf(nanos, cantidad * 2);
+        }
+        nanos[cantidad++] = duracionNanos;
+    }
+
+    void registrarError(String codigo) {
+        errores++;
+        erroresPorCodigo.merge(codigo, 1L, Long::sum);
+    }
+
+    void agregar(Latencias otras) {
+        for (int i = 0; i < otras.cantidad; i++) {
+            registrar(otras.nanos[i]);
+        }
+        errores += otras.errores;
+        otras.erroresPorCodigo.forEach((codigo, n) -> erroresPorCodigo.merge(codigo, n, Long::sum));
+    }
+
+    int cantidad() {
+        return cantidad;
+    }
+
+    long errores() {
+        return errores;
+    }
+
+    Map<String, Long> erroresPorCodigo() {
+        return erroresPorCodigo;
+    }
+
+    /**
+     * Percentiles en milisegundos (p50, p90, p99, p999, máximo) y media, redondeados a centésimas.
+     */
+    Map<String, Double> resumenMilisegundos() {
+        long[] ordenadas = Arrays.copyOf(nanos, cantidad);
+        Arrays.sort(ordenadas);
+        Map<String, Double> resumen = new LinkedHashMap<>();
+        if (ordenadas.length == 0) {
+            return resumen;
+        }
+        resumen.put("p50", milisegundos(percentil(ordenadas, 0.50)));
+        resumen.put("p90", milisegundos(percentil(ordenadas, 0.90)));
+        resumen.put("p99", milisegundos(percentil(ordenadas, 0.99)));
+        resumen.put("p999", milisegundos(percentil(ordenadas, 0.999)));
+        resumen.put("max", milisegundos(ordenadas[ordenadas.length - 1]));
+        resumen.put("media", milisegundos((long) Arrays.stream(ordenadas).average().orElse(0)));
+        return resumen;
+    }
+
+    // Método nearest-rank: el menor valor que deja por debajo al menos la fracción pedida
+    private static long percentil(long[] ordenadas, double fraccion) {
+        int rango = (int) Math.ceil(fraccion * ordenadas.length);
+        return ordenadas[Math.max(0, rango - 1)];
+    }
+
+    private static double milisegundos(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
@@ -0,0 +1,370 @@
+package com.riesgo.evaluador.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.riesgo.evaluador.EvaluadorApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prueba de carga de /api/evaluacion: N usuarios concurrentes envían sin pausa una mezcla de
+ * evaluaciones (GeneradorSolicitudes) y consultas del historial durante un tiempo fijo, tras un
+ * calentamiento que no se mide. El resultado (solicitudes por segundo, errores y percentiles de
+ * latencia por operación) se escribe en JSON para compararlo entre versiones.
+ *
+ * Sin --url levanta el servicio en el mismo proceso, sobre H2 en memoria en modo PostgreSQL o sobre
+ * la base de --datasource. Opciones (--clave=valor): url, perfiles, datasource, datasource-usuario,
+ * datasource-clave, concurrencia, calentamiento, duracion, semilla, salida, comparar, etiqueta.
+ * Ver README.
+ */
+public class PruebaCarga {
+
+    enum Operacion {
+        EVALUAR("evaluar", 70),
+        HISTORIAL_CLIENTE("historialCliente", 15),
+        HISTORIAL_RIESGO("historialRiesgo", 10),
+        HISTORIAL("historial", 5);
+
+        final String nombre;
+        final int peso;
+
+        Operacion(String nombre, int peso) {
+            this.nombre = nombre;
+            this.peso = peso;
+        }
+    }
+
+    private static final String[] NIVELES_RIESGO = {"BAJO", "MEDIO", "ALTO"};
+    // Ids de cliente devueltos por /evaluar que cada usuario recuerda para consultar su historial
+    private static final int MEMORIA_CLIENTES = 1000;
+
+    private static final ObjectMapper JSON = JsonMapper.builder()
+        .findAndAddModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .enable(SerializationFeature.INDENT_OUTPUT)
+        .build();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = opciones(args);
+        int concurrencia = Integer.parseInt(opciones.getOrDefault("concurrencia", "16"));
+        Duration calentamiento = Duration.parse(opciones.getOrDefault("calentamiento", "PT15S"));
+        Duration duracion = Duration.parse(opciones.getOrDefault("duracion", "PT60S"));
+        long semilla = Long.parseLong(opciones.getOrDefault("semilla", "42"));
+        File salida = new File(opciones.getOrDefault("salida", "target/carga/resultado.json"));
+        String perfiles = opciones.getOrDefault("perfiles", "");
+
+        ConfigurableApplicationContext contexto = null;
+        String url = opciones.get("url");
+        String objetivo = url;
+        Double arranqueSegundos = null;
+        if (url == null) {
+            long inicioArranque = System.nanoTime();
+            contexto = arrancarServicio(perfiles, opciones);
+            arranqueSegundos = redondear((System.nanoTime() - inicioArranque) / 1e9);
+            url = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+            objetivo = "en proceso: " + contexto.getEnvironment().getProperty("spring.datasource.url");
+        }
+
+        System.out.printf("Carga contra %s: %d usuarios, calentamiento %s, medición %s%n",
+            url, concurrencia, calentamiento, duracion);
+        Map<Operacion, Latencias> latencias;
+        try {
+            latencias = ejecutar(url, concurrencia, calentamiento, duracion, semilla);
+        } finally {
+            if (contexto != null) {
+                contexto.close();
+            }
+        }
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("etiqueta", opciones.getOrDefault("etiqueta", ""));
+        resultado.put("fecha", OffsetDateTime.now().toString());
+        resultado.put("objetivo", objetivo);
+        resultado.put("perfiles", perfiles);
+        resultado.put("arranqueSegundos", arranqueSegundos);
+        Map<String, Object> configuracion = new LinkedHashMap<>();
+        configuracion.put("concurrencia", concurrencia);
+        configuracion.put("calentamientoSegundos", calentamiento.toSeconds());
+        configuracion.put("duracionSegundos", duracion.toSeconds());
+        configuracion.put("semilla", semilla);
+        Map<String, Integer> mezcla = new LinkedHashMap<>();
+        for (Operacion operacion : Operacion.values()) {
+            mezcla.put(operacion.nombre, operacion.peso);
+        }
+        configuracion.put("mezcla", mezcla);
+        resultado.put("configuracion", configuracion);
+
+        Latencias total = new Latencias();
+        Map<String, Object> operaciones = new LinkedHashMap<>();
+        for (Operacion operacion : Operacion.values()) {
+            Latencias deOperacion = latencias.get(operacion);
+            total.agregar(deOperacion);
+            operaciones.put(operacion.nombre, resumen(deOperacion, duracion));
+        }
+        resultado.put("total", resumen(total, duracion));
+        resultado.put("operaciones", operaciones);
+
+        salida.getAbsoluteFile().getParentFile().mkdirs();
+        JSON.writeValue(salida, resultado);
+        System.out.println(JSON.writeValueAsString(resultado.get("total")));
+        System.out.println("Resultado en " + salida.getPath());
+
+        if (opciones.containsKey("comparar")) {
+            comparar(JSON.readTree(new File(opciones.get("comparar"))), JSON.valueToTree(resultado));
+        }
+    }
+
+    private static ConfigurableApplicationContext arrancarServicio(String perfiles, Map<String, String> opciones) {
+        // devtools está en el classpath de pruebas: su reinicio volvería a llamar a este main
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        String datasource = opciones.get("datasource");
+        List<String> argumentos = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN",
+            "--logging.level.com.riesgo.evaluador=WARN",
+            "--spring.jpa.properties.hibernate.show_sql=false"));
+        if (datasource == null) {
+            // H2 no ejecuta los scripts de PostgreSQL: el esquema lo crea Hibernate
+            argumentos.addAll(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:carga;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                    + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.flyway.enabled=false"));
+        } else {
+            argumentos.add("--spring.datasource.url=" + datasource);
+            argumentos.add("--spring.datasource.username=" + opciones.getOrDefault("datasource-usuario", "admin"));
+            argumentos.add("--spring.datasource.password=" + opciones.getOrDefault("datasource-clave", "admin"));
+        }
+        SpringApplicationBuilder aplicacion = new SpringApplicationBuilder(EvaluadorApplication.class);
+        if (!perfiles.isBlank()) {
+            aplicacion.profiles(perfiles.split(","));
+        }
+        return aplicacion.run(argumentos.toArray(String[]::new));
+    }
+
+    private static Map<Operacion, Latencias> ejecutar(String url, int concurrencia, Duration calentamiento,
+                                                      Duration duracion, long semilla) throws Exception {
+        HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        long inicioMedicion = System.nanoTime() + calentamiento.toNanos();
+        long fin = inicioMedicion + duracion.toNanos();
+
+        ExecutorService hilos = Executors.newFixedThreadPool(concurrencia);
+        List<Future<Map<Operacion, Latencias>>> usuarios = new ArrayList<>();
+        for (int i = 0; i < concurrencia; i++) {
+            Usuario usuario = new Usuario(cliente, url, semilla + i, "C" + semilla + "-" + i + "-", inicioMedicion, fin);
+            usuarios.add(hilos.submit(usuario::ejecutar));
+        }
+        Map<Operacion, Latencias> total = latenciasVacias();
+        try {
+            for (Future<Map<Operacion, Latencias>> usuario : usuarios) {
+                usuario.get().forEach((operacion, latencias) -> total.get(operacion).agregar(latencias));
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+        return total;
+    }
+
+    private static Map<Operacion, Latencias> latenciasVacias() {
+        Map<Operacion, Latencias> latencias = new EnumMap<>(Operacion.class);
+        for (Operacion operacion : Operacion.values()) {
+            latencias.put(operacion, new Latencias());
+        }
+        return latencias;
+    }
+
+    /**
+     * Un usuario simulado: elige cada operación según su peso y envía la siguiente en cuanto
+     * recibe la respuesta. Solo registra las solicitudes iniciadas después del calentamiento.
+     */
+    private static final class Usuario {
+
+        private final HttpClient cliente;
+        private final String url;
+        private final Random random;
+        private final GeneradorSolicitudes generador;
+        private final long inicioMedicion;
+        private final long fin;
+        private final Map<Operacion, Latencias> latencias = latenciasVacias();
+        private final List<Long> clientes = new ArrayList<>();
+        // Cursor de la página siguiente por nivel de riesgo: recorre el historial como un listado paginado
+        private final Map<String, String> cursores = new HashMap<>();
+
+        Usuario(HttpClient cliente, String url, long semilla, String prefijoDocumento, long inicioMedicion, long fin) {
+            this.cliente = cliente;
+            this.url = url;
+            this.random = new Random(semilla);
+            this.generador = new GeneradorSolicitudes(semilla, prefijoDocumento);
+            this.inicioMedicion = inicioMedicion;
+            this.fin = fin;
+        }
+
+        Map<Operacion, Latencias> ejecutar() {
+            long inicio;
+            while ((inicio = System.nanoTime()) < fin) {
+                Operacion operacion = elegirOperacion();
+                HttpRequest solicitud;
+                String nivel = null;
+                try {
+                    switch (operacion) {
+                        case EVALUAR -> solicitud = post("/api/evaluacion/evaluar",
+                            JSON.writeValueAsString(generador.siguiente()));
+                        case HISTORIAL_CLIENTE -> solicitud = get("/api/evaluacion/historial/cliente/"
+                            + clientes.get(random.nextInt(clientes.size())) + "?tamano=20");
+                        case HISTORIAL_RIESGO -> {
+                            nivel = NIVELES_RIESGO[random.nextInt(NIVELES_RIESGO.length)];
+                            solicitud = get("/api/evaluacion/historial/riesgo/" + nivel + "?tamano=50"
+                                + cursores.getOrDefault(nivel, ""));
+                        }
+                        default -> solicitud = get("/api/evaluacion/historial?tamano=50");
+                    }
+                    HttpResponse<String> respuesta = cliente.send(solicitud, HttpResponse.BodyHandlers.ofString());
+                    long duracion = System.nanoTime() - inicio;
+                    boolean medida = inicio >= inicioMedicion;
+                    if (respuesta.statusCode() != 200) {
+                        if (medida) {
+                            latencias.get(operacion).registrarError(Integer.toString(respuesta.statusCode()));
+                        }
+                        continue;
+                    }
+                    if (medida) {
+                        latencias.get(operacion).registrar(duracion);
+                    }
+                    procesarRespuesta(operacion, nivel, respuesta.body());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    if (inicio >= inicioMedicion) {
+                        latencias.get(operacion).registrarError("excepcion");
+                    }
+                }
+            }
+            return latencias;
+        }
+
+        private Operacion elegirOperacion() {
+            // Hasta tener clientes evaluados solo hay evaluaciones
+            if (clientes.isEmpty()) {
+                return Operacion.EVALUAR;
+            }
+            int tirada = random.nextInt(100);
+            for (Operacion operacion : Operacion.values()) {
+                tirada -= operacion.peso;
+                if (tirada < 0) {
+                    return operacion;
+                }
+            }
+            return Operacion.EVALUAR;
+        }
+
+        private void procesarRespuesta(Operacion operacion, String nivel, String cuerpo) throws Exception {
+            if (operacion == Operacion.EVALUAR) {
+                long clienteId = JSON.readTree(cuerpo).path("clienteId").asLong();
+                if (clientes.size() < MEMORIA_CLIENTES) {
+                    clientes.add(clienteId);
+                } else {
+                    clientes.set(random.nextInt(MEMORIA_CLIENTES), clienteId);
+                }
+            } else if (operacion == Operacion.HISTORIAL_RIESGO) {
+                JsonNode pagina = JSON.readTree(cuerpo);
+                if (pagina.path("hayMas").asBoolean()) {
+                    cursores.put(nivel, "&cursorFecha=" + pagina.path("siguienteCursorFecha").asText()
+                        + "&cursorId=" + pagina.path("siguienteCursorId").asText());
+                } else {
+                    cursores.remove(nivel);
+                }
+            }
+        }
+
+        private HttpRequest get(String ruta) {
+            return HttpRequest.newBuilder(URI.create(url + ruta)).timeout(Duration.ofSeconds(30)).GET().build();
+        }
+
+        private HttpRequest post(String ruta, String cuerpo) {
+            return HttpRequest.newBuilder(URI.create(url + ruta))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+        }
+    }
+
+    private static Map<String, Object> resumen(Latencias latencias, Duration duracion) {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("solicitudes", latencias.cantidad());
+        resumen.put("errores", latencias.errores());
+        resumen.put("porSegundo", redondear(latencias.cantidad() / (duracion.toNanos() / 1e9)));
+        resumen.put("latenciaMs", latencias.resumenMilisegundos());
+        if (!latencias.erroresPorCodigo().isEmpty()) {
+            resumen.put("erroresPorCodigo", latencias.erroresPorCodigo());
+        }
+        return resumen;
+    }
+
+    // Diferencia con una ejecución anterior: throughput y percentiles de cada operación
+    private static void comparar(JsonNode base, JsonNode actual) {
+        System.out.printf("%nComparación con %s (%s)%n", base.path("etiqueta").asText(), base.path("fecha").asText());
+        System.out.printf("%-18s %-10s %12s %12s %9s%n", "operacion", "medida", "base", "actual", "cambio");
+        List<String> nombres = new ArrayList<>(List.of("total"));
+        actual.path("operaciones").fieldNames().forEachRemaining(nombres::add);
+        for (String nombre : nombres) {
+            JsonNode b = "total".equals(nombre) ? base.path("total") : base.path("operaciones").path(nombre);
+            JsonNode a = "total".equals(nombre) ? actual.path("total") : actual.path("operaciones").path(nombre);
+            fila(nombre, "porSegundo", b.path("porSegundo"), a.path("porSegundo"));
+            for (String percentil : List.of("p50", "p99")) {
+                fila(nombre, percentil + " ms", b.path("latenciaMs").path(percentil), a.path("latenciaMs").path(percentil));
+            }
+            fila(nombre, "errores", b.path("errores"), a.path("errores"));
+        }
+    }
+
+    private static void fila(String operacion, String medida, JsonNode base, JsonNode actual) {
+        String cambio = base.isNumber() && actual.isNumber() && base.asDouble() != 0
+            ? String.format("%+.1f %%", (actual.asDouble() - base.asDouble()) * 100 / base.asDouble())
+            : "-";
+        System.out.printf("%-18s %-10s %12s %12s %9s%n", operacion, medida, base.asText("-"), actual.asText("-"), cambio);
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 100) / 100.0;
+    }
+
+    private static Map<String, String> opciones(String[] args) {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Opción no válida: " + arg + " (se espera --clave=valor)");
+            }
+            opciones.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return opciones;
+    }
+}
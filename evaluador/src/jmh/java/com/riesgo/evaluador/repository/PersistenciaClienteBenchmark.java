@@ -0,0 +1,141 @@
+package com.riesgo.evaluador.repository;
+
+import com.riesgo.evaluador.EvaluadorApplication;
+import com.riesgo.evaluador.model.Cliente;
+import com.riesgo.evaluador.service.ClientesFixture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Altas y búsqueda por documento de clientes con el esquema JOINED (por defecto) y con el de
+ * tabla única (perfil tabla-unica), sobre el contexto de Spring completo sin servidor web.
+ *
+ * Por defecto usa H2 en memoria en modo PostgreSQL. Para medir contra PostgreSQL, con una base
+ * vacía para cada esquema:
+ * ./mvnw -Pjmh test-compile exec:exec -Djmh.args="PersistenciaClienteBenchmark -jvmArgsAppend
+ *   '-Dbenchmark.datasource.url=jdbc:postgresql://localhost:5432/bench -Dbenchmark.datasource.username=admin
+ *   -Dbenchmark.datasource.password=admin -Dbenchmark.dialect=org.hibernate.dialect.PostgreSQLDialect'"
+ */
+@State(Scope.Benchmark)
+// Con el contexto completo el JIT tarda en estabilizarse: en 1 CPU las búsquedas siguen bajando hasta ~60 s
+@Warmup(iterations = 20, time = 4)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class PersistenciaClienteBenchmark {
+
+    // Clientes por transacción en las altas: el mismo tamaño que el lote JDBC configurado
+    private static final int BLOQUE = 50;
+    private static final int PRECARGADOS = 20_000;
+    private static final int DEUDAS_POR_CLIENTE = 2;
+
+    @Param({"joined", "tabla-unica"})
+    private String esquema;
+
+    private ConfigurableApplicationContext contexto;
+    private ClienteRepository clienteRepository;
+    private TransactionTemplate transaccion;
+    private TransactionTemplate lectura;
+    private String[] documentos;
+    private int siguienteDocumento;
+    private long siguienteAlta;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        SpringApplicationBuilder aplicacion = new SpringApplicationBuilder(EvaluadorApplication.class)
+            .web(WebApplicationType.NONE);
+        if ("tabla-unica".equals(esquema)) {
+            aplicacion.profiles("tabla-unica");
+        }
+        String url = System.getProperty("benchmark.datasource.url",
+            "jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        // Como argumentos de línea de comandos para que tengan prioridad sobre application.yaml
+        contexto = aplicacion.run(
+            "--spring.datasource.url=" + url,
+            "--spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "sa"),
+            "--spring.datasource.password=" + System.getProperty("benchmark.datasource.password", ""),
+            "--spring.jpa.properties.hibernate.dialect=" + System.getProperty("benchmark.dialect",
+                "org.hibernate.dialect.H2Dialect"),
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.jpa.properties.hibernate.show_sql=false",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN",
+            "--logging.level.com.riesgo.evaluador=WARN");
+        clienteRepository = contexto.getBean(ClienteRepository.class);
+        PlatformTransactionManager transactionManager = contexto.getBean(PlatformTransactionManager.class);
+        transaccion = new TransactionTemplate(transactionManager);
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+
+        documentos = new String[PRECARGADOS];
+        for (int i = 0; i < PRECARGADOS; i += BLOQUE) {
+            List<Cliente> bloque = crearBloque();
+            for (int j = 0; j < bloque.size(); j++) {
+                documentos[i + j] = bloque.get(j).getDocumento();
+            }
+            transaccion.executeWithoutResult(status -> clienteRepository.saveAll(bloque));
+        }
+        // Tras la precarga el autovacuum de PostgreSQL procesaría las tablas a mitad de la medición
+        if (url.startsWith("jdbc:postgresql:")) {
+            contexto.getBean(JdbcTemplate.class).execute("VACUUM ANALYZE");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    // Mitad personas naturales y mitad jurídicas, con documentos que no se repiten entre invocaciones
+    private List<Cliente> crearBloque() {
+        List<Cliente> bloque = new ArrayList<>(BLOQUE);
+        for (String tipo : new String[]{"NATURAL", "JURIDICA"}) {
+            for (Cliente cliente : ClientesFixture.crear(tipo, DEUDAS_POR_CLIENTE, false, BLOQUE / 2, siguienteAlta)) {
+                cliente.setDocumento("B" + esquema.charAt(0) + (siguienteAlta++));
+                bloque.add(cliente);
+            }
+        }
+        return bloque;
+    }
+
+    // Clientes insertados por segundo (con sus deudas), en transacciones de BLOQUE clientes
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BLOQUE)
+    public List<Cliente> insertarClientes() {
+        List<Cliente> bloque = crearBloque();
+        return transaccion.execute(status -> clienteRepository.saveAll(bloque));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Optional<Cliente> buscarPorDocumento() {
+        String documento = documentos[siguienteDocumento];
+        siguienteDocumento = (siguienteDocumento + 7919) % PRECARGADOS;
+        return lectura.execute(status -> clienteRepository.findByDocumento(documento));
+    }
+}
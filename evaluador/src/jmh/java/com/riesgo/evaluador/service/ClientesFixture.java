@@ -0,0 +1,92 @@
+package com.riesgo.evaluador.service;
+
+import com.riesgo.evaluador.model.Cliente;
+import com.riesgo.evaluador.model.Deuda;
+import com.riesgo.evaluador.model.PersonaJuridica;
+import com.riesgo.evaluador.model.PersonaNatural;
+import com.riesgo.evaluador.model.SectorEconomico;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Clientes de prueba para los benchmarks, con datos parecidos a los que llegan por la API:
+ * ingresos y montos con dos decimales, deudas de distintos tipos y, opcionalmente, alguna en mora.
+ */
+public final class ClientesFixture {
+
+    private static final String[] SECTORES = {
+        "MINERIA", "AGRICULTURA", "ENTRETENIMIENTO", "CONSTRUCCION", "TURISMO", "TECNOLOGIA", "COMERCIO"
+    };
+
+    private static final String[] TIPOS_DEUDA = {"CONSUMO", "HIPOTECARIO", "VEHICULAR", "TARJETA"};
+
+    private ClientesFixture() {
+    }
+
+    public static Cliente[] crear(String tipoCliente, int cantidadDeudas, boolean conMora, int cantidad, long semilla) {
+        Random random = new Random(semilla);
+        Cliente[] clientes = new Cliente[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            Cliente cliente = "JURIDICA".equals(tipoCliente) ? personaJuridica(random) : personaNatural(random);
+            completarDatosComunes(cliente, random, cantidadDeudas, conMora);
+            clientes[i] = cliente;
+        }
+        return clientes;
+    }
+
+    private static PersonaNatural personaNatural(Random random) {
+        PersonaNatural pn = new PersonaNatural();
+        pn.setFechaNacimiento(LocalDate.now().minusYears(20 + random.nextInt(50)).minusDays(random.nextInt(365)));
+        pn.setNumeroDependientes(random.nextInt(5));
+        pn.setEstadoCivil(random.nextBoolean() ? "CASADO" : "SOLTERO");
+        return pn;
+    }
+
+    private static PersonaJuridica personaJuridica(Random random) {
+        PersonaJuridica pj = new PersonaJuridica();
+        pj.setFechaConstitucion(LocalDate.now().minusDays(180 + random.nextInt(365 * 20)));
+        pj.setSectorEconomico(SECTORES[random.nextInt(SECTORES.length)]);
+        pj.setSector(SectorEconomico.buscar(pj.getSectorEconomico()));
+        pj.setNumeroEmpleados(1 + random.nextInt(200));
+        return pj;
+    }
+
+    private static void completarDatosComunes(Cliente cliente, Random random, int cantidadDeudas, boolean conMora) {
+        BigDecimal ingresos = monto(random, 800, 15_000);
+        cliente.setNombre("Cliente benchmark");
+        cliente.setDocumento(Long.toString(Math.abs(random.nextLong())));
+        cliente.setIngresos(ingresos);
+        cliente.setMontoSolicitado(monto(random, 500, 40_000));
+        cliente.setPlazoEnMeses(6 + random.nextInt(55));
+        cliente.setPuntajeCrediticio(550 + random.nextInt(300));
+
+        // El total de deudas queda entre 0 y 1.2 veces los ingresos para cubrir los tres evaluadores
+        BigDecimal totalObjetivo = ingresos.multiply(BigDecimal.valueOf(random.nextInt(120), 2));
+        List<Deuda> deudas = new ArrayList<>(cantidadDeudas);
+        for (int d = 0; d < cantidadDeudas; d++) {
+            Deuda deuda = new Deuda();
+            deuda.setTipo(TIPOS_DEUDA[random.nextInt(TIPOS_DEUDA.length)]);
+            deuda.setMonto(totalObjetivo.divide(BigDecimal.valueOf(cantidadDeudas), 2, BigDecimal.ROUND_HALF_UP)
+                .add(BigDecimal.ONE));
+            deuda.setFechaVencimiento(LocalDate.now().plusMonths(1 + random.nextInt(36)));
+            deuda.setDiasMora(0);
+            deuda.setPlazoMeses(12 * (1 + random.nextInt(5)));
+            deuda.setCliente(cliente);
+            deudas.add(deuda);
+        }
+        if (conMora && cantidadDeudas > 0) {
+            // La mora va en la última deuda: es el peor caso para las búsquedas secuenciales
+            deudas.get(cantidadDeudas - 1).setDiasMora(1 + random.nextInt(90));
+        }
+        cliente.setDeudas(deudas);
+    }
+
+    private static BigDecimal monto(Random random, int minimo, int maximo) {
+        return BigDecimal.valueOf(minimo + random.nextInt(maximo - minimo))
+            .add(BigDecimal.valueOf(random.nextInt(100), 2));
+    }
+}
@@ -0,0 +1,155 @@
+package com.riesgo.evaluador.service;
+
+import com.riesgo.evaluador.model.Cliente;
+import com.riesgo.evaluador.model.ContextoEvaluacion;
+import com.riesgo.evaluador.model.ResultadoEvaluacion;
+import com.riesgo.evaluador.model.SolicitudPuntaje;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Camino caliente del cálculo de riesgo: cada evaluador, el plan de reglas compilado
+ * ejecutado por el motor (desde la entidad y desde una SolicitudPuntaje ya armada), la
+ * adaptación de la entidad, la selección del evaluador y el ratio deuda/ingreso del cliente.
+ *
+ * Ejecutar con: ./mvnw -Pjmh test-compile exec:exec
+ * (el perfil GC se activa por defecto y reporta gc.alloc.rate.norm en bytes por operación)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluacionRiesgoBenchmark {
+
+    // Potencia de dos para rotar los clientes con una máscara
+    private static final int CLIENTES = 64;
+
+    @Param({"NATURAL", "JURIDICA"})
+    private String tipoCliente;
+
+    @Param({"0", "5", "50"})
+    private int cantidadDeudas;
+
+    @Param({"false", "true"})
+    private boolean conMora;
+
+    private final EvaluadorRiesgo evaluadorBajo = new EvaluadorRiesgoBajo();
+    private final EvaluadorRiesgo evaluadorMedio = new EvaluadorRiesgoMedio();
+    private final EvaluadorRiesgo evaluadorAlto = new EvaluadorRiesgoAlto();
+    private final CalculoRiesgo calculo = new CalculoRiesgo();
+    private final MotorPuntajeEscalado motor = new MotorPuntajeEscalado();
+
+    private LocalDateTime fechaEvaluacion;
+    private Cliente[] clientes;
+    private SolicitudPuntaje[] solicitudes;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        clientes = ClientesFixture.crear(tipoCliente, cantidadDeudas, conMora, CLIENTES, 20240611L);
+        fechaEvaluacion = LocalDateTime.now();
+        solicitudes = new SolicitudPuntaje[CLIENTES];
+        for (int i = 0; i < CLIENTES; i++) {
+            solicitudes[i] = SolicitudPuntaje.de(clientes[i], ContextoEvaluacion.de(clientes[i], fechaEvaluacion));
+        }
+        ReflectionTestUtils.setField(calculo, "evaluadorBajo", evaluadorBajo);
+        ReflectionTestUtils.setField(calculo, "evaluadorMedio", evaluadorMedio);
+        ReflectionTestUtils.setField(calculo, "evaluadorAlto", evaluadorAlto);
+        ReflectionTestUtils.setField(calculo, "motorEscalado", motor);
+    }
+
+    // Se recorre un conjunto de clientes para que el JIT no especialice el código en uno solo
+    private Cliente siguienteCliente() {
+        Cliente cliente = clientes[siguiente];
+        siguiente = (siguiente + 1) & (CLIENTES - 1);
+        return cliente;
+    }
+
+    // Contexto de la evaluación, como lo arma el servicio antes de puntuar
+    private ContextoEvaluacion contexto(Cliente cliente) {
+        return ContextoEvaluacion.de(cliente, fechaEvaluacion);
+    }
+
+    private SolicitudPuntaje siguienteSolicitud() {
+        SolicitudPuntaje solicitud = solicitudes[siguiente];
+        siguiente = (siguiente + 1) & (CLIENTES - 1);
+        return solicitud;
+    }
+
+    @Benchmark
+    public ResultadoEvaluacion evaluarBajo() {
+        Cliente cliente = siguienteCliente();
+        return evaluadorBajo.evaluar(cliente, contexto(cliente));
+    }
+
+    @Benchmark
+    public ResultadoEvaluacion evaluarMedio() {
+        Cliente cliente = siguienteCliente();
+        return evaluadorMedio.evaluar(cliente, contexto(cliente));
+    }
+
+    @Benchmark
+    public ResultadoEvaluacion evaluarAlto() {
+        Cliente cliente = siguienteCliente();
+        return evaluadorAlto.evaluar(cliente, contexto(cliente));
+    }
+
+    // Mismas evaluaciones que evaluarBajo/Medio/Alto, con las reglas del archivo YAML
+    @Benchmark
+    public ResultadoEvaluacion motorReglasBajo() {
+        Cliente cliente = siguienteCliente();
+        return motor.evaluar(cliente, evaluadorBajo, contexto(cliente));
+    }
+
+    @Benchmark
+    public ResultadoEvaluacion motorReglasMedio() {
+        Cliente cliente = siguienteCliente();
+        return motor.evaluar(cliente, evaluadorMedio, contexto(cliente));
+    }
+
+    @Benchmark
+    public ResultadoEvaluacion motorReglasAlto() {
+        Cliente cliente = siguienteCliente();
+        return motor.evaluar(cliente, evaluadorAlto, contexto(cliente));
+    }
+
+    // Núcleo de puntaje sin entidades: la solicitud ya está armada
+    @Benchmark
+    public ResultadoEvaluacion motorReglasSolicitudAlto() {
+        return motor.evaluar(siguienteSolicitud(), evaluadorAlto);
+    }
+
+    // Coste de adaptar la entidad JPA a la solicitud de puntaje
+    @Benchmark
+    public SolicitudPuntaje adaptarCliente() {
+        Cliente cliente = siguienteCliente();
+        return SolicitudPuntaje.de(cliente, contexto(cliente));
+    }
+
+    @Benchmark
+    public EvaluadorRiesgo seleccionarEvaluador() {
+        return calculo.seleccionarEvaluador(siguienteSolicitud());
+    }
+
+    @Benchmark
+    public BigDecimal ratioDeudaIngreso() {
+        return siguienteCliente().getRatioDeudaIngreso();
+    }
+}
@@ -0,0 +1,65 @@
+package com.riesgo.evaluador;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.config.BlockingExecutionConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Perfil reactivo: WebFlux sobre Netty en lugar de Tomcat. /evaluar y el historial se atienden con
+ * R2DBC sin bloquear el event loop; el resto de la API (lote, reglas, reevaluación, estadísticas)
+ * sigue sobre JPA y sus métodos se ejecutan en el pool de tareas de la aplicación.
+ */
+@Configuration
+@Profile("reactivo")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ConfiguracionReactiva implements WebFluxConfigurer {
+
+    private final AsyncTaskExecutor ejecutorBloqueante;
+
+    public ConfiguracionReactiva(Environment environment,
+                                 @Qualifier("applicationTaskExecutor") AsyncTaskExecutor ejecutorBloqueante) {
+        // Los repositorios R2DBC escriben las tablas del esquema JOINED
+        if (environment.matchesProfiles("tabla-unica")) {
+            throw new IllegalStateException("El perfil reactivo no admite el esquema de tabla única (perfil tabla-unica)");
+        }
+        this.ejecutorBloqueante = ejecutorBloqueante;
+    }
+
+    // Controladores con tipos de retorno no reactivos: fuera de los hilos del event loop
+    @Override
+    public void configureBlockingExecution(BlockingExecutionConfigurer configurer) {
+        configurer.setExecutor(ejecutorBloqueante);
+    }
+
+    // Con Tomcat también en el classpath, Spring Boot lo elegiría como servidor reactivo
+    @Bean
+    public NettyReactiveWebServerFactory servidorReactivo() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // Con un ConnectionFactory R2DBC, Spring Boot deja de crear el DataSource que sigue usando JPA
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // El gestor R2DBC no se registra como bean: junto al de JPA, @Transactional no sabría cuál usar
+    @Bean
+    public TransactionalOperator transaccionReactiva(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+}
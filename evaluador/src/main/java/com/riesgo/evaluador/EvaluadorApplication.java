@@ -2,12 +2,23 @@ package com.riesgo.evaluador;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
 
 @SpringBootApplication
+@EnableScheduling
 public class EvaluadorApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(EvaluadorApplication.class, args);
 	}
 
+	// Reloj de las evaluaciones; se reemplaza por uno fijo para reevaluar de forma reproducible
+	@Bean
+	public Clock reloj() {
+		return Clock.systemDefaultZone();
+	}
+
 }
@@ -1,36 +1,64 @@
 package com.riesgo.evaluador.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riesgo.evaluador.dto.ConsultaPaginaDTO;
 import com.riesgo.evaluador.dto.EvaluacionRequestDTO;
 import com.riesgo.evaluador.dto.EvaluacionResponseDTO;
 import com.riesgo.evaluador.dto.HistorialEvaluacionDTO;
+import com.riesgo.evaluador.dto.PaginaDTO;
+import com.riesgo.evaluador.service.CacheEvaluaciones;
 import com.riesgo.evaluador.service.EvaluacionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
+/**
+ * /evaluar y el historial sobre servlets y JPA (pila por defecto). Con el perfil reactivo los
+ * atiende EvaluacionReactivaController; el resto de endpoints está en GestionEvaluacionController.
+ */
 @RestController
 @RequestMapping("/api/evaluacion")
 @CrossOrigin(origins = "*")
+@Profile("!reactivo")
 public class EvaluacionController {
     
     @Autowired
     private EvaluacionService evaluacionService;
     
+    @Autowired
+    private CacheEvaluaciones cacheEvaluaciones;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     /**
      * Evaluar riesgo de un cliente
      * POST /api/evaluacion/evaluar
+     * Cabecera opcional X-Canal (WEB, SUCURSAL, API...) para excluir canales de la cache
      */
     @PostMapping("/evaluar")
-    public ResponseEntity<?> evaluarRiesgo(@RequestBody EvaluacionRequestDTO request) {
+    public ResponseEntity<?> evaluarRiesgo(@RequestBody EvaluacionRequestDTO request,
+                                           @RequestHeader(value = "X-Canal", required = false) String canal) {
         try {
-            EvaluacionResponseDTO response = evaluacionService.evaluar(request);
+            // La cache se consulta fuera de la transacción: un acierto no toca la base
+            EvaluacionResponseDTO response = cacheEvaluaciones.habilitadaPara(canal)
+                ? cacheEvaluaciones.obtener(request, () -> evaluacionService.evaluar(request))
+                : evaluacionService.evaluar(request);
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
@@ -42,29 +70,80 @@ public class EvaluacionController {
     }
     
     /**
-     * Obtener todo el historial de evaluaciones
-     * GET /api/evaluacion/historial
+     * Obtener el historial de evaluaciones paginado
+     * GET /api/evaluacion/historial?pagina=0&tamano=50
+     * GET /api/evaluacion/historial?tamano=50&cursorFecha=2024-06-01T10:00:00&cursorId=1234
      */
     @GetMapping("/historial")
-    public ResponseEntity<List<HistorialEvaluacionDTO>> obtenerHistorial() {
+    public ResponseEntity<PaginaDTO<HistorialEvaluacionDTO>> obtenerHistorial(
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "50") int tamano,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorFecha,
+            @RequestParam(required = false) Long cursorId) {
+        try {
+            ConsultaPaginaDTO consulta = new ConsultaPaginaDTO(pagina, tamano, cursorFecha, cursorId);
+            return ResponseEntity.ok(evaluacionService.obtenerHistorial(consulta));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Obtener una evaluación del historial con sus observaciones completas
+     * GET /api/evaluacion/historial/{id}
+     */
+    @GetMapping("/historial/{id}")
+    public ResponseEntity<HistorialEvaluacionDTO> obtenerEvaluacion(@PathVariable Long id) {
         try {
-            List<HistorialEvaluacionDTO> historial = evaluacionService.obtenerHistorial();
-            return ResponseEntity.ok(historial);
+            return evaluacionService.obtenerEvaluacion(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * Exportar todo el historial como NDJSON (un objeto JSON por línea) en memoria constante
+     * GET /api/evaluacion/historial/exportar
+     */
+    @GetMapping(value = "/historial/exportar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarHistorial() {
+        StreamingResponseBody cuerpo = salida -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+            evaluacionService.exportarHistorial(historial -> {
+                try {
+                    writer.write(objectMapper.writeValueAsString(historial));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(cuerpo);
+    }
+    
     /**
      * Obtener historial por cliente específico
-     * GET /api/evaluacion/historial/cliente/{clienteId}
+     * GET /api/evaluacion/historial/cliente/{clienteId}?pagina=0&tamano=50
      */
     @GetMapping("/historial/cliente/{clienteId}")
-    public ResponseEntity<List<HistorialEvaluacionDTO>> obtenerHistorialPorCliente(
-            @PathVariable Long clienteId) {
+    public ResponseEntity<PaginaDTO<HistorialEvaluacionDTO>> obtenerHistorialPorCliente(
+            @PathVariable Long clienteId,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "50") int tamano,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorFecha,
+            @RequestParam(required = false) Long cursorId) {
         try {
-            List<HistorialEvaluacionDTO> historial = evaluacionService.obtenerHistorialPorCliente(clienteId);
-            return ResponseEntity.ok(historial);
+            ConsultaPaginaDTO consulta = new ConsultaPaginaDTO(pagina, tamano, cursorFecha, cursorId);
+            return ResponseEntity.ok(evaluacionService.obtenerHistorialPorCliente(clienteId, consulta));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -72,19 +151,25 @@ public class EvaluacionController {
     
     /**
      * Obtener historial por nivel de riesgo
-     * GET /api/evaluacion/historial/riesgo/{nivelRiesgo}
+     * GET /api/evaluacion/historial/riesgo/{nivelRiesgo}?pagina=0&tamano=50
      */
     @GetMapping("/historial/riesgo/{nivelRiesgo}")
-    public ResponseEntity<List<HistorialEvaluacionDTO>> obtenerHistorialPorRiesgo(
-            @PathVariable String nivelRiesgo) {
+    public ResponseEntity<PaginaDTO<HistorialEvaluacionDTO>> obtenerHistorialPorRiesgo(
+            @PathVariable String nivelRiesgo,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "50") int tamano,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorFecha,
+            @RequestParam(required = false) Long cursorId) {
         try {
             // Validar nivel de riesgo
             if (!nivelRiesgo.equals("BAJO") && !nivelRiesgo.equals("MEDIO") && !nivelRiesgo.equals("ALTO")) {
                 return ResponseEntity.badRequest().build();
             }
             
-            List<HistorialEvaluacionDTO> historial = evaluacionService.obtenerHistorialPorNivelRiesgo(nivelRiesgo);
-            return ResponseEntity.ok(historial);
+            ConsultaPaginaDTO consulta = new ConsultaPaginaDTO(pagina, tamano, cursorFecha, cursorId);
+            return ResponseEntity.ok(evaluacionService.obtenerHistorialPorNivelRiesgo(nivelRiesgo, consulta));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -92,67 +177,30 @@ public class EvaluacionController {
     
     /**
      * Obtener historial por rango de fechas
-     * GET /api/evaluacion/historial/fechas?inicio=2024-01-01T00:00:00&fin=2024-12-31T23:59:59
+     * GET /api/evaluacion/historial/fechas?inicio=2024-01-01T00:00:00&fin=2024-12-31T23:59:59&pagina=0&tamano=50
      */
     @GetMapping("/historial/fechas")
-    public ResponseEntity<List<HistorialEvaluacionDTO>> obtenerHistorialPorFechas(
+    public ResponseEntity<PaginaDTO<HistorialEvaluacionDTO>> obtenerHistorialPorFechas(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "50") int tamano,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorFecha,
+            @RequestParam(required = false) Long cursorId) {
         try {
             if (inicio.isAfter(fin)) {
                 return ResponseEntity.badRequest().build();
             }
             
-            List<HistorialEvaluacionDTO> historial = evaluacionService.obtenerHistorialPorFechas(inicio, fin);
-            return ResponseEntity.ok(historial);
+            ConsultaPaginaDTO consulta = new ConsultaPaginaDTO(pagina, tamano, cursorFecha, cursorId);
+            return ResponseEntity.ok(evaluacionService.obtenerHistorialPorFechas(inicio, fin, consulta));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
-    /**
-     * Endpoint de prueba para verificar que la API está funcionando
-     * GET /api/evaluacion/health
-     */
-    @GetMapping("/health")
-    public ResponseEntity<Map<String, String>> healthCheck() {
-        Map<String, String> response = new HashMap<>();
-        response.put("status", "OK");
-        response.put("message", "API de Evaluación de Riesgo funcionando correctamente");
-        response.put("timestamp", LocalDateTime.now().toString());
-        return ResponseEntity.ok(response);
-    }
-    
-    /**
-     * Obtener información sobre los tipos de evaluación disponibles
-     * GET /api/evaluacion/info
-     */
-    @GetMapping("/info")
-    public ResponseEntity<Map<String, Object>> obtenerInformacion() {
-        Map<String, Object> info = new HashMap<>();
-        
-        // Tipos de cliente
-        info.put("tiposCliente", List.of("NATURAL", "JURIDICA"));
-        
-        // Niveles de riesgo
-        info.put("nivelesRiesgo", List.of("BAJO", "MEDIO", "ALTO"));
-        
-        // Criterios de evaluación
-        Map<String, String> criterios = new HashMap<>();
-        criterios.put("BAJO", "Ratio deuda/ingreso <= 0.4 y sin moras");
-        criterios.put("MEDIO", "Ratio deuda/ingreso entre 0.4 y 0.6");
-        criterios.put("ALTO", "Ratio deuda/ingreso > 0.6 o tiene deudas en mora");
-        info.put("criteriosEvaluacion", criterios);
-        
-        // Campos requeridos por tipo
-        Map<String, List<String>> camposRequeridos = new HashMap<>();
-        camposRequeridos.put("NATURAL", List.of("nombre", "documento", "ingresos", "fechaNacimiento"));
-        camposRequeridos.put("JURIDICA", List.of("nombre", "documento", "ingresos", "fechaConstitucion"));
-        info.put("camposRequeridos", camposRequeridos);
-        
-        return ResponseEntity.ok(info);
-    }
-    
     /**
      * Método helper para crear respuestas de error consistentes
      */
@@ -0,0 +1,199 @@
+package com.riesgo.evaluador.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riesgo.evaluador.dto.ConsultaPaginaDTO;
+import com.riesgo.evaluador.dto.EvaluacionRequestDTO;
+import com.riesgo.evaluador.dto.EvaluacionResponseDTO;
+import com.riesgo.evaluador.dto.HistorialEvaluacionDTO;
+import com.riesgo.evaluador.dto.PaginaDTO;
+import com.riesgo.evaluador.service.CacheEvaluaciones;
+import com.riesgo.evaluador.service.EvaluacionReactivaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /evaluar y el historial en la pila reactiva (perfil reactivo): mismas rutas, parámetros y
+ * respuestas que EvaluacionController, con WebFlux y R2DBC.
+ */
+@RestController
+@RequestMapping("/api/evaluacion")
+@CrossOrigin(origins = "*")
+@Profile("reactivo")
+public class EvaluacionReactivaController {
+
+    // Líneas NDJSON por escritura en la exportación
+    private static final int LINEAS_POR_BLOQUE = 500;
+
+    @Autowired
+    private EvaluacionReactivaService evaluacionService;
+
+    @Autowired
+    private CacheEvaluaciones cacheEvaluaciones;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Evaluar riesgo de un cliente
+     * POST /api/evaluacion/evaluar
+     * Cabecera opcional X-Canal (WEB, SUCURSAL, API...) para excluir canales de la cache
+     */
+    @PostMapping("/evaluar")
+    public Mono<ResponseEntity<?>> evaluarRiesgo(@RequestBody EvaluacionRequestDTO request,
+                                                 @RequestHeader(value = "X-Canal", required = false) String canal) {
+        Mono<EvaluacionResponseDTO> evaluacion = evaluacionService.evaluar(request);
+        return (cacheEvaluaciones.habilitadaPara(canal) ? cacheEvaluaciones.obtener(request, evaluacion) : evaluacion)
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest()
+                .body(crearRespuestaError("Error de validación", e.getMessage()))))
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(crearRespuestaError("Error interno", "Error al procesar la evaluación"))));
+    }
+
+    /**
+     * Obtener el historial de evaluaciones paginado
+     * GET /api/evaluacion/historial?pagina=0&tamano=50
+     * GET /api/evaluacion/historial?tamano=50&cursorFecha=2024-06-01T10:00:00&cursorId=1234
+     */
+    @GetMapping("/historial")
+    public Mono<ResponseEntity<PaginaDTO<HistorialEvaluacionDTO>>> obtenerHistorial(
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "50") int tamano,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorFecha,
+            @RequestParam(required = false) Long cursorId) {
+        ConsultaPaginaDTO consulta = new ConsultaPaginaDTO(pagina, tamano, cursorFecha, cursorId);
+        return responderPagina(evaluacionService.obtenerHistorial(consulta));
+    }
+
+    /**
+     * Obtener una evaluación del historial con sus observaciones completas
+     * GET /api/evaluacion/historial/{id}
+     */
+    @GetMapping("/historial/{id}")
+    public Mono<ResponseEntity<HistorialEvaluacionDTO>> obtenerEvaluacion(@PathVariable Long id) {
+        return evaluacionService.obtenerEvaluacion(id)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.notFound().build())
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build()));
+    }
+
+    /**
+     * Exportar todo el historial como NDJSON (un objeto JSON por línea) en memoria constante
+     * GET /api/evaluacion/historial/exportar
+     * Las filas se leen de la base al ritmo en que el cliente recibe la respuesta
+     */
+    @GetMapping(value = "/historial/exportar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<DataBuffer>> exportarHistorial() {
+        Flux<DataBuffer> cuerpo = evaluacionService.exportarHistorial()
+            .buffer(LINEAS_POR_BLOQUE)
+            .map(this::escribirLineas);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(cuerpo);
+    }
+
+    /**
+     * Obtener historial por cliente específico
+     * GET /api/evaluacion/historial/cliente/{clienteId}?pagina=0&tamano=50
+     */
+    @GetMapping("/historial/cliente/{clienteId}")
+    public Mono<ResponseEntity<PaginaDTO<HistorialEvaluacionDTO>>> obtenerHistorialPorCliente(
+            @PathVariable Long clienteId,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "50") int tamano,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorFecha,
+            @RequestParam(required = false) Long cursorId) {
+        ConsultaPaginaDTO consulta = new ConsultaPaginaDTO(pagina, tamano, cursorFecha, cursorId);
+        return responderPagina(evaluacionService.obtenerHistorialPorCliente(clienteId, consulta));
+    }
+
+    /**
+     * Obtener historial por nivel de riesgo
+     * GET /api/evaluacion/historial/riesgo/{nivelRiesgo}?pagina=0&tamano=50
+     */
+    @GetMapping("/historial/riesgo/{nivelRiesgo}")
+    public Mono<ResponseEntity<PaginaDTO<HistorialEvaluacionDTO>>> obtenerHistorialPorRiesgo(
+            @PathVariable String nivelRiesgo,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "50") int tamano,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorFecha,
+            @RequestParam(required = false) Long cursorId) {
+        // Validar nivel de riesgo
+        if (!nivelRiesgo.equals("BAJO") && !nivelRiesgo.equals("MEDIO") && !nivelRiesgo.equals("ALTO")) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        ConsultaPaginaDTO consulta = new ConsultaPaginaDTO(pagina, tamano, cursorFecha, cursorId);
+        return responderPagina(evaluacionService.obtenerHistorialPorNivelRiesgo(nivelRiesgo, consulta));
+    }
+
+    /**
+     * Obtener historial por rango de fechas
+     * GET /api/evaluacion/historial/fechas?inicio=2024-01-01T00:00:00&fin=2024-12-31T23:59:59&pagina=0&tamano=50
+     */
+    @GetMapping("/historial/fechas")
+    public Mono<ResponseEntity<PaginaDTO<HistorialEvaluacionDTO>>> obtenerHistorialPorFechas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "50") int tamano,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorFecha,
+            @RequestParam(required = false) Long cursorId) {
+        if (inicio.isAfter(fin)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        ConsultaPaginaDTO consulta = new ConsultaPaginaDTO(pagina, tamano, cursorFecha, cursorId);
+        return responderPagina(evaluacionService.obtenerHistorialPorFechas(inicio, fin, consulta));
+    }
+
+    // Mismos códigos que la pila bloqueante: 400 por consulta inválida, 500 ante cualquier otro error
+    private Mono<ResponseEntity<PaginaDTO<HistorialEvaluacionDTO>>> responderPagina(
+            Mono<PaginaDTO<HistorialEvaluacionDTO>> pagina) {
+        return pagina
+            .map(ResponseEntity::ok)
+            .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()))
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build()));
+    }
+
+    private DataBuffer escribirLineas(List<HistorialEvaluacionDTO> bloque) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(bloque.size() * 256);
+        try {
+            for (HistorialEvaluacionDTO historial : bloque) {
+                salida.write(objectMapper.writeValueAsBytes(historial));
+                salida.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return DefaultDataBufferFactory.sharedInstance.wrap(salida.toByteArray());
+    }
+
+    /**
+     * Método helper para crear respuestas de error consistentes
+     */
+    private Map<String, Object> crearRespuestaError(String tipo, String mensaje) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", tipo);
+        error.put("mensaje", mensaje);
+        error.put("timestamp", LocalDateTime.now().toString());
+        return error;
+    }
+}
@@ -0,0 +1,270 @@
+package com.riesgo.evaluador.controller;
+
+import com.riesgo.evaluador.dto.EstadisticasCacheDTO;
+import com.riesgo.evaluador.dto.EstadisticasDTO;
+import com.riesgo.evaluador.dto.EstadoReevaluacionDTO;
+import com.riesgo.evaluador.dto.EvaluacionLoteResponseDTO;
+import com.riesgo.evaluador.dto.EvaluacionRequestDTO;
+import com.riesgo.evaluador.model.SectorEconomico;
+import com.riesgo.evaluador.service.CacheEvaluaciones;
+import com.riesgo.evaluador.service.CalculoRiesgo;
+import com.riesgo.evaluador.service.EstadisticasEvaluacion;
+import com.riesgo.evaluador.service.EvaluacionService;
+import com.riesgo.evaluador.service.PlanEvaluacion;
+import com.riesgo.evaluador.service.ReevaluacionCartera;
+import com.riesgo.evaluador.service.ReglasEvaluacion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoints de /api/evaluacion comunes a las dos pilas: simulación, lote, estadísticas, reglas y
+ * reevaluación. Son llamadas a servicios JPA; con el perfil reactivo WebFlux las ejecuta en el pool
+ * de tareas (ConfiguracionReactiva), fuera del event loop.
+ */
+@RestController
+@RequestMapping("/api/evaluacion")
+@CrossOrigin(origins = "*")
+public class GestionEvaluacionController {
+    
+    @Autowired
+    private EvaluacionService evaluacionService;
+    
+    @Autowired
+    private EstadisticasEvaluacion estadisticasEvaluacion;
+    
+    @Autowired
+    private CacheEvaluaciones cacheEvaluaciones;
+    
+    @Autowired
+    private ReglasEvaluacion reglasEvaluacion;
+    
+    @Autowired
+    private CalculoRiesgo calculoRiesgo;
+    
+    @Autowired
+    private ReevaluacionCartera reevaluacionCartera;
+    
+    @Value("${evaluacion.motor:escalado}")
+    private String motor;
+    
+    /**
+     * Simular la evaluación de un cliente sin registrarlo (precalificación)
+     * POST /api/evaluacion/simular
+     * Misma respuesta que /evaluar, sin clienteId; no se guarda cliente, deudas ni historial
+     */
+    @PostMapping("/simular")
+    public ResponseEntity<?> simularEvaluacion(@RequestBody EvaluacionRequestDTO request) {
+        try {
+            return ResponseEntity.ok(evaluacionService.simular(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(crearRespuestaError("Error de validación", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(crearRespuestaError("Error interno", "Error al procesar la simulación"));
+        }
+    }
+    
+    /**
+     * Evaluar riesgo de un lote de clientes
+     * POST /api/evaluacion/evaluar/lote
+     */
+    @PostMapping("/evaluar/lote")
+    public ResponseEntity<?> evaluarLote(@RequestBody List<EvaluacionRequestDTO> requests) {
+        try {
+            EvaluacionLoteResponseDTO response = evaluacionService.evaluarLote(requests);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(crearRespuestaError("Error de validación", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(crearRespuestaError("Error interno", "Error al procesar el lote"));
+        }
+    }
+    
+    /**
+     * Obtener estadísticas agregadas por nivel de riesgo, tipo de cliente y día
+     * GET /api/evaluacion/estadisticas
+     */
+    @GetMapping("/estadisticas")
+    public ResponseEntity<EstadisticasDTO> obtenerEstadisticas() {
+        return ResponseEntity.ok(estadisticasEvaluacion.obtener());
+    }
+    
+    /**
+     * Obtener aciertos, fallos y desalojos de la cache de evaluaciones
+     * GET /api/evaluacion/cache/estadisticas
+     */
+    @GetMapping("/cache/estadisticas")
+    public ResponseEntity<EstadisticasCacheDTO> obtenerEstadisticasCache() {
+        return ResponseEntity.ok(cacheEvaluaciones.obtenerEstadisticas());
+    }
+    
+    /**
+     * Obtener la versión de las reglas de riesgo vigentes
+     * GET /api/evaluacion/reglas
+     */
+    @GetMapping("/reglas")
+    public ResponseEntity<Map<String, Object>> obtenerReglas() {
+        return ResponseEntity.ok(describirReglas(reglasEvaluacion.actual()));
+    }
+    
+    /**
+     * Recargar las reglas de riesgo desde su archivo sin reiniciar
+     * POST /api/evaluacion/reglas/recargar
+     * Si el archivo no es válido se mantienen las reglas vigentes
+     */
+    @PostMapping("/reglas/recargar")
+    public ResponseEntity<?> recargarReglas() {
+        try {
+            PlanEvaluacion plan = reglasEvaluacion.recargar();
+            // Las respuestas guardadas se calcularon con las reglas anteriores
+            cacheEvaluaciones.invalidar();
+            return ResponseEntity.ok(describirReglas(plan));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(crearRespuestaError("Reglas inválidas", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(crearRespuestaError("Error interno", "Error al recargar las reglas"));
+        }
+    }
+    
+    /**
+     * Reevaluar toda la cartera con las reglas vigentes en segundo plano
+     * POST /api/evaluacion/reevaluacion?nueva=false
+     * Reanuda la última reevaluación sin terminar; con nueva=true la cancela y empieza de cero
+     */
+    @PostMapping("/reevaluacion")
+    public ResponseEntity<?> iniciarReevaluacion(@RequestParam(defaultValue = "false") boolean nueva) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(reevaluacionCartera.iniciar(nueva));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(crearRespuestaError("Reevaluación no iniciada", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(crearRespuestaError("Error interno", "Error al iniciar la reevaluación"));
+        }
+    }
+    
+    /**
+     * Obtener el progreso de la última reevaluación de cartera
+     * GET /api/evaluacion/reevaluacion
+     */
+    @GetMapping("/reevaluacion")
+    public ResponseEntity<EstadoReevaluacionDTO> obtenerReevaluacion() {
+        return reevaluacionCartera.obtenerEstado()
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Detener la reevaluación en curso tras la página actual; puede reanudarse después
+     * POST /api/evaluacion/reevaluacion/detener
+     */
+    @PostMapping("/reevaluacion/detener")
+    public ResponseEntity<?> detenerReevaluacion() {
+        try {
+            return ResponseEntity.ok(reevaluacionCartera.detener());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(crearRespuestaError("Reevaluación no detenida", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Endpoint de prueba para verificar que la API está funcionando
+     * GET /api/evaluacion/health
+     */
+    @GetMapping("/health")
+    public ResponseEntity<Map<String, String>> healthCheck() {
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "OK");
+        response.put("message", "API de Evaluación de Riesgo funcionando correctamente");
+        response.put("timestamp", LocalDateTime.now().toString());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Obtener información sobre los tipos de evaluación disponibles
+     * GET /api/evaluacion/info
+     */
+    @GetMapping("/info")
+    public ResponseEntity<Map<String, Object>> obtenerInformacion() {
+        Map<String, Object> info = new HashMap<>();
+        
+        // Tipos de cliente
+        info.put("tiposCliente", List.of("NATURAL", "JURIDICA"));
+        
+        // Niveles de riesgo
+        info.put("nivelesRiesgo", List.of("BAJO", "MEDIO", "ALTO"));
+        
+        // Criterios de selección del evaluador del motor activo
+        PlanEvaluacion plan = reglasEvaluacion.actual();
+        String ratioMedio = calculoRiesgo.ratioEvaluadorMedio().toPlainString();
+        String ratioAlto = calculoRiesgo.ratioEvaluadorAlto().toPlainString();
+        Map<String, String> criterios = new HashMap<>();
+        criterios.put("BAJO", "Ratio deuda/ingreso <= " + ratioMedio + " y sin moras");
+        criterios.put("MEDIO", "Ratio deuda/ingreso entre " + ratioMedio + " y " + ratioAlto);
+        criterios.put("ALTO", "Ratio deuda/ingreso > " + ratioAlto + " o tiene deudas en mora");
+        info.put("criteriosEvaluacion", criterios);
+        
+        // Campos requeridos por tipo
+        Map<String, List<String>> camposRequeridos = new HashMap<>();
+        camposRequeridos.put("NATURAL", List.of("nombre", "documento", "ingresos", "fechaNacimiento"));
+        camposRequeridos.put("JURIDICA", List.of("nombre", "documento", "ingresos", "fechaConstitucion"));
+        info.put("camposRequeridos", camposRequeridos);
+        
+        // Catálogo de sectores económicos con el ajuste de puntaje que aplica cada evaluador del motor activo:
+        // el plan de reglas vigente (se actualiza con /reglas/recargar) o las reglas incluidas (motor clásico)
+        List<Map<String, Object>> sectores = new ArrayList<>();
+        for (SectorEconomico sector : SectorEconomico.values()) {
+            Map<String, Object> entrada = new LinkedHashMap<>();
+            entrada.put("sector", sector.name());
+            entrada.put("descripcion", sector.getDescripcion());
+            Map<String, Integer> ajustes = new LinkedHashMap<>();
+            ajustes.put("BAJO", calculoRiesgo.ajusteSector("BAJO", sector));
+            ajustes.put("MEDIO", calculoRiesgo.ajusteSector("MEDIO", sector));
+            ajustes.put("ALTO", calculoRiesgo.ajusteSector("ALTO", sector));
+            entrada.put("ajustes", ajustes);
+            sectores.add(entrada);
+        }
+        info.put("sectoresEconomicos", sectores);
+        info.put("reglas", describirReglas(plan));
+        
+        return ResponseEntity.ok(info);
+    }
+    
+    private Map<String, Object> describirReglas(PlanEvaluacion plan) {
+        Map<String, Object> reglas = new HashMap<>();
+        reglas.put("version", plan.getVersion());
+        reglas.put("origen", plan.getOrigen());
+        reglas.put("cargadoEn", plan.getFechaCarga().toString());
+        // Con el motor clasico las reglas se cargan pero no se aplican
+        reglas.put("motor", motor);
+        return reglas;
+    }
+    
+    /**
+     * Método helper para crear respuestas de error consistentes
+     */
+    private Map<String, Object> crearRespuestaError(String tipo, String mensaje) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", tipo);
+        error.put("mensaje", mensaje);
+        error.put("timestamp", LocalDateTime.now().toString());
+        return error;
+    }
+}
\ No newline at end of file
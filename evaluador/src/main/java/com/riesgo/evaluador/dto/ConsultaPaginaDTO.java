@@ -0,0 +1,36 @@
+package com.riesgo.evaluador.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsultaPaginaDTO {
+    
+    private int pagina;
+    private int tamano;
+    
+    // Cursor (keyset): último registro recibido; si viene, se ignora la página
+    private LocalDateTime cursorFecha;
+    private Long cursorId;
+    
+    public boolean usaCursor() {
+        return cursorFecha != null && cursorId != null;
+    }
+    
+    public void validar(int tamanoMaximo) {
+        if (tamano < 1 || tamano > tamanoMaximo) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + tamanoMaximo);
+        }
+        if (pagina < 0) {
+            throw new IllegalArgumentException("La página no puede ser negativa");
+        }
+        if ((cursorFecha == null) != (cursorId == null)) {
+            throw new IllegalArgumentException("El cursor requiere cursorFecha y cursorId");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.riesgo.evaluador.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasCacheDTO {
+    
+    private boolean habilitada;
+    private long entradas;
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+    private BigDecimal tasaAciertos; // porcentaje 0-100
+    private Set<String> canalesDeshabilitados;
+}
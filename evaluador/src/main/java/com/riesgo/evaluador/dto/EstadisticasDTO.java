@@ -0,0 +1,33 @@
+package com.riesgo.evaluador.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasDTO {
+    
+    private ResumenDTO total;
+    private Map<String, ResumenDTO> porNivelRiesgo;
+    private Map<String, ResumenDTO> porTipoCliente;
+    private Map<LocalDate, ResumenDTO> porDia;
+    private LocalDateTime ultimaReconciliacion;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ResumenDTO {
+        
+        private long evaluaciones;
+        private long aprobadas;
+        private BigDecimal tasaAprobacion; // porcentaje 0-100
+        private BigDecimal puntajePromedio;
+    }
+}
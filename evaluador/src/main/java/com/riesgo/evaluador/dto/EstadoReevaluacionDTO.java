@@ -0,0 +1,66 @@
+package com.riesgo.evaluador.dto;
+
+import com.riesgo.evaluador.model.Reevaluacion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadoReevaluacionDTO {
+
+    private Long id;
+    private String estado;
+    private boolean enEjecucion;
+    private String versionReglas;
+    private String motor;
+    private LocalDateTime fechaEvaluacion;
+    private long totalClientes;
+    private long procesados;
+    private long errores;
+    private BigDecimal porcentaje; // 0-100, sobre totalClientes
+    private Long ultimoClienteId;
+    private long cambiosNivel;
+    private long cambiosAprobacion;
+    private long sinHistorialPrevio;
+    private BigDecimal clientesPorSegundo; // solo durante la ejecución en este proceso
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaActualizacion;
+    private LocalDateTime fechaFin;
+    private String mensaje;
+
+    public static EstadoReevaluacionDTO fromReevaluacion(Reevaluacion reevaluacion, boolean enEjecucion,
+                                                         BigDecimal clientesPorSegundo) {
+        long recorridos = reevaluacion.getProcesados() + reevaluacion.getErrores();
+        BigDecimal porcentaje = reevaluacion.getTotalClientes() == 0
+            ? BigDecimal.valueOf(100)
+            : BigDecimal.valueOf(Math.min(recorridos, reevaluacion.getTotalClientes()) * 100)
+                .divide(BigDecimal.valueOf(reevaluacion.getTotalClientes()), 2, RoundingMode.HALF_UP);
+        return new EstadoReevaluacionDTO(
+            reevaluacion.getId(),
+            reevaluacion.getEstado().name(),
+            enEjecucion,
+            reevaluacion.getVersionReglas(),
+            reevaluacion.getMotor(),
+            reevaluacion.getFechaEvaluacion(),
+            reevaluacion.getTotalClientes(),
+            reevaluacion.getProcesados(),
+            reevaluacion.getErrores(),
+            porcentaje,
+            reevaluacion.getUltimoClienteId(),
+            reevaluacion.getCambiosNivel(),
+            reevaluacion.getCambiosAprobacion(),
+            reevaluacion.getSinHistorialPrevio(),
+            clientesPorSegundo,
+            reevaluacion.getFechaInicio(),
+            reevaluacion.getFechaActualizacion(),
+            reevaluacion.getFechaFin(),
+            reevaluacion.getMensaje()
+        );
+    }
+}
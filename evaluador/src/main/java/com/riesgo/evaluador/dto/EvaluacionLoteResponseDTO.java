@@ -0,0 +1,50 @@
+package com.riesgo.evaluador.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EvaluacionLoteResponseDTO {
+
+    private int total;
+    private int exitosas;
+    private int fallidas;
+
+    // Un resultado por cada solicitud, en el mismo orden del lote
+    private List<ResultadoItemDTO> resultados;
+
+    public static EvaluacionLoteResponseDTO fromResultados(List<ResultadoItemDTO> resultados) {
+        int exitosas = (int) resultados.stream().filter(ResultadoItemDTO::isExitoso).count();
+        return new EvaluacionLoteResponseDTO(
+            resultados.size(),
+            exitosas,
+            resultados.size() - exitosas,
+            resultados
+        );
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ResultadoItemDTO {
+
+        private int indice;
+        private String documento;
+        private boolean exitoso;
+        private EvaluacionResponseDTO evaluacion;
+        private String error;
+
+        public static ResultadoItemDTO exito(int indice, EvaluacionResponseDTO evaluacion) {
+            return new ResultadoItemDTO(indice, evaluacion.getDocumentoCliente(), true, evaluacion, null);
+        }
+
+        public static ResultadoItemDTO fallo(int indice, String documento, String error) {
+            return new ResultadoItemDTO(indice, documento, false, null, error);
+        }
+    }
+}
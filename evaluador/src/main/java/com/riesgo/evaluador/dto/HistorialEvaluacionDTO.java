@@ -1,5 +1,6 @@
 package com.riesgo.evaluador.dto;
 
+import com.riesgo.evaluador.model.FilaHistorial;
 import com.riesgo.evaluador.model.HistorialEvaluacion;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -25,6 +26,15 @@ public class HistorialEvaluacionDTO {
     private BigDecimal ingresosCliente;
     private BigDecimal totalDeudas;
     
+    // Constructor de proyección JPQL para listados: no transfiere la columna TEXT de observaciones
+    public HistorialEvaluacionDTO(Long id, Long clienteId, String tipoCliente, String nivelRiesgo,
+                                  BigDecimal puntaje, LocalDateTime fechaEvaluacion, boolean aprobado,
+                                  BigDecimal montoMaximoCredito, BigDecimal ingresosCliente,
+                                  BigDecimal totalDeudas) {
+        this(id, clienteId, tipoCliente, nivelRiesgo, puntaje, null, fechaEvaluacion, aprobado,
+             montoMaximoCredito, ingresosCliente, totalDeudas);
+    }
+    
     // Constructor desde entidad
     public static HistorialEvaluacionDTO fromEntity(HistorialEvaluacion historial) {
         return new HistorialEvaluacionDTO(
@@ -41,4 +51,21 @@ public class HistorialEvaluacionDTO {
             historial.getTotalDeudas()
         );
     }
+    
+    // Desde la fila R2DBC de la pila reactiva; en los listados observaciones llega vacía
+    public static HistorialEvaluacionDTO fromFila(FilaHistorial fila) {
+        return new HistorialEvaluacionDTO(
+            fila.getId(),
+            fila.getClienteId(),
+            fila.getTipoCliente(),
+            fila.getNivelRiesgo(),
+            fila.getPuntaje(),
+            fila.getObservaciones(),
+            fila.getFechaEvaluacion(),
+            fila.isAprobado(),
+            fila.getMontoMaximoCredito(),
+            fila.getIngresosCliente(),
+            fila.getTotalDeudas()
+        );
+    }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.riesgo.evaluador.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+    
+    private List<T> contenido;
+    private Integer pagina; // null cuando se consulta por cursor
+    private int tamano;
+    private boolean hayMas;
+    
+    // Cursor para pedir la página siguiente (null si no hay más registros)
+    private LocalDateTime siguienteCursorFecha;
+    private Long siguienteCursorId;
+}
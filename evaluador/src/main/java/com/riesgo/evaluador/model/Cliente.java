@@ -1,14 +1,22 @@
 package com.riesgo.evaluador.model;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.util.List;
 
 @Entity
+@NamedEntityGraph(name = Cliente.GRAFO_DEUDAS, attributeNodes = @NamedAttributeNode("deudas"))
+// JOINED por defecto; el perfil tabla-unica lo cambia a SINGLE_TABLE con META-INF/orm-tabla-unica.xml.
+// En ambos esquemas tipo_cliente guarda NATURAL o JURIDICA, igual que getTipoCliente()
 @Inheritance(strategy = InheritanceType.JOINED)
 @DiscriminatorColumn(name = "tipo_cliente")
 @Data
@@ -16,8 +24,12 @@ import java.util.List;
 @AllArgsConstructor
 public abstract class Cliente {
     
+    // Cliente con sus deudas en la misma consulta
+    public static final String GRAFO_DEUDAS = "Cliente.deudas";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cliente_seq")
+    @SequenceGenerator(name = "cliente_seq", sequenceName = "clientes_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -39,19 +51,44 @@ public abstract class Cliente {
     @Column(name = "puntaje_crediticio")
     private Integer puntajeCrediticio;
     
-    @OneToMany(mappedBy = "cliente", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    // orphanRemoval: las líneas retiradas en una reevaluación se borran al sincronizar
+    @OneToMany(mappedBy = "cliente", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<Deuda> deudas;
     
+    // Agregados de las deudas, calculados al primer uso y descartados al reemplazar la lista
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ResumenDeudas resumenDeudas;
+    
+    public void setDeudas(List<Deuda> deudas) {
+        this.deudas = deudas;
+        this.resumenDeudas = null;
+    }
+    
+    public ResumenDeudas getResumenDeudas() {
+        ResumenDeudas resumen = resumenDeudas;
+        if (resumen == null) {
+            resumen = ResumenDeudas.calcular(deudas);
+            resumenDeudas = resumen;
+        }
+        return resumen;
+    }
+    
+    // Recalcula el resumen tras modificar la lista de deudas en sitio
+    public ResumenDeudas recalcularResumenDeudas() {
+        resumenDeudas = null;
+        return getResumenDeudas();
+    }
+    
     // Método abstracto que implementarán las subclases
     public abstract String getTipoCliente();
     
     // Método para calcular el total de deudas
     public BigDecimal getTotalDeudas() {
-        return deudas != null ? 
-            deudas.stream()
-                .map(Deuda::getMonto)
-                .reduce(BigDecimal.ZERO, BigDecimal::add) : 
-            BigDecimal.ZERO;
+        return getResumenDeudas().getTotal();
     }
     
     // Método para calcular ratio deuda/ingreso
@@ -0,0 +1,38 @@
+package com.riesgo.evaluador.model;
+
+import lombok.Getter;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Datos dependientes de la fecha calculados una sola vez por evaluación: el instante de la
+ * evaluación y la edad o los años de constitución del cliente.
+ * Todas las reglas usan la misma fecha, de modo que una reevaluación con el mismo reloj
+ * produce el mismo resultado.
+ */
+@Getter
+public final class ContextoEvaluacion {
+
+    private final LocalDateTime fechaEvaluacion;
+    private final Integer edad;
+    private final Integer anosConstitucion;
+
+    private ContextoEvaluacion(LocalDateTime fechaEvaluacion, Integer edad, Integer anosConstitucion) {
+        this.fechaEvaluacion = fechaEvaluacion;
+        this.edad = edad;
+        this.anosConstitucion = anosConstitucion;
+    }
+
+    public static ContextoEvaluacion de(Cliente cliente, Clock reloj) {
+        return de(cliente, LocalDateTime.now(reloj));
+    }
+
+    public static ContextoEvaluacion de(Cliente cliente, LocalDateTime fechaEvaluacion) {
+        LocalDate fecha = fechaEvaluacion.toLocalDate();
+        Integer edad = cliente instanceof PersonaNatural pn ? pn.getEdad(fecha) : null;
+        Integer anosConstitucion = cliente instanceof PersonaJuridica pj ? pj.getAnosConstitucion(fecha) : null;
+        return new ContextoEvaluacion(fechaEvaluacion, edad, anosConstitucion);
+    }
+}
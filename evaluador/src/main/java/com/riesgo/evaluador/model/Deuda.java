@@ -16,7 +16,8 @@ import java.time.LocalDate;
 public class Deuda {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "deuda_seq")
+    @SequenceGenerator(name = "deuda_seq", sequenceName = "deudas_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -38,10 +39,10 @@ public class Deuda {
     @JoinColumn(name = "cliente_id")
     private Cliente cliente;
     
-    // Método para verificar si la deuda está vencida
-    public boolean isVencida() {
+    // Método para verificar si la deuda está vencida a una fecha dada
+    public boolean isVencida(LocalDate fecha) {
         return fechaVencimiento != null && 
-               fechaVencimiento.isBefore(LocalDate.now());
+               fechaVencimiento.isBefore(fecha);
     }
     
     // Método para verificar si está en mora
@@ -0,0 +1,71 @@
+package com.riesgo.evaluador.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Cliente tal como lo lee y escribe la pila reactiva (R2DBC) sobre el esquema JOINED.
+ * save() escribe solo la tabla cliente; los datos de personas_naturales y personas_juridicas
+ * llegan en la misma consulta por documento y se escriben con las sentencias del repositorio.
+ */
+@Data
+@NoArgsConstructor
+@Table("cliente")
+public class FilaCliente implements Persistable<Long> {
+
+    @Id
+    private Long id;
+
+    private String tipoCliente;
+    private String nombre;
+    private String documento;
+    private BigDecimal ingresos;
+    private BigDecimal montoSolicitado;
+
+    @Column("plazo_meses")
+    private Integer plazoEnMeses;
+
+    private Integer puntajeCrediticio;
+
+    // Persona natural
+    @ReadOnlyProperty
+    private LocalDate fechaNacimiento;
+
+    @ReadOnlyProperty
+    private String estadoCivil;
+
+    @ReadOnlyProperty
+    private Integer numeroDependientes;
+
+    // Persona jurídica
+    @ReadOnlyProperty
+    private LocalDate fechaConstitucion;
+
+    @ReadOnlyProperty
+    private String sectorEconomico;
+
+    @ReadOnlyProperty
+    private Integer numeroEmpleados;
+
+    // El id sale de clientes_seq antes del INSERT: save() no puede deducir del id si la fila es nueva
+    @Transient
+    private boolean nueva;
+
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+
+    public boolean isNatural() {
+        return SolicitudPuntaje.NATURAL.equals(tipoCliente);
+    }
+}
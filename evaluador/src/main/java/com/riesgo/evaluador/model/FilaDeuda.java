@@ -0,0 +1,29 @@
+package com.riesgo.evaluador.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Deuda de un cliente en la pila reactiva (R2DBC); misma tabla que {@link Deuda}. Se inserta con
+ * DeudaReactivoRepository#insertarLote, con el id ya tomado de deudas_seq.
+ */
+@Data
+@NoArgsConstructor
+@Table("deudas")
+public class FilaDeuda {
+
+    @Id
+    private Long id;
+
+    private String tipo;
+    private BigDecimal monto;
+    private LocalDate fechaVencimiento;
+    private Integer diasMora;
+    private Integer plazoMeses;
+    private Long clienteId;
+}
@@ -0,0 +1,63 @@
+package com.riesgo.evaluador.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Registro del historial en la pila reactiva (R2DBC); misma tabla que {@link HistorialEvaluacion}.
+ */
+@Data
+@NoArgsConstructor
+@Table("historial_evaluaciones")
+public class FilaHistorial implements Persistable<Long> {
+
+    @Id
+    private Long id;
+
+    private Long clienteId;
+    private String tipoCliente;
+    private String nivelRiesgo;
+    private BigDecimal puntaje;
+    private String observaciones;
+    private LocalDateTime fechaEvaluacion;
+    private boolean aprobado;
+    private BigDecimal montoMaximoCredito;
+    private BigDecimal ingresosCliente;
+    private BigDecimal totalDeudas;
+    private Long reevaluacionId;
+
+    // El id sale de historial_evaluaciones_seq antes del INSERT
+    @Transient
+    private boolean nueva;
+
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+
+    // Igual que HistorialEvaluacion#fromResultado, con el id ya reservado
+    public static FilaHistorial de(Long id, Long clienteId, String tipoCliente, ResultadoEvaluacion resultado,
+                                   BigDecimal ingresos, BigDecimal totalDeudas) {
+        FilaHistorial fila = new FilaHistorial();
+        fila.setId(id);
+        fila.setClienteId(clienteId);
+        fila.setTipoCliente(tipoCliente);
+        fila.setNivelRiesgo(resultado.getNivelRiesgo());
+        fila.setPuntaje(resultado.getPuntaje());
+        fila.setObservaciones(resultado.getObservaciones());
+        fila.setFechaEvaluacion(resultado.getFechaEvaluacion());
+        fila.setAprobado(resultado.isAprobado());
+        fila.setMontoMaximoCredito(resultado.getMontoMaximoCredito());
+        fila.setIngresosCliente(ingresos);
+        fila.setTotalDeudas(totalDeudas);
+        fila.setNueva(true);
+        return fila;
+    }
+}
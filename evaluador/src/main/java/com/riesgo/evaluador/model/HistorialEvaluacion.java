@@ -9,14 +9,20 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "historial_evaluaciones")
+@Table(name = "historial_evaluaciones", indexes = {
+    // Las consultas paginan por (fecha_evaluacion, id): id cierra cada índice para el cursor
+    @Index(name = "idx_historial_cliente_fecha", columnList = "cliente_id, fecha_evaluacion, id"),
+    @Index(name = "idx_historial_nivel_fecha", columnList = "nivel_riesgo, fecha_evaluacion, id"),
+    @Index(name = "idx_historial_fecha", columnList = "fecha_evaluacion, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class HistorialEvaluacion {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "historial_seq")
+    @SequenceGenerator(name = "historial_seq", sequenceName = "historial_evaluaciones_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "cliente_id", nullable = false)
@@ -49,6 +55,10 @@ public class HistorialEvaluacion {
     @Column(name = "total_deudas")
     private BigDecimal totalDeudas;
     
+    // Reevaluación de cartera que generó el registro; null en las evaluaciones por solicitud
+    @Column(name = "reevaluacion_id")
+    private Long reevaluacionId;
+    
     // Constructor para crear desde ResultadoEvaluacion
     public static HistorialEvaluacion fromResultado(Long clienteId, String tipoCliente, 
                                                    ResultadoEvaluacion resultado,
@@ -4,11 +4,13 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDate;
 import java.time.Period;
 
 @Entity
+@DiscriminatorValue("JURIDICA")
 @Table(name = "personas_juridicas")
 @Data
 @EqualsAndHashCode(callSuper = true)
@@ -24,16 +26,28 @@ public class PersonaJuridica extends Cliente {
     @Column(name = "numero_empleados")
     private Integer numeroEmpleados;
     
+    // Sector del catálogo, resuelto al aplicar la solicitud o al leer de la base; null si el texto no
+    // corresponde a ninguno
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private SectorEconomico sector;
+    
+    @PostLoad
+    void resolverSector() {
+        sector = SectorEconomico.buscar(sectorEconomico);
+    }
+    
     @Override
     public String getTipoCliente() {
         return "JURIDICA";
     }
     
-    // Método para calcular años de constitución
-    public Integer getAnosConstitucion() {
+    // Años de constitución a una fecha dada (la de la evaluación)
+    public Integer getAnosConstitucion(LocalDate fecha) {
         if (fechaConstitucion == null) {
             return 0;
         }
-        return Period.between(fechaConstitucion, LocalDate.now()).getYears();
+        return Period.between(fechaConstitucion, fecha).getYears();
     }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import java.time.LocalDate;
 import java.time.Period;
 
 @Entity
+@DiscriminatorValue("NATURAL")
 @Table(name = "personas_naturales")
 @Data
 @EqualsAndHashCode(callSuper = true)
@@ -29,11 +30,11 @@ public class PersonaNatural extends Cliente {
         return "NATURAL";
     }
     
-    // Método para calcular la edad
-    public Integer getEdad() {
+    // Edad a una fecha dada (la de la evaluación)
+    public Integer getEdad(LocalDate fecha) {
         if (fechaNacimiento == null) {
             return null;
         }
-        return Period.between(fechaNacimiento, LocalDate.now()).getYears();
+        return Period.between(fechaNacimiento, fecha).getYears();
     }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.riesgo.evaluador.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ejecución de la reevaluación de cartera y su punto de control. La cartera se recorre por id
+ * ascendente hasta clienteIdHasta; ultimoClienteId se guarda en la misma transacción que el
+ * historial de cada página, de modo que al reanudar no se repite ni se salta ningún cliente.
+ */
+@Entity
+@Table(name = "reevaluaciones")
+@Data
+@NoArgsConstructor
+public class Reevaluacion {
+
+    public enum Estado {
+        EN_CURSO, DETENIDA, FALLIDA, COMPLETADA, CANCELADA
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reevaluacion_seq")
+    @SequenceGenerator(name = "reevaluacion_seq", sequenceName = "reevaluaciones_seq", allocationSize = 1)
+    private Long id;
+
+    // Evita que dos procesos avancen el mismo punto de control
+    @Version
+    private Long revision;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Estado estado;
+
+    @Column(name = "version_reglas", nullable = false)
+    private String versionReglas;
+
+    @Column(nullable = false)
+    private String motor;
+
+    // Toda la cartera se evalúa con la misma fecha, también tras reanudar
+    @Column(name = "fecha_evaluacion", nullable = false)
+    private LocalDateTime fechaEvaluacion;
+
+    // Mayor id de cliente al iniciar; los registrados después ya se evaluaron con las reglas vigentes
+    @Column(name = "cliente_id_hasta", nullable = false)
+    private Long clienteIdHasta;
+
+    @Column(name = "total_clientes", nullable = false)
+    private long totalClientes;
+
+    // Punto de control: último cliente con su historial ya confirmado
+    @Column(name = "ultimo_cliente_id", nullable = false)
+    private Long ultimoClienteId;
+
+    @Column(nullable = false)
+    private long procesados;
+
+    @Column(nullable = false)
+    private long errores;
+
+    // Comparación con la última evaluación previa de cada cliente
+    @Column(name = "cambios_nivel", nullable = false)
+    private long cambiosNivel;
+
+    @Column(name = "cambios_aprobacion", nullable = false)
+    private long cambiosAprobacion;
+
+    @Column(name = "sin_historial_previo", nullable = false)
+    private long sinHistorialPrevio;
+
+    @Column(name = "fecha_inicio", nullable = false)
+    private LocalDateTime fechaInicio;
+
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+
+    @Column(name = "fecha_fin")
+    private LocalDateTime fechaFin;
+
+    @Column(columnDefinition = "TEXT")
+    private String mensaje;
+
+    public boolean isTerminada() {
+        return estado == Estado.COMPLETADA || estado == Estado.CANCELADA;
+    }
+}
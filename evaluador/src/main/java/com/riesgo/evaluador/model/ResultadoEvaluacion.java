@@ -27,12 +27,13 @@ public class ResultadoEvaluacion {
     public static ResultadoEvaluacion crear(String nivelRiesgo, BigDecimal puntaje, 
                                           String observaciones, boolean aprobado, 
                                           BigDecimal montoMaximo, BigDecimal tasaInteres,
-                                          Integer plazoAprobado, String mensaje) {
+                                          Integer plazoAprobado, String mensaje,
+                                          LocalDateTime fechaEvaluacion) {
         return new ResultadoEvaluacion(
             nivelRiesgo,
             puntaje,
             observaciones,
-            LocalDateTime.now(),
+            fechaEvaluacion,
             aprobado,
             montoMaximo,
             tasaInteres,
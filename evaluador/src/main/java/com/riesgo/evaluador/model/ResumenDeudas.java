@@ -0,0 +1,61 @@
+package com.riesgo.evaluador.model;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agregados de las deudas de un cliente calculados en una sola pasada.
+ * Se reutiliza durante toda la evaluación en lugar de recorrer la lista en cada regla.
+ */
+@Getter
+public final class ResumenDeudas {
+
+    public static final ResumenDeudas VACIO = new ResumenDeudas(BigDecimal.ZERO, 0, 0, 0, Map.of());
+
+    private final BigDecimal total;
+    private final int cantidad;
+    private final int cantidadEnMora;
+    private final int maximoDiasMora;
+    private final Map<String, BigDecimal> totalPorTipo;
+
+    private ResumenDeudas(BigDecimal total, int cantidad, int cantidadEnMora, int maximoDiasMora,
+                          Map<String, BigDecimal> totalPorTipo) {
+        this.total = total;
+        this.cantidad = cantidad;
+        this.cantidadEnMora = cantidadEnMora;
+        this.maximoDiasMora = maximoDiasMora;
+        this.totalPorTipo = totalPorTipo;
+    }
+
+    public static ResumenDeudas calcular(List<Deuda> deudas) {
+        if (deudas == null || deudas.isEmpty()) {
+            return VACIO;
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        int enMora = 0;
+        int maximoDiasMora = 0;
+        Map<String, BigDecimal> porTipo = new LinkedHashMap<>();
+        for (int i = 0, n = deudas.size(); i < n; i++) {
+            Deuda deuda = deudas.get(i);
+            BigDecimal monto = deuda.getMonto();
+            total = total.add(monto);
+            porTipo.merge(deuda.getTipo() != null ? deuda.getTipo() : "", monto, BigDecimal::add);
+            if (deuda.isEnMora()) {
+                enMora++;
+                maximoDiasMora = Math.max(maximoDiasMora, deuda.getDiasMora());
+            }
+        }
+        return new ResumenDeudas(total, deudas.size(), enMora, maximoDiasMora,
+            Collections.unmodifiableMap(porTipo));
+    }
+
+    public boolean tieneMora() {
+        return cantidadEnMora > 0;
+    }
+}
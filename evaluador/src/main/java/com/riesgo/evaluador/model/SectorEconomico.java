@@ -0,0 +1,70 @@
+package com.riesgo.evaluador.model;
+
+import lombok.Getter;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Catálogo de sectores económicos. Los ajustes de puntaje por sector están solo en el archivo de reglas
+ * (PlanEvaluacion#ajusteSector), que nombra los sectores por su constante; el motor clásico usa los del
+ * archivo incluido en la aplicación.
+ */
+@Getter
+public enum SectorEconomico {
+
+    MINERIA("Minería"),
+    AGRICULTURA("Agricultura"),
+    ENTRETENIMIENTO("Entretenimiento"),
+    CONSTRUCCION("Construcción"),
+    TURISMO("Turismo"),
+    TECNOLOGIA("Tecnología"),
+    SERVICIOS("Servicios"),
+    COMERCIO("Comercio"),
+    MANUFACTURA("Manufactura"),
+    TRANSPORTE("Transporte"),
+    FINANZAS("Finanzas"),
+    SALUD("Salud"),
+    EDUCACION("Educación");
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[\\s\\-]+");
+
+    // Nombre normalizado -> sector; se resuelve con un único hash en lugar de comparar cadena por cadena
+    private static final Map<String, SectorEconomico> POR_NOMBRE = new HashMap<>();
+
+    static {
+        for (SectorEconomico sector : values()) {
+            POR_NOMBRE.put(sector.name(), sector);
+            POR_NOMBRE.put(normalizar(sector.descripcion), sector);
+        }
+    }
+
+    private final String descripcion;
+
+    SectorEconomico(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    // Mayúsculas, sin tildes y con espacios o guiones como '_': "Tecnología" -> "TECNOLOGIA"
+    public static String normalizar(String sector) {
+        if (sector == null) {
+            return null;
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(sector.trim(), Normalizer.Form.NFD)).replaceAll("");
+        String normalizado = SEPARADORES.matcher(sinMarcas.toUpperCase(Locale.ROOT)).replaceAll("_");
+        return normalizado.isEmpty() ? null : normalizado;
+    }
+
+    // Sector del catálogo para un texto libre, o null si no corresponde a ninguno
+    public static SectorEconomico buscar(String sector) {
+        if (sector == null) {
+            return null;
+        }
+        SectorEconomico encontrado = POR_NOMBRE.get(sector);
+        return encontrado != null ? encontrado : POR_NOMBRE.get(normalizar(sector));
+    }
+}
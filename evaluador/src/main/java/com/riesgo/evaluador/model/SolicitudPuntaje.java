@@ -0,0 +1,154 @@
+package com.riesgo.evaluador.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Entrada del cálculo de puntaje, independiente de JPA: los datos del cliente ya resueltos a la
+ * fecha de la evaluación y sus deudas como arrays planos. Los evaluadores y el motor trabajan
+ * solo con este registro, así que puede puntuarse en cualquier hilo y sin contexto de persistencia.
+ *
+ * Los arrays no se copian: quien construye la solicitud no debe modificarlos después.
+ *
+ * @param edad               solo personas naturales; null si no se conoce la fecha de nacimiento
+ * @param anosConstitucion   solo personas jurídicas; 0 si no se conoce la fecha de constitución
+ * @param sector             solo personas jurídicas; null si el sector no está en el catálogo
+ * @param montosDeudas       monto de cada deuda
+ * @param diasMoraDeudas     días de mora de cada deuda, en el mismo orden que montosDeudas
+ * @param totalDeudas        suma de montosDeudas
+ * @param deudasEnMora       deudas con días de mora mayores que 0
+ */
+public record SolicitudPuntaje(
+    String tipoCliente,
+    BigDecimal ingresos,
+    BigDecimal montoSolicitado,
+    Integer plazoEnMeses,
+    Integer puntajeCrediticio,
+    Integer edad,
+    Integer numeroDependientes,
+    Integer anosConstitucion,
+    Integer numeroEmpleados,
+    SectorEconomico sector,
+    BigDecimal[] montosDeudas,
+    int[] diasMoraDeudas,
+    BigDecimal totalDeudas,
+    int deudasEnMora,
+    LocalDateTime fechaEvaluacion
+) {
+
+    public static final String NATURAL = "NATURAL";
+    public static final String JURIDICA = "JURIDICA";
+
+    private static final BigDecimal[] SIN_MONTOS = new BigDecimal[0];
+    private static final int[] SIN_DIAS = new int[0];
+
+    public SolicitudPuntaje {
+        if (montosDeudas == null) {
+            montosDeudas = SIN_MONTOS;
+            diasMoraDeudas = SIN_DIAS;
+        }
+        if (diasMoraDeudas == null || diasMoraDeudas.length != montosDeudas.length) {
+            throw new IllegalArgumentException("Cada deuda requiere monto y días de mora");
+        }
+    }
+
+    // Calcula el total y las deudas en mora a partir de los arrays
+    public SolicitudPuntaje(String tipoCliente, BigDecimal ingresos, BigDecimal montoSolicitado, Integer plazoEnMeses,
+                            Integer puntajeCrediticio, Integer edad, Integer numeroDependientes,
+                            Integer anosConstitucion, Integer numeroEmpleados, SectorEconomico sector,
+                            BigDecimal[] montosDeudas, int[] diasMoraDeudas, LocalDateTime fechaEvaluacion) {
+        this(tipoCliente, ingresos, montoSolicitado, plazoEnMeses, puntajeCrediticio, edad, numeroDependientes,
+            anosConstitucion, numeroEmpleados, sector, montosDeudas, diasMoraDeudas,
+            sumar(montosDeudas), contarEnMora(diasMoraDeudas), fechaEvaluacion);
+    }
+
+    // Adapta un cliente JPA; el resumen de deudas ya calculado en la entidad se reutiliza
+    public static SolicitudPuntaje de(Cliente cliente, ContextoEvaluacion contexto) {
+        List<Deuda> deudas = cliente.getDeudas();
+        int cantidad = deudas != null ? deudas.size() : 0;
+        BigDecimal[] montos = cantidad == 0 ? SIN_MONTOS : new BigDecimal[cantidad];
+        int[] diasMora = cantidad == 0 ? SIN_DIAS : new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            Deuda deuda = deudas.get(i);
+            montos[i] = deuda.getMonto();
+            diasMora[i] = deuda.getDiasMora() != null ? deuda.getDiasMora() : 0;
+        }
+        ResumenDeudas resumen = cliente.getResumenDeudas();
+
+        PersonaNatural pn = cliente instanceof PersonaNatural natural ? natural : null;
+        PersonaJuridica pj = cliente instanceof PersonaJuridica juridica ? juridica : null;
+        return new SolicitudPuntaje(
+            cliente.getTipoCliente(),
+            cliente.getIngresos(),
+            cliente.getMontoSolicitado(),
+            cliente.getPlazoEnMeses(),
+            cliente.getPuntajeCrediticio(),
+            contexto.getEdad(),
+            pn != null ? pn.getNumeroDependientes() : null,
+            contexto.getAnosConstitucion(),
+            pj != null ? pj.getNumeroEmpleados() : null,
+            pj != null ? pj.getSector() : null,
+            montos,
+            diasMora,
+            resumen.getTotal(),
+            resumen.getCantidadEnMora(),
+            contexto.getFechaEvaluacion()
+        );
+    }
+
+    public boolean esNatural() {
+        return NATURAL.equals(tipoCliente);
+    }
+
+    public boolean esJuridica() {
+        return JURIDICA.equals(tipoCliente);
+    }
+
+    public int cantidadDeudas() {
+        return montosDeudas.length;
+    }
+
+    public boolean tieneMora() {
+        return deudasEnMora > 0;
+    }
+
+    // Mismo criterio que Cliente#getRatioDeudaIngreso
+    public BigDecimal ratioDeudaIngreso() {
+        if (ingresos.signum() == 0) {
+            return BigDecimal.ONE;
+        }
+        return totalDeudas.divide(ingresos, 4, RoundingMode.HALF_UP);
+    }
+
+    // Mismo criterio que Cliente#getRatioMontoSolicitadoIngreso
+    public BigDecimal ratioMontoSolicitadoIngreso() {
+        if (ingresos.signum() == 0 || montoSolicitado == null) {
+            return BigDecimal.ZERO;
+        }
+        return montoSolicitado.divide(ingresos, 4, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal sumar(BigDecimal[] montos) {
+        BigDecimal total = BigDecimal.ZERO;
+        if (montos != null) {
+            for (BigDecimal monto : montos) {
+                total = total.add(monto);
+            }
+        }
+        return total;
+    }
+
+    private static int contarEnMora(int[] diasMora) {
+        int enMora = 0;
+        if (diasMora != null) {
+            for (int dias : diasMora) {
+                if (dias > 0) {
+                    enMora++;
+                }
+            }
+        }
+        return enMora;
+    }
+}
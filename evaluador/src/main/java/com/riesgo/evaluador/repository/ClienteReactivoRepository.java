@@ -0,0 +1,56 @@
+package com.riesgo.evaluador.repository;
+
+import com.riesgo.evaluador.model.FilaCliente;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+// Clientes de la pila reactiva (perfil reactivo) sobre el esquema JOINED
+@Repository
+public interface ClienteReactivoRepository extends R2dbcRepository<FilaCliente, Long> {
+
+    // Cliente con los datos de su subtipo en una sola consulta
+    @Query("SELECT c.*, n.fecha_nacimiento, n.estado_civil, n.numero_dependientes, " +
+           "j.fecha_constitucion, j.sector_economico, j.numero_empleados FROM cliente c " +
+           "LEFT JOIN personas_naturales n ON n.id = c.id " +
+           "LEFT JOIN personas_juridicas j ON j.id = c.id " +
+           "WHERE c.documento = :documento")
+    Mono<FilaCliente> findByDocumento(@Param("documento") String documento);
+
+    @Modifying
+    @Query("INSERT INTO personas_naturales (id, fecha_nacimiento, estado_civil, numero_dependientes) " +
+           "VALUES (:id, :fechaNacimiento, :estadoCivil, :numeroDependientes)")
+    Mono<Integer> insertarPersonaNatural(@Param("id") Long id,
+                                         @Param("fechaNacimiento") LocalDate fechaNacimiento,
+                                         @Param("estadoCivil") String estadoCivil,
+                                         @Param("numeroDependientes") Integer numeroDependientes);
+
+    @Modifying
+    @Query("UPDATE personas_naturales SET fecha_nacimiento = :fechaNacimiento, estado_civil = :estadoCivil, " +
+           "numero_dependientes = :numeroDependientes WHERE id = :id")
+    Mono<Integer> actualizarPersonaNatural(@Param("id") Long id,
+                                           @Param("fechaNacimiento") LocalDate fechaNacimiento,
+                                           @Param("estadoCivil") String estadoCivil,
+                                           @Param("numeroDependientes") Integer numeroDependientes);
+
+    @Modifying
+    @Query("INSERT INTO personas_juridicas (id, fecha_constitucion, sector_economico, numero_empleados) " +
+           "VALUES (:id, :fechaConstitucion, :sectorEconomico, :numeroEmpleados)")
+    Mono<Integer> insertarPersonaJuridica(@Param("id") Long id,
+                                          @Param("fechaConstitucion") LocalDate fechaConstitucion,
+                                          @Param("sectorEconomico") String sectorEconomico,
+                                          @Param("numeroEmpleados") Integer numeroEmpleados);
+
+    @Modifying
+    @Query("UPDATE personas_juridicas SET fecha_constitucion = :fechaConstitucion, " +
+           "sector_economico = :sectorEconomico, numero_empleados = :numeroEmpleados WHERE id = :id")
+    Mono<Integer> actualizarPersonaJuridica(@Param("id") Long id,
+                                            @Param("fechaConstitucion") LocalDate fechaConstitucion,
+                                            @Param("sectorEconomico") String sectorEconomico,
+                                            @Param("numeroEmpleados") Integer numeroEmpleados);
+}
@@ -1,15 +1,55 @@
 package com.riesgo.evaluador.repository;
 
 import com.riesgo.evaluador.model.Cliente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     
+    // Todo cliente que se lee por id se puntúa o serializa: las deudas vienen en la misma consulta
+    @Override
+    @EntityGraph(Cliente.GRAFO_DEUDAS)
+    Optional<Cliente> findById(Long id);
+    
+    @Override
+    @EntityGraph(Cliente.GRAFO_DEUDAS)
+    List<Cliente> findAllById(Iterable<Long> ids);
+    
     Optional<Cliente> findByDocumento(String documento);
     
     boolean existsByDocumento(String documento);
-}
\ No newline at end of file
+    
+    // Cliente con sus deudas en una sola consulta, para reevaluar sin cargas perezosas
+    @Query("SELECT DISTINCT c FROM Cliente c LEFT JOIN FETCH c.deudas WHERE c.documento = :documento")
+    Optional<Cliente> findConDeudasByDocumento(@Param("documento") String documento);
+    
+    @Query("SELECT DISTINCT c FROM Cliente c LEFT JOIN FETCH c.deudas WHERE c.documento IN :documentos")
+    List<Cliente> findConDeudasByDocumentoIn(@Param("documentos") Collection<String> documentos);
+    
+    // Página de ids por clave (id > desde): coste constante en cualquier punto de la cartera
+    @Query("SELECT c.id FROM Cliente c WHERE c.id > :desde AND c.id <= :hasta ORDER BY c.id")
+    List<Long> findIdsEntre(@Param("desde") Long desde, @Param("hasta") Long hasta, Pageable pageable);
+    
+    @Query("SELECT COUNT(c) FROM Cliente c WHERE c.id <= :hasta")
+    long countHasta(@Param("hasta") Long hasta);
+    
+    @Query("SELECT MAX(c.id) FROM Cliente c")
+    Optional<Long> findMaxId();
+    
+    // Clientes de una página de ids con sus deudas; el límite va en la consulta de ids, no en el fetch join
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT DISTINCT c FROM Cliente c LEFT JOIN FETCH c.deudas WHERE c.id IN :ids")
+    List<Cliente> findConDeudasByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,13 @@
+package com.riesgo.evaluador.repository;
+
+import com.riesgo.evaluador.model.FilaDeuda;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+// Deudas de la pila reactiva (perfil reactivo)
+@Repository
+public interface DeudaReactivoRepository extends R2dbcRepository<FilaDeuda, Long>, InsercionDeudasReactiva {
+
+    Flux<FilaDeuda> findByClienteId(Long clienteId);
+}
@@ -0,0 +1,70 @@
+package com.riesgo.evaluador.repository;
+
+import com.riesgo.evaluador.model.FilaHistorial;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Historial de la pila reactiva (perfil reactivo): las mismas consultas que {@link HistorialRepository}
+ * en SQL. Los listados piden una fila más que el tamaño de página para saber si hay más.
+ */
+@Repository
+public interface HistorialReactivoRepository extends R2dbcRepository<FilaHistorial, Long> {
+
+    // Columnas de listado (sin observaciones)
+    String LISTADO = "SELECT id, cliente_id, tipo_cliente, nivel_riesgo, puntaje, fecha_evaluacion, aprobado, " +
+        "monto_maximo_credito, ingresos_cliente, total_deudas FROM historial_evaluaciones ";
+
+    String ANTES_DEL_CURSOR = "(fecha_evaluacion < :fecha OR (fecha_evaluacion = :fecha AND id < :id)) ";
+
+    String ORDEN = "ORDER BY fecha_evaluacion DESC, id DESC ";
+
+    String PAGINA = "LIMIT :limite OFFSET :desplazamiento";
+
+    String CURSOR = "LIMIT :limite";
+
+    @Query(LISTADO + ORDEN + PAGINA)
+    Flux<FilaHistorial> findPagina(@Param("limite") int limite, @Param("desplazamiento") long desplazamiento);
+
+    @Query(LISTADO + "WHERE " + ANTES_DEL_CURSOR + ORDEN + CURSOR)
+    Flux<FilaHistorial> findAntesDe(@Param("fecha") LocalDateTime fecha, @Param("id") Long id,
+                                    @Param("limite") int limite);
+
+    @Query(LISTADO + "WHERE cliente_id = :clienteId " + ORDEN + PAGINA)
+    Flux<FilaHistorial> findPaginaByClienteId(@Param("clienteId") Long clienteId, @Param("limite") int limite,
+                                              @Param("desplazamiento") long desplazamiento);
+
+    @Query(LISTADO + "WHERE cliente_id = :clienteId AND " + ANTES_DEL_CURSOR + ORDEN + CURSOR)
+    Flux<FilaHistorial> findByClienteIdAntesDe(@Param("clienteId") Long clienteId, @Param("fecha") LocalDateTime fecha,
+                                               @Param("id") Long id, @Param("limite") int limite);
+
+    @Query(LISTADO + "WHERE nivel_riesgo = :nivelRiesgo " + ORDEN + PAGINA)
+    Flux<FilaHistorial> findPaginaByNivelRiesgo(@Param("nivelRiesgo") String nivelRiesgo, @Param("limite") int limite,
+                                                @Param("desplazamiento") long desplazamiento);
+
+    @Query(LISTADO + "WHERE nivel_riesgo = :nivelRiesgo AND " + ANTES_DEL_CURSOR + ORDEN + CURSOR)
+    Flux<FilaHistorial> findByNivelRiesgoAntesDe(@Param("nivelRiesgo") String nivelRiesgo,
+                                                 @Param("fecha") LocalDateTime fecha, @Param("id") Long id,
+                                                 @Param("limite") int limite);
+
+    @Query(LISTADO + "WHERE fecha_evaluacion BETWEEN :inicio AND :fin " + ORDEN + PAGINA)
+    Flux<FilaHistorial> findPaginaByFechaEvaluacionBetween(@Param("inicio") LocalDateTime inicio,
+                                                           @Param("fin") LocalDateTime fin,
+                                                           @Param("limite") int limite,
+                                                           @Param("desplazamiento") long desplazamiento);
+
+    @Query(LISTADO + "WHERE fecha_evaluacion BETWEEN :inicio AND :fin AND " + ANTES_DEL_CURSOR + ORDEN + CURSOR)
+    Flux<FilaHistorial> findByFechaEvaluacionBetweenAntesDe(@Param("inicio") LocalDateTime inicio,
+                                                            @Param("fin") LocalDateTime fin,
+                                                            @Param("fecha") LocalDateTime fecha,
+                                                            @Param("id") Long id, @Param("limite") int limite);
+
+    // Recorrido completo para exportación: las filas llegan según las pide el suscriptor
+    @Query("SELECT * FROM historial_evaluaciones " + ORDEN)
+    Flux<FilaHistorial> findTodoOrdenado();
+}
@@ -1,34 +1,131 @@
 package com.riesgo.evaluador.repository;
 
+import com.riesgo.evaluador.dto.HistorialEvaluacionDTO;
 import com.riesgo.evaluador.model.HistorialEvaluacion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface HistorialRepository extends JpaRepository<HistorialEvaluacion, Long> {
+
+    // Proyección directa al DTO de listado (sin observaciones): no se hidrata la entidad
+    String PROYECCION_LISTADO = "SELECT new com.riesgo.evaluador.dto.HistorialEvaluacionDTO(" +
+        "h.id, h.clienteId, h.tipoCliente, h.nivelRiesgo, h.puntaje, h.fechaEvaluacion, h.aprobado, " +
+        "h.montoMaximoCredito, h.ingresosCliente, h.totalDeudas) FROM HistorialEvaluacion h ";
     
-    // Buscar por cliente ID
-    List<HistorialEvaluacion> findByClienteIdOrderByFechaEvaluacionDesc(Long clienteId);
+    String ANTES_DEL_CURSOR = "(h.fechaEvaluacion < :fecha OR (h.fechaEvaluacion = :fecha AND h.id < :id)) ";
     
+    String ORDEN_CURSOR = "ORDER BY h.fechaEvaluacion DESC, h.id DESC";
+
+    // Historial completo paginado (el orden llega en el Pageable)
+    @Query(PROYECCION_LISTADO)
+    Slice<HistorialEvaluacionDTO> findAllBy(Pageable pageable);
+
+    // Buscar por cliente ID
+    @Query(PROYECCION_LISTADO + "WHERE h.clienteId = :clienteId ORDER BY h.fechaEvaluacion DESC")
+    Slice<HistorialEvaluacionDTO> findByClienteIdOrderByFechaEvaluacionDesc(
+        @Param("clienteId") Long clienteId,
+        Pageable pageable
+    );
+
     // Buscar por nivel de riesgo
-    List<HistorialEvaluacion> findByNivelRiesgoOrderByFechaEvaluacionDesc(String nivelRiesgo);
-    
+    @Query(PROYECCION_LISTADO + "WHERE h.nivelRiesgo = :nivelRiesgo ORDER BY h.fechaEvaluacion DESC")
+    Slice<HistorialEvaluacionDTO> findByNivelRiesgoOrderByFechaEvaluacionDesc(
+        @Param("nivelRiesgo") String nivelRiesgo,
+        Pageable pageable
+    );
+
     // Buscar evaluaciones aprobadas
     List<HistorialEvaluacion> findByAprobadoTrueOrderByFechaEvaluacionDesc();
-    
+
     // Buscar por rango de fechas
-    @Query("SELECT h FROM HistorialEvaluacion h WHERE h.fechaEvaluacion BETWEEN :inicio AND :fin ORDER BY h.fechaEvaluacion DESC")
-    List<HistorialEvaluacion> findByFechaEvaluacionBetween(
-        @Param("inicio") LocalDateTime inicio, 
-        @Param("fin") LocalDateTime fin
+    @Query(PROYECCION_LISTADO + "WHERE h.fechaEvaluacion BETWEEN :inicio AND :fin ORDER BY h.fechaEvaluacion DESC")
+    Slice<HistorialEvaluacionDTO> findByFechaEvaluacionBetween(
+        @Param("inicio") LocalDateTime inicio,
+        @Param("fin") LocalDateTime fin,
+        Pageable pageable
     );
-    
+
+    // Paginación por cursor (fechaEvaluacion, id): registros anteriores al último recibido
+    @Query(PROYECCION_LISTADO + "WHERE " + ANTES_DEL_CURSOR + ORDEN_CURSOR)
+    Slice<HistorialEvaluacionDTO> findAntesDe(
+        @Param("fecha") LocalDateTime fecha,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    @Query(PROYECCION_LISTADO + "WHERE h.clienteId = :clienteId AND " + ANTES_DEL_CURSOR + ORDEN_CURSOR)
+    Slice<HistorialEvaluacionDTO> findByClienteIdAntesDe(
+        @Param("clienteId") Long clienteId,
+        @Param("fecha") LocalDateTime fecha,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    @Query(PROYECCION_LISTADO + "WHERE h.nivelRiesgo = :nivelRiesgo AND " + ANTES_DEL_CURSOR + ORDEN_CURSOR)
+    Slice<HistorialEvaluacionDTO> findByNivelRiesgoAntesDe(
+        @Param("nivelRiesgo") String nivelRiesgo,
+        @Param("fecha") LocalDateTime fecha,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    @Query(PROYECCION_LISTADO + "WHERE h.fechaEvaluacion BETWEEN :inicio AND :fin AND " + ANTES_DEL_CURSOR + ORDEN_CURSOR)
+    Slice<HistorialEvaluacionDTO> findByFechaEvaluacionBetweenAntesDe(
+        @Param("inicio") LocalDateTime inicio,
+        @Param("fin") LocalDateTime fin,
+        @Param("fecha") LocalDateTime fecha,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    // Recorrido completo para exportación; el driver trae las filas por bloques con el cursor abierto
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT h FROM HistorialEvaluacion h ORDER BY h.fechaEvaluacion DESC, h.id DESC")
+    Stream<HistorialEvaluacion> streamAll();
+
+    // Última evaluación de cada cliente: [clienteId, id, nivelRiesgo, aprobado]; con fechas empatadas
+    // puede devolver más de una fila por cliente
+    @Query("SELECT h.clienteId, h.id, h.nivelRiesgo, h.aprobado FROM HistorialEvaluacion h " +
+           "WHERE h.clienteId IN :clienteIds AND h.fechaEvaluacion = " +
+           "(SELECT MAX(u.fechaEvaluacion) FROM HistorialEvaluacion u WHERE u.clienteId = h.clienteId)")
+    List<Object[]> findUltimasByClienteIdIn(@Param("clienteIds") Collection<Long> clienteIds);
+
+    // Claves (clienteId, fechaEvaluacion) ya insertadas: la recuperación del respaldo diferido descarta esas
+    @Query("SELECT h.clienteId, h.fechaEvaluacion FROM HistorialEvaluacion h " +
+           "WHERE h.clienteId IN :clienteIds AND h.fechaEvaluacion >= :desde")
+    List<Object[]> findClavesByClienteIdInDesde(@Param("clienteIds") Collection<Long> clienteIds,
+                                                @Param("desde") LocalDateTime desde);
+
     // Contar evaluaciones por nivel de riesgo
     @Query("SELECT h.nivelRiesgo, COUNT(h) FROM HistorialEvaluacion h GROUP BY h.nivelRiesgo")
     List<Object[]> countByNivelRiesgo();
-}
\ No newline at end of file
+
+    // Totales por nivel y tipo de cliente: [nivelRiesgo, tipoCliente, evaluaciones, aprobadas, sumaPuntaje]
+    @Query("SELECT h.nivelRiesgo, h.tipoCliente, COUNT(h), " +
+           "SUM(CASE WHEN h.aprobado = true THEN 1 ELSE 0 END), SUM(h.puntaje) " +
+           "FROM HistorialEvaluacion h GROUP BY h.nivelRiesgo, h.tipoCliente")
+    List<Object[]> resumirPorNivelYTipo();
+
+    // Totales diarios desde una fecha: [dia, evaluaciones, aprobadas, sumaPuntaje]
+    @Query("SELECT CAST(h.fechaEvaluacion AS LocalDate), COUNT(h), " +
+           "SUM(CASE WHEN h.aprobado = true THEN 1 ELSE 0 END), SUM(h.puntaje) " +
+           "FROM HistorialEvaluacion h WHERE h.fechaEvaluacion >= :desde " +
+           "GROUP BY CAST(h.fechaEvaluacion AS LocalDate)")
+    List<Object[]> resumirPorDiaDesde(@Param("desde") LocalDateTime desde);
+}
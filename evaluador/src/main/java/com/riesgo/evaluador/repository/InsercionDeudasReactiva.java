@@ -0,0 +1,12 @@
+package com.riesgo.evaluador.repository;
+
+import com.riesgo.evaluador.model.FilaDeuda;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Fragmento de DeudaReactivoRepository: INSERT de todas las deudas de una solicitud en un solo viaje
+public interface InsercionDeudasReactiva {
+
+    Mono<Void> insertarLote(List<FilaDeuda> deudas);
+}
@@ -0,0 +1,61 @@
+package com.riesgo.evaluador.repository;
+
+import com.riesgo.evaluador.model.FilaDeuda;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * saveAll de R2DBC envía un INSERT por deuda y espera cada respuesta; aquí las filas van como
+ * enlaces de una misma sentencia, que el driver manda juntos (el equivalente al lote JDBC de
+ * Hibernate en la pila bloqueante). Usa la conexión de la transacción en curso.
+ */
+public class InsercionDeudasReactivaImpl implements InsercionDeudasReactiva {
+
+    private static final String INSERT = "INSERT INTO deudas " +
+        "(id, tipo, monto, fecha_vencimiento, dias_mora, plazo_meses, cliente_id) VALUES ($1, $2, $3, $4, $5, $6, $7)";
+
+    private final DatabaseClient databaseClient;
+
+    public InsercionDeudasReactivaImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Mono<Void> insertarLote(List<FilaDeuda> deudas) {
+        if (deudas.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.inConnectionMany(conexion -> {
+            Statement sentencia = conexion.createStatement(INSERT);
+            for (int i = 0; i < deudas.size(); i++) {
+                if (i > 0) {
+                    sentencia.add();
+                }
+                FilaDeuda deuda = deudas.get(i);
+                sentencia.bind(0, deuda.getId());
+                enlazar(sentencia, 1, deuda.getTipo(), String.class);
+                enlazar(sentencia, 2, deuda.getMonto(), BigDecimal.class);
+                enlazar(sentencia, 3, deuda.getFechaVencimiento(), LocalDate.class);
+                enlazar(sentencia, 4, deuda.getDiasMora(), Integer.class);
+                enlazar(sentencia, 5, deuda.getPlazoMeses(), Integer.class);
+                sentencia.bind(6, deuda.getClienteId());
+            }
+            return Flux.from(sentencia.execute()).flatMap(Result::getRowsUpdated);
+        }).then();
+    }
+
+    private static void enlazar(Statement sentencia, int indice, Object valor, Class<?> tipo) {
+        if (valor != null) {
+            sentencia.bind(indice, valor);
+        } else {
+            sentencia.bindNull(indice, tipo);
+        }
+    }
+}
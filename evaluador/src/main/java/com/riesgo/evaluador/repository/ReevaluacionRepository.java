@@ -0,0 +1,13 @@
+package com.riesgo.evaluador.repository;
+
+import com.riesgo.evaluador.model.Reevaluacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReevaluacionRepository extends JpaRepository<Reevaluacion, Long> {
+
+    Optional<Reevaluacion> findFirstByOrderByIdDesc();
+}
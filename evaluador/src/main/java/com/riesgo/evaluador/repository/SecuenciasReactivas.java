@@ -0,0 +1,65 @@
+package com.riesgo.evaluador.repository;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ids para los INSERT de la pila reactiva desde las secuencias pooled de V2 (incremento 50).
+ * Cada nextval reserva el bloque que termina en el valor devuelto, igual que el optimizador pooled
+ * de Hibernate, así que JPA y R2DBC asignan ids sobre la misma base sin pisarse y sin una
+ * consulta por fila.
+ */
+@Component
+@Profile("reactivo")
+public class SecuenciasReactivas {
+
+    public static final String CLIENTES = "clientes_seq";
+    public static final String DEUDAS = "deudas_seq";
+    public static final String HISTORIAL = "historial_evaluaciones_seq";
+
+    private static final int INCREMENTO = 50;
+
+    private final DatabaseClient databaseClient;
+    private final Map<String, Bloque> bloques = new ConcurrentHashMap<>();
+
+    public SecuenciasReactivas(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Long> siguiente(String secuencia) {
+        Bloque bloque = bloques.computeIfAbsent(secuencia, s -> new Bloque());
+        Long id = bloque.tomar();
+        if (id != null) {
+            return Mono.just(id);
+        }
+        return databaseClient.sql("SELECT nextval('" + secuencia + "')")
+            .map(fila -> fila.get(0, Long.class))
+            .one()
+            .map(bloque::reponer);
+    }
+
+    private static final class Bloque {
+
+        private long siguiente = 1;
+        private long limite = 0;
+
+        synchronized Long tomar() {
+            return siguiente <= limite ? Long.valueOf(siguiente++) : null;
+        }
+
+        // Si otra petición ya repuso el bloque, se sigue con el vigente y el valor recibido se descarta
+        synchronized long reponer(long valor) {
+            if (siguiente > limite) {
+                // El primer nextval de una secuencia nueva devuelve 1: el bloque no baja de 1
+                siguiente = Math.max(1, valor - INCREMENTO + 1);
+                limite = valor;
+            }
+            return siguiente++;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.riesgo.evaluador.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.riesgo.evaluador.dto.EstadisticasCacheDTO;
+import com.riesgo.evaluador.dto.EvaluacionRequestDTO;
+import com.riesgo.evaluador.dto.EvaluacionResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Cache de respuestas recientes de /evaluar, indexada por la huella SHA-256 del contenido
+ * canónico de la solicitud. Un reenvío idéntico dentro del TTL devuelve la respuesta guardada
+ * sin evaluar ni escribir en la base. Solo se guardan evaluaciones exitosas.
+ * <p>
+ * La entrada se reserva de forma atómica con una respuesta pendiente antes de evaluar: los reenvíos
+ * que llegan mientras la primera solicitud se evalúa esperan esa misma respuesta en lugar de evaluar
+ * y escribir otra vez. Si la evaluación falla, la entrada pendiente se descarta.
+ */
+@Slf4j
+@Component
+public class CacheEvaluaciones {
+
+    // Propiedades en orden alfabético y montos sin ceros finales: 100 y 100.00 dan la misma huella
+    private static final ObjectMapper CANONICO = JsonMapper.builder()
+        .addModule(new JavaTimeModule())
+        .addModule(new SimpleModule().addSerializer(BigDecimal.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(BigDecimal valor, JsonGenerator gen, SerializerProvider proveedor) throws IOException {
+                gen.writeString(valor.stripTrailingZeros().toPlainString());
+            }
+        }))
+        .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+
+    private final boolean habilitada;
+    private final Set<String> canalesDeshabilitados = new TreeSet<>();
+    private final AsyncCache<String, EvaluacionResponseDTO> respuestas;
+
+    public CacheEvaluaciones(@Value("${evaluacion.cache.habilitada:true}") boolean habilitada,
+                             @Value("${evaluacion.cache.tamano-maximo:10000}") long tamanoMaximo,
+                             @Value("${evaluacion.cache.ttl:PT5M}") Duration ttl,
+                             @Value("${evaluacion.cache.canales-deshabilitados:}") List<String> canalesDeshabilitados,
+                             MeterRegistry registry) {
+        this.habilitada = habilitada;
+        for (String canal : canalesDeshabilitados) {
+            if (!canal.isBlank()) {
+                this.canalesDeshabilitados.add(normalizarCanal(canal));
+            }
+        }
+        this.respuestas = Caffeine.newBuilder()
+            .maximumSize(tamanoMaximo)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .buildAsync();
+        // Aciertos, fallos, desalojos y tamaño como cache.* con cache="evaluaciones"
+        CaffeineCacheMetrics.monitor(registry, respuestas.synchronous(), "evaluaciones");
+        log.info("Cache de evaluaciones {}: tamanoMaximo={}, ttl={}, canalesDeshabilitados={}",
+            habilitada ? "habilitada" : "deshabilitada", tamanoMaximo, ttl, this.canalesDeshabilitados);
+    }
+
+    public boolean habilitadaPara(String canal) {
+        return habilitada && (canal == null || !canalesDeshabilitados.contains(normalizarCanal(canal)));
+    }
+
+    // Devuelve la respuesta guardada o evalúa y la guarda; los errores se propagan sin cachear
+    public EvaluacionResponseDTO obtener(EvaluacionRequestDTO request, Supplier<EvaluacionResponseDTO> evaluacion) {
+        if (request == null) {
+            return evaluacion.get();
+        }
+        CompletableFuture<EvaluacionResponseDTO> pendiente = new CompletableFuture<>();
+        CompletableFuture<EvaluacionResponseDTO> guardada = respuestas.get(huella(request), (huella, executor) -> pendiente);
+        if (guardada != pendiente) {
+            log.debug("Acierto de cache para documento={}", request.getDocumento());
+            return esperar(guardada);
+        }
+        // La evaluación corre en el hilo de la solicitud, fuera del bloqueo de la cache
+        try {
+            EvaluacionResponseDTO respuesta = evaluacion.get();
+            pendiente.complete(respuesta);
+            return respuesta;
+        } catch (RuntimeException | Error e) {
+            pendiente.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Variante de la pila reactiva: la evaluación solo se suscribe si no hay respuesta guardada
+    public Mono<EvaluacionResponseDTO> obtener(EvaluacionRequestDTO request, Mono<EvaluacionResponseDTO> evaluacion) {
+        if (request == null) {
+            return evaluacion;
+        }
+        return Mono.defer(() -> {
+            CompletableFuture<EvaluacionResponseDTO> pendiente = new CompletableFuture<>();
+            CompletableFuture<EvaluacionResponseDTO> guardada = respuestas.get(huella(request), (huella, executor) -> pendiente);
+            if (guardada != pendiente) {
+                log.debug("Acierto de cache para documento={}", request.getDocumento());
+                // Sin propagar la cancelación: la respuesta pendiente la comparten otras solicitudes
+                return Mono.fromFuture(guardada, true);
+            }
+            // Un error, una evaluación vacía o una cancelación descartan la entrada pendiente
+            return evaluacion
+                .doOnNext(pendiente::complete)
+                .doOnError(pendiente::completeExceptionally)
+                .doFinally(senal -> pendiente.cancel(false));
+        });
+    }
+
+    public EstadisticasCacheDTO obtenerEstadisticas() {
+        CacheStats stats = respuestas.synchronous().stats();
+        BigDecimal tasa = stats.requestCount() == 0 ? BigDecimal.ZERO
+            : BigDecimal.valueOf(stats.hitRate() * 100).setScale(2, RoundingMode.HALF_UP);
+        return new EstadisticasCacheDTO(
+            habilitada,
+            respuestas.synchronous().estimatedSize(),
+            stats.hitCount(),
+            stats.missCount(),
+            stats.evictionCount(),
+            tasa,
+            canalesDeshabilitados
+        );
+    }
+
+    public void invalidar() {
+        respuestas.synchronous().invalidateAll();
+    }
+
+    // Respuesta de otra solicitud con la misma huella; si su evaluación falló se relanza el mismo error
+    private static EvaluacionResponseDTO esperar(CompletableFuture<EvaluacionResponseDTO> respuesta) {
+        try {
+            return respuesta.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    static String huella(EvaluacionRequestDTO request) {
+        try {
+            byte[] contenido = CANONICO.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contenido));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo calcular la huella de la solicitud", e);
+        }
+    }
+
+    private static String normalizarCanal(String canal) {
+        return canal.trim().toUpperCase(Locale.ROOT);
+    }
+}
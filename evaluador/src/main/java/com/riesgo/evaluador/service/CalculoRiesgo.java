@@ -0,0 +1,178 @@
+package com.riesgo.evaluador.service;
+
+import com.riesgo.evaluador.dto.EvaluacionRequestDTO;
+import com.riesgo.evaluador.model.ResultadoEvaluacion;
+import com.riesgo.evaluador.model.SectorEconomico;
+import com.riesgo.evaluador.model.SolicitudPuntaje;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.List;
+
+/**
+ * Validación de la solicitud, selección del evaluador y puntaje, sin acceso a la base.
+ * Lo comparten el servicio JPA y la pila reactiva (perfil reactivo), que solo difieren en cómo
+ * leen y guardan el cliente y el historial.
+ */
+@Component
+public class CalculoRiesgo {
+
+    // Ratios de selección del motor clásico
+    private static final BigDecimal RATIO_EVALUADOR_ALTO_CLASICO = new BigDecimal("0.6");
+    private static final BigDecimal RATIO_EVALUADOR_MEDIO_CLASICO = new BigDecimal("0.4");
+
+    @Autowired
+    private EvaluadorRiesgoBajo evaluadorBajo;
+
+    @Autowired
+    private EvaluadorRiesgoMedio evaluadorMedio;
+
+    @Autowired
+    private EvaluadorRiesgoAlto evaluadorAlto;
+
+    @Autowired
+    private MotorPuntajeEscalado motorEscalado;
+
+    // "escalado" (por defecto) o "clasico" para usar directamente los evaluadores BigDecimal
+    @Value("${evaluacion.motor:escalado}")
+    private String motor;
+
+    public void validar(EvaluacionRequestDTO request) {
+        if (request == null) {
+            throw new IllegalArgumentException("La solicitud no puede ser nula");
+        }
+
+        if (request.getNombre() == null || request.getNombre().trim().isEmpty()) {
+            throw new IllegalArgumentException("El nombre es obligatorio");
+        }
+
+        if (request.getDocumento() == null || request.getDocumento().trim().isEmpty()) {
+            throw new IllegalArgumentException("El documento es obligatorio");
+        }
+
+        if (request.getIngresos() == null || request.getIngresos().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Los ingresos son obligatorios y deben ser mayor a 0");
+        }
+
+        if (request.getTipoCliente() == null ||
+            (!request.getTipoCliente().equals("NATURAL") && !request.getTipoCliente().equals("JURIDICA"))) {
+            throw new IllegalArgumentException("Tipo de cliente debe ser NATURAL o JURIDICA");
+        }
+
+        // Validar monto solicitado
+        if (request.getMontoSolicitado() == null || request.getMontoSolicitado().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("El monto solicitado es obligatorio y debe ser mayor a 0");
+        }
+
+        // Validar plazo
+        if (request.getPlazoEnMeses() == null || request.getPlazoEnMeses() <= 0) {
+            throw new IllegalArgumentException("El plazo en meses es obligatorio y debe ser mayor a 0");
+        }
+
+        // Validaciones específicas por tipo
+        if ("NATURAL".equals(request.getTipoCliente())) {
+            if (request.getFechaNacimiento() == null && request.getEdad() == null) {
+                throw new IllegalArgumentException("La fecha de nacimiento o edad es obligatoria para personas naturales");
+            }
+        }
+
+        if ("JURIDICA".equals(request.getTipoCliente()) && request.getFechaConstitucion() == null) {
+            throw new IllegalArgumentException("La fecha de constitución es obligatoria para personas jurídicas");
+        }
+
+        // Validar deudas si existen
+        if (request.getDeudas() != null) {
+            for (EvaluacionRequestDTO.DeudaDTO deuda : request.getDeudas()) {
+                if (deuda.getTipo() == null || deuda.getTipo().trim().isEmpty()) {
+                    throw new IllegalArgumentException("El tipo de deuda es obligatorio");
+                }
+                if (deuda.getMonto() == null || deuda.getMonto().compareTo(BigDecimal.ZERO) <= 0) {
+                    throw new IllegalArgumentException("El monto de la deuda debe ser mayor a 0");
+                }
+                if (deuda.getDiasMora() != null && deuda.getDiasMora() < 0) {
+                    throw new IllegalArgumentException("Los días de mora no pueden ser negativos");
+                }
+            }
+        }
+    }
+
+    // Mismos valores por defecto que EvaluacionServiceImpl#crearCliente, resueltos a la fecha de la evaluación
+    public SolicitudPuntaje crearSolicitud(EvaluacionRequestDTO request, LocalDateTime fechaEvaluacion) {
+        LocalDate fecha = fechaEvaluacion.toLocalDate();
+        boolean natural = SolicitudPuntaje.NATURAL.equals(request.getTipoCliente());
+
+        Integer edad = null;
+        if (natural) {
+            edad = request.getFechaNacimiento() != null
+                ? Integer.valueOf(Period.between(request.getFechaNacimiento(), fecha).getYears())
+                : request.getEdad();
+        }
+
+        List<EvaluacionRequestDTO.DeudaDTO> deudas = request.getDeudas() != null ? request.getDeudas() : List.of();
+        BigDecimal[] montos = new BigDecimal[deudas.size()];
+        int[] diasMora = new int[deudas.size()];
+        for (int i = 0; i < montos.length; i++) {
+            EvaluacionRequestDTO.DeudaDTO deuda = deudas.get(i);
+            montos[i] = deuda.getMonto();
+            diasMora[i] = deuda.getDiasMora() != null ? deuda.getDiasMora() : 0;
+        }
+
+        return new SolicitudPuntaje(
+            request.getTipoCliente(),
+            request.getIngresos(),
+            request.getMontoSolicitado(),
+            request.getPlazoEnMeses(),
+            request.getPuntajeCrediticio(),
+            edad,
+            natural ? (request.getNumeroDependientes() != null ? request.getNumeroDependientes() : 0) : null,
+            natural ? null : Period.between(request.getFechaConstitucion(), fecha).getYears(),
+            natural ? null : (request.getNumeroEmpleados() != null ? request.getNumeroEmpleados() : 1),
+            natural ? null : SectorEconomico.buscar(request.getSectorEconomico()),
+            montos,
+            diasMora,
+            fechaEvaluacion
+        );
+    }
+
+    public EvaluadorRiesgo seleccionarEvaluador(SolicitudPuntaje solicitud) {
+        BigDecimal ratioDeuda = solicitud.ratioDeudaIngreso();
+        boolean tieneMoras = solicitud.tieneMora();
+
+        // Lógica de selección del evaluador
+        if (tieneMoras || ratioDeuda.compareTo(ratioEvaluadorAlto()) > 0) {
+            return evaluadorAlto;
+        } else if (ratioDeuda.compareTo(ratioEvaluadorMedio()) > 0) {
+            return evaluadorMedio;
+        } else {
+            return evaluadorBajo;
+        }
+    }
+
+    // Ratios deuda/ingreso de la selección: los del archivo de reglas vigente en el motor escalado,
+    // los fijos del código en el clásico, que tampoco puntúa con el archivo
+    public BigDecimal ratioEvaluadorAlto() {
+        return "clasico".equals(motor) ? RATIO_EVALUADOR_ALTO_CLASICO : motorEscalado.planVigente().getRatioEvaluadorAlto();
+    }
+
+    public BigDecimal ratioEvaluadorMedio() {
+        return "clasico".equals(motor) ? RATIO_EVALUADOR_MEDIO_CLASICO : motorEscalado.planVigente().getRatioEvaluadorMedio();
+    }
+
+    // Ajuste de puntaje por sector en el evaluador del nivel: plan vigente o reglas incluidas (motor clásico)
+    public int ajusteSector(String nivel, SectorEconomico sector) {
+        PlanEvaluacion plan = "clasico".equals(motor) ? ReglasEvaluacion.cargarPorDefecto() : motorEscalado.planVigente();
+        return plan.ajusteSector(nivel, sector);
+    }
+
+    public ResultadoEvaluacion puntuar(EvaluadorRiesgo evaluador, SolicitudPuntaje solicitud) {
+        if ("clasico".equals(motor)) {
+            return evaluador.evaluar(solicitud);
+        }
+        return motorEscalado.evaluar(solicitud, evaluador);
+    }
+}
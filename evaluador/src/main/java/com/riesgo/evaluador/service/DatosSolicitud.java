@@ -0,0 +1,191 @@
+package com.riesgo.evaluador.service;
+
+import com.riesgo.evaluador.dto.EvaluacionRequestDTO;
+import com.riesgo.evaluador.model.Cliente;
+import com.riesgo.evaluador.model.FilaCliente;
+import com.riesgo.evaluador.model.PersonaJuridica;
+import com.riesgo.evaluador.model.PersonaNatural;
+import com.riesgo.evaluador.model.SectorEconomico;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Datos del cliente a partir de la solicitud: valores por defecto y emparejamiento de las deudas
+ * guardadas con las solicitadas, sin acceso a la base. Lo comparten el servicio JPA y la pila
+ * reactiva (perfil reactivo), que solo aplican el resultado con su propio acceso a datos.
+ */
+@Component
+public class DatosSolicitud {
+
+    @Autowired
+    private Clock reloj;
+
+    public void aplicarDatos(Cliente cliente, EvaluacionRequestDTO request) {
+        if (cliente instanceof PersonaNatural pn) {
+            pn.setEstadoCivil(request.getEstadoCivil());
+            pn.setNumeroDependientes(numeroDependientes(request));
+            pn.setFechaNacimiento(fechaNacimiento(request, pn.getFechaNacimiento()));
+        } else if (cliente instanceof PersonaJuridica pj) {
+            pj.setFechaConstitucion(request.getFechaConstitucion());
+            String sectorEconomico = sectorEconomico(request);
+            pj.setSectorEconomico(sectorEconomico);
+            pj.setSector(SectorEconomico.buscar(sectorEconomico));
+            pj.setNumeroEmpleados(numeroEmpleados(request));
+        }
+
+        // Datos comunes
+        cliente.setNombre(request.getNombre());
+        cliente.setIngresos(request.getIngresos());
+        cliente.setMontoSolicitado(request.getMontoSolicitado());
+        cliente.setPlazoEnMeses(request.getPlazoEnMeses());
+        cliente.setPuntajeCrediticio(request.getPuntajeCrediticio());
+    }
+
+    public void aplicarDatos(FilaCliente cliente, EvaluacionRequestDTO request) {
+        if (cliente.isNatural()) {
+            cliente.setEstadoCivil(request.getEstadoCivil());
+            cliente.setNumeroDependientes(numeroDependientes(request));
+            cliente.setFechaNacimiento(fechaNacimiento(request, cliente.getFechaNacimiento()));
+        } else {
+            cliente.setFechaConstitucion(request.getFechaConstitucion());
+            cliente.setSectorEconomico(sectorEconomico(request));
+            cliente.setNumeroEmpleados(numeroEmpleados(request));
+        }
+
+        cliente.setNombre(request.getNombre());
+        cliente.setIngresos(request.getIngresos());
+        cliente.setMontoSolicitado(request.getMontoSolicitado());
+        cliente.setPlazoEnMeses(request.getPlazoEnMeses());
+        cliente.setPuntajeCrediticio(request.getPuntajeCrediticio());
+    }
+
+    public static int diasMora(EvaluacionRequestDTO.DeudaDTO deuda) {
+        return deuda.getDiasMora() != null ? deuda.getDiasMora() : 0;
+    }
+
+    /**
+     * Empareja las deudas guardadas con las de la solicitud: 1) las líneas idénticas se conservan,
+     * 2) las de mismo tipo y vencimiento se actualizan, 3) las que sobran se borran y las que
+     * faltan se insertan. linea da la clave de contenido de cada deuda guardada.
+     */
+    public <T> CambiosDeudas<T> compararDeudas(List<T> actuales, Function<T, LineaDeuda> linea,
+                                               List<EvaluacionRequestDTO.DeudaDTO> solicitadas) {
+        // Índices de las deudas actuales sin emparejar, agrupados por clave
+        Map<LineaDeuda, ArrayDeque<Integer>> porContenido = new HashMap<>();
+        Map<VencimientoDeuda, ArrayDeque<Integer>> porVencimiento = new HashMap<>();
+        for (int i = 0; i < actuales.size(); i++) {
+            LineaDeuda clave = linea.apply(actuales.get(i));
+            porContenido.computeIfAbsent(clave, k -> new ArrayDeque<>()).add(i);
+            porVencimiento.computeIfAbsent(new VencimientoDeuda(clave.tipo(), clave.fechaVencimiento()),
+                k -> new ArrayDeque<>()).add(i);
+        }
+
+        boolean[] emparejadas = new boolean[actuales.size()];
+        List<EvaluacionRequestDTO.DeudaDTO> restantes = new ArrayList<>();
+        if (solicitadas != null) {
+            for (EvaluacionRequestDTO.DeudaDTO dto : solicitadas) {
+                if (tomarLibre(porContenido.get(LineaDeuda.de(dto)), emparejadas) < 0) {
+                    restantes.add(dto);
+                }
+            }
+        }
+
+        List<Actualizacion<T>> actualizaciones = new ArrayList<>();
+        List<EvaluacionRequestDTO.DeudaDTO> altas = new ArrayList<>();
+        for (EvaluacionRequestDTO.DeudaDTO dto : restantes) {
+            int indice = tomarLibre(porVencimiento.get(new VencimientoDeuda(dto.getTipo(), dto.getFechaVencimiento())),
+                emparejadas);
+            if (indice >= 0) {
+                actualizaciones.add(new Actualizacion<>(actuales.get(indice), dto));
+            } else {
+                altas.add(dto);
+            }
+        }
+
+        List<T> bajas = new ArrayList<>();
+        for (int i = 0; i < emparejadas.length; i++) {
+            if (!emparejadas[i]) {
+                bajas.add(actuales.get(i));
+            }
+        }
+        return new CambiosDeudas<>(actualizaciones, bajas, altas);
+    }
+
+    private int numeroDependientes(EvaluacionRequestDTO request) {
+        return request.getNumeroDependientes() != null ? request.getNumeroDependientes() : 0;
+    }
+
+    private int numeroEmpleados(EvaluacionRequestDTO request) {
+        return request.getNumeroEmpleados() != null ? request.getNumeroEmpleados() : 1;
+    }
+
+    // Se guarda normalizado: "Tecnología" y "TECNOLOGIA" resuelven al mismo sector del catálogo
+    private String sectorEconomico(EvaluacionRequestDTO request) {
+        return SectorEconomico.normalizar(request.getSectorEconomico());
+    }
+
+    private LocalDate fechaNacimiento(EvaluacionRequestDTO request, LocalDate registrada) {
+        if (request.getFechaNacimiento() != null) {
+            return request.getFechaNacimiento();
+        }
+        if (request.getEdad() == null) {
+            return registrada;
+        }
+        // Fecha aproximada basada en la edad; se conserva la registrada si ya da esa edad
+        LocalDate hoy = LocalDate.now(reloj);
+        if (registrada != null && Period.between(registrada, hoy).getYears() == request.getEdad()) {
+            return registrada;
+        }
+        return hoy.minusYears(request.getEdad());
+    }
+
+    private static int tomarLibre(ArrayDeque<Integer> candidatas, boolean[] emparejadas) {
+        if (candidatas == null) {
+            return -1;
+        }
+        while (!candidatas.isEmpty()) {
+            int indice = candidatas.poll();
+            if (!emparejadas[indice]) {
+                emparejadas[indice] = true;
+                return indice;
+            }
+        }
+        return -1;
+    }
+
+    // Clave de contenido de una deuda; el monto se normaliza para que 100 y 100.00 coincidan
+    public record LineaDeuda(String tipo, BigDecimal monto, LocalDate fechaVencimiento, int diasMora, Integer plazoMeses) {
+
+        public static LineaDeuda de(String tipo, BigDecimal monto, LocalDate fechaVencimiento, Integer diasMora,
+                                    Integer plazoMeses) {
+            return new LineaDeuda(tipo, monto != null ? monto.stripTrailingZeros() : null, fechaVencimiento,
+                diasMora != null ? diasMora : 0, plazoMeses);
+        }
+
+        public static LineaDeuda de(EvaluacionRequestDTO.DeudaDTO dto) {
+            return de(dto.getTipo(), dto.getMonto(), dto.getFechaVencimiento(), dto.getDiasMora(), dto.getPlazoMeses());
+        }
+    }
+
+    // Deuda guardada que pasa a tener el monto, la mora y el plazo de la solicitada
+    public record Actualizacion<T>(T deuda, EvaluacionRequestDTO.DeudaDTO solicitada) {
+    }
+
+    public record CambiosDeudas<T>(List<Actualizacion<T>> actualizaciones, List<T> bajas,
+                                   List<EvaluacionRequestDTO.DeudaDTO> altas) {
+    }
+
+    private record VencimientoDeuda(String tipo, LocalDate fechaVencimiento) {
+    }
+}
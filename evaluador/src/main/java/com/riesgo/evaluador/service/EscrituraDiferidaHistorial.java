@@ -0,0 +1,359 @@
+package com.riesgo.evaluador.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riesgo.evaluador.model.HistorialEvaluacion;
+import com.riesgo.evaluador.repository.HistorialRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritura diferida del historial: las evaluaciones confirmadas encolan su registro y un hilo
+ * escritor los inserta por lotes JDBC fuera del camino de la respuesta.
+ *
+ * Cada registro se anota antes en un archivo de respaldo de solo anexado ("R seq json") y cada
+ * lote insertado se marca con "C seq"; al arrancar se reinsertan los registros sin confirmar.
+ * Si el proceso cae entre el COMMIT de un lote y su marca, ese lote figura sin confirmar: al
+ * recuperarlo se descartan los registros cuyo (clienteId, fechaEvaluacion) ya está en la base,
+ * de modo que la reinserción no duplica historial.
+ */
+@Slf4j
+@Component
+public class EscrituraDiferidaHistorial {
+
+    @Autowired
+    private HistorialRepository historialRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${evaluacion.historial.escritura-diferida.habilitada:false}")
+    private boolean habilitada;
+
+    @Value("${evaluacion.historial.escritura-diferida.capacidad:10000}")
+    private int capacidad;
+
+    @Value("${evaluacion.historial.escritura-diferida.tamano-lote:500}")
+    private int tamanoLote;
+
+    // Tiempo que una evaluación espera hueco en la cola antes de escribir su historial de forma síncrona
+    @Value("${evaluacion.historial.escritura-diferida.espera-maxima:PT0.5S}")
+    private Duration esperaMaxima;
+
+    @Value("${evaluacion.historial.escritura-diferida.espera-cierre:PT30S}")
+    private Duration esperaCierre;
+
+    @Value("${evaluacion.historial.escritura-diferida.archivo-respaldo:data/historial-pendiente.log}")
+    private Path archivoRespaldo;
+
+    // fsync por registro: protege también ante caídas del sistema operativo, a costa de latencia
+    @Value("${evaluacion.historial.escritura-diferida.sincronizar-disco:false}")
+    private boolean sincronizarDisco;
+
+    private final LinkedBlockingQueue<Pendiente> cola = new LinkedBlockingQueue<>();
+    private final Object bloqueoRespaldo = new Object();
+    private TransactionTemplate transaccionIndependiente;
+    private Semaphore huecos;
+    private FileChannel respaldo;
+    private long ultimaSecuencia;
+    private long ultimaConfirmada;
+    private volatile boolean activa;
+    private Thread escritor;
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        if (!habilitada) {
+            return;
+        }
+        // afterCompletion corre con la transacción terminada aún ligada al hilo: se abre una nueva
+        transaccionIndependiente = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        transaccionIndependiente.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        List<Pendiente> recuperados = descartarInsertados(leerRespaldo());
+        // Los recuperados ocupan hueco aunque superen la capacidad (permisos iniciales negativos)
+        huecos = new Semaphore(capacidad - recuperados.size());
+
+        Path directorio = archivoRespaldo.toAbsolutePath().getParent();
+        if (directorio != null) {
+            Files.createDirectories(directorio);
+        }
+        respaldo = FileChannel.open(archivoRespaldo,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        // Se reescribe el respaldo solo con los recuperados: descarta lo confirmado y una posible
+        // última línea incompleta, que de otro modo se mezclaría con la siguiente anotación
+        respaldo.truncate(0);
+        for (Pendiente pendiente : recuperados) {
+            anotar("R " + pendiente.secuencia() + " " + objectMapper.writeValueAsString(pendiente.historial()));
+        }
+        cola.addAll(recuperados);
+        if (!recuperados.isEmpty()) {
+            log.warn("Recuperados {} registros de historial sin confirmar desde {}", recuperados.size(), archivoRespaldo);
+        }
+
+        activa = true;
+        escritor = new Thread(this::escribir, "historial-escritor");
+        escritor.setDaemon(true);
+        escritor.start();
+        log.info("Escritura diferida del historial activa: capacidad={}, tamanoLote={}, respaldo={}",
+            capacidad, tamanoLote, archivoRespaldo);
+    }
+
+    public boolean isHabilitada() {
+        return habilitada && activa;
+    }
+
+    /**
+     * Reserva un hueco en la cola y encola el registro cuando la transacción en curso se confirma.
+     * Devuelve false si la cola sigue llena tras la espera máxima: el llamador debe guardarlo él mismo.
+     */
+    public boolean encolar(HistorialEvaluacion historial) {
+        if (!isHabilitada()) {
+            return false;
+        }
+        try {
+            if (!huecos.tryAcquire(esperaMaxima.toNanos(), TimeUnit.NANOSECONDS)) {
+                log.warn("Cola de historial llena ({} registros), se escribe de forma síncrona", capacidad);
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    if (estado == STATUS_COMMITTED) {
+                        anotarYEncolar(historial);
+                    } else {
+                        huecos.release();
+                    }
+                }
+            });
+        } else {
+            anotarYEncolar(historial);
+        }
+        return true;
+    }
+
+    private void anotarYEncolar(HistorialEvaluacion historial) {
+        try {
+            String json = objectMapper.writeValueAsString(historial);
+            synchronized (bloqueoRespaldo) {
+                long secuencia = ++ultimaSecuencia;
+                anotar("R " + secuencia + " " + json);
+                cola.add(new Pendiente(secuencia, historial));
+            }
+        } catch (IOException | RuntimeException e) {
+            // La evaluación ya está confirmada: si el respaldo falla se inserta en este mismo hilo
+            huecos.release();
+            log.error("No se pudo anotar el historial en el respaldo, se guarda de forma síncrona", e);
+            transaccionIndependiente.executeWithoutResult(status -> historialRepository.save(historial));
+        }
+    }
+
+    // Bucle del hilo escritor: vacía la cola por lotes hasta el cierre
+    private void escribir() {
+        List<Pendiente> lote = new ArrayList<>(tamanoLote);
+        while (activa || !cola.isEmpty()) {
+            try {
+                Pendiente primero = cola.poll(1, TimeUnit.SECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                cola.drainTo(lote, tamanoLote - 1);
+                insertarLote(lote);
+                huecos.release(lote.size());
+                lote.clear();
+            } catch (InterruptedException e) {
+                // Cierre forzado: lo que queda en la cola sigue anotado en el respaldo
+                return;
+            }
+        }
+    }
+
+    // Reintenta el lote hasta insertarlo: los registros no se descartan mientras el proceso viva
+    private void insertarLote(List<Pendiente> lote) throws InterruptedException {
+        long espera = 100;
+        while (true) {
+            try {
+                List<HistorialEvaluacion> registros = new ArrayList<>(lote.size());
+                for (Pendiente pendiente : lote) {
+                    registros.add(pendiente.historial());
+                }
+                transactionTemplate.executeWithoutResult(status -> historialRepository.saveAll(registros));
+                confirmar(lote.get(lote.size() - 1).secuencia());
+                log.debug("Lote de historial insertado: {} registros", lote.size());
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error al insertar un lote de {} registros de historial, reintentando en {} ms",
+                    lote.size(), espera, e);
+                // Se descartan los ids asignados en el intento fallido para volver a insertarlos
+                for (Pendiente pendiente : lote) {
+                    pendiente.historial().setId(null);
+                }
+                Thread.sleep(espera);
+                espera = Math.min(espera * 2, 30_000);
+            }
+        }
+    }
+
+    private void confirmar(long secuencia) {
+        synchronized (bloqueoRespaldo) {
+            try {
+                ultimaConfirmada = secuencia;
+                if (ultimaConfirmada == ultimaSecuencia) {
+                    // Todo lo anotado está en la base: se compacta el respaldo
+                    respaldo.truncate(0);
+                } else {
+                    anotar("C " + secuencia);
+                }
+            } catch (IOException e) {
+                log.error("No se pudo marcar el lote {} como confirmado en el respaldo", secuencia, e);
+            }
+        }
+    }
+
+    private void anotar(String linea) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((linea + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            respaldo.write(buffer);
+        }
+        if (sincronizarDisco) {
+            respaldo.force(false);
+        }
+    }
+
+    private List<Pendiente> leerRespaldo() throws IOException {
+        List<Pendiente> anotados = new ArrayList<>();
+        if (!Files.exists(archivoRespaldo)) {
+            return anotados;
+        }
+        long confirmada = 0;
+        try (BufferedReader lector = Files.newBufferedReader(archivoRespaldo, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                try {
+                    if (linea.startsWith("R ")) {
+                        int separador = linea.indexOf(' ', 2);
+                        long secuencia = Long.parseLong(linea.substring(2, separador));
+                        HistorialEvaluacion historial = objectMapper.readValue(
+                            linea.substring(separador + 1), HistorialEvaluacion.class);
+                        historial.setId(null);
+                        anotados.add(new Pendiente(secuencia, historial));
+                    } else if (linea.startsWith("C ")) {
+                        confirmada = Math.max(confirmada, Long.parseLong(linea.substring(2).trim()));
+                    }
+                } catch (JsonProcessingException | RuntimeException e) {
+                    // Una línea a medio escribir al caer el proceso: solo puede ser la última
+                    log.warn("Línea del respaldo de historial ignorada: {}", e.getMessage());
+                }
+            }
+        }
+        long ultimaConfirmadaEnRespaldo = confirmada;
+        anotados.removeIf(pendiente -> pendiente.secuencia() <= ultimaConfirmadaEnRespaldo);
+        ultimaSecuencia = anotados.isEmpty() ? confirmada
+            : Math.max(confirmada, anotados.get(anotados.size() - 1).secuencia());
+        ultimaConfirmada = confirmada;
+        return anotados;
+    }
+
+    // Solo el primer lote sin marca puede estar ya en la base: los lotes se insertan y marcan en orden
+    private List<Pendiente> descartarInsertados(List<Pendiente> recuperados) {
+        List<Pendiente> candidatos = recuperados.subList(0, Math.min(tamanoLote, recuperados.size()));
+        if (candidatos.isEmpty()) {
+            return recuperados;
+        }
+        Set<Long> clienteIds = new HashSet<>();
+        LocalDateTime desde = null;
+        for (Pendiente pendiente : candidatos) {
+            clienteIds.add(pendiente.historial().getClienteId());
+            LocalDateTime fecha = pendiente.historial().getFechaEvaluacion();
+            desde = desde == null || fecha.isBefore(desde) ? fecha : desde;
+        }
+        Set<String> insertados = new HashSet<>();
+        List<Object[]> filas = historialRepository.findClavesByClienteIdInDesde(
+            clienteIds, desde.truncatedTo(ChronoUnit.MICROS));
+        for (Object[] fila : filas) {
+            insertados.add(clave((Long) fila[0], (LocalDateTime) fila[1]));
+        }
+        List<Pendiente> pendientes = new ArrayList<>(recuperados.size());
+        for (Pendiente pendiente : recuperados) {
+            if (!insertados.contains(clave(pendiente.historial().getClienteId(), pendiente.historial().getFechaEvaluacion()))) {
+                pendientes.add(pendiente);
+            }
+        }
+        if (pendientes.size() < recuperados.size()) {
+            log.warn("Descartados {} registros del respaldo de historial que ya estaban insertados",
+                recuperados.size() - pendientes.size());
+        }
+        return pendientes;
+    }
+
+    // La base guarda la fecha redondeada a microsegundos: se compara con esa precisión
+    private static String clave(Long clienteId, LocalDateTime fechaEvaluacion) {
+        return clienteId + "|" + fechaEvaluacion.plusNanos(500).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (escritor == null) {
+            return;
+        }
+        activa = false;
+        try {
+            escritor.join(esperaCierre.toMillis());
+            if (escritor.isAlive()) {
+                escritor.interrupt();
+                log.warn("Cierre con {} registros de historial pendientes; quedan en {}", cola.size(), archivoRespaldo);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (bloqueoRespaldo) {
+            try {
+                respaldo.force(true);
+                respaldo.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private record Pendiente(long secuencia, HistorialEvaluacion historial) {
+    }
+}
@@ -0,0 +1,249 @@
+package com.riesgo.evaluador.service;
+
+import com.riesgo.evaluador.dto.EstadisticasDTO;
+import com.riesgo.evaluador.model.ResultadoEvaluacion;
+import com.riesgo.evaluador.repository.HistorialRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores en memoria de las evaluaciones por nivel de riesgo, tipo de cliente y día.
+ * Se cargan desde el historial al arrancar y se reconcilian periódicamente con la base;
+ * entre reconciliaciones se actualizan al confirmarse cada evaluación.
+ *
+ * La reconciliación no reemplaza los contadores: les suma la diferencia entre la base y la copia
+ * tomada justo antes de consultarla, así que lo que se confirma mientras corren las consultas se
+ * conserva. Solo puede contarse dos veces una evaluación cuyo COMMIT preceda a la consulta y cuyo
+ * afterCommit llegue después, y la siguiente reconciliación lo corrige.
+ */
+@Slf4j
+@Component
+public class EstadisticasEvaluacion {
+
+    @Autowired
+    private HistorialRepository historialRepository;
+
+    // Fija el día de corte de la ventana de días retenidos
+    @Autowired
+    private Clock reloj;
+
+    @Value("${evaluacion.estadisticas.dias-retenidos:90}")
+    private int diasRetenidos;
+
+    private final Acumulados acumulados = new Acumulados();
+    private volatile LocalDateTime ultimaReconciliacion;
+
+    // Registra la evaluación cuando la transacción en curso se confirma (o de inmediato si no hay)
+    public void registrar(String tipoCliente, ResultadoEvaluacion resultado) {
+        String nivelRiesgo = resultado.getNivelRiesgo();
+        LocalDate dia = resultado.getFechaEvaluacion().toLocalDate();
+        boolean aprobado = resultado.isAprobado();
+        long puntaje = centesimas(resultado.getPuntaje());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acumulados.sumar(nivelRiesgo, tipoCliente, dia, 1, aprobado ? 1 : 0, puntaje);
+                }
+            });
+        } else {
+            acumulados.sumar(nivelRiesgo, tipoCliente, dia, 1, aprobado ? 1 : 0, puntaje);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        try {
+            reconciliar();
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron cargar las estadísticas iniciales: {}", e.getMessage());
+        }
+    }
+
+    // Lleva los contadores a los totales de la base sumándoles la diferencia, sin reemplazarlos
+    @Scheduled(fixedDelayString = "${evaluacion.estadisticas.reconciliacion:PT15M}",
+               initialDelayString = "${evaluacion.estadisticas.reconciliacion:PT15M}")
+    public synchronized void reconciliar() {
+        LocalDate desde = LocalDate.now(reloj).minusDays(diasRetenidos - 1L);
+        // Los días fuera de la ventana no se consultan: se dejan de llevar
+        acumulados.porDia.keySet().removeIf(dia -> dia.isBefore(desde));
+        Foto enMemoria = acumulados.foto();
+
+        Foto enBase = new Foto();
+        for (Object[] fila : historialRepository.resumirPorNivelYTipo()) {
+            long[] valores = {((Number) fila[2]).longValue(), ((Number) fila[3]).longValue(), centesimas(fila[4])};
+            enBase.sumar(enBase.porNivel, (String) fila[0], valores);
+            enBase.sumar(enBase.porTipo, (String) fila[1], valores);
+            enBase.sumar(enBase.total, valores);
+        }
+        for (Object[] fila : historialRepository.resumirPorDiaDesde(desde.atStartOfDay())) {
+            enBase.sumar(enBase.porDia, (LocalDate) fila[0],
+                new long[] {((Number) fila[1]).longValue(), ((Number) fila[2]).longValue(), centesimas(fila[3])});
+        }
+
+        acumulados.total.sumar(enBase.total, enMemoria.total);
+        ajustar(acumulados.porNivel, enBase.porNivel, enMemoria.porNivel);
+        ajustar(acumulados.porTipo, enBase.porTipo, enMemoria.porTipo);
+        ajustar(acumulados.porDia, enBase.porDia, enMemoria.porDia);
+        ultimaReconciliacion = LocalDateTime.now(reloj);
+        log.debug("Estadísticas reconciliadas: {} evaluaciones en la base, {} en memoria antes de reconciliar",
+            enBase.total[0], enMemoria.total[0]);
+    }
+
+    public EstadisticasDTO obtener() {
+        LocalDate desde = LocalDate.now(reloj).minusDays(diasRetenidos - 1L);
+
+        Map<LocalDate, EstadisticasDTO.ResumenDTO> porDia = new TreeMap<>();
+        acumulados.porDia.forEach((dia, contador) -> {
+            if (!dia.isBefore(desde)) {
+                porDia.put(dia, contador.resumen());
+            }
+        });
+
+        return new EstadisticasDTO(
+            acumulados.total.resumen(),
+            resumenes(acumulados.porNivel),
+            resumenes(acumulados.porTipo),
+            porDia,
+            ultimaReconciliacion
+        );
+    }
+
+    // Suma a cada contador la diferencia entre la base y la copia en memoria tomada antes de consultarla
+    private static <K> void ajustar(ConcurrentHashMap<K, Contador> contadores, Map<K, long[]> enBase,
+                                    Map<K, long[]> enMemoria) {
+        Set<K> claves = new HashSet<>(enBase.keySet());
+        claves.addAll(enMemoria.keySet());
+        for (K clave : claves) {
+            long[] base = enBase.getOrDefault(clave, CERO);
+            long[] memoria = enMemoria.getOrDefault(clave, CERO);
+            if (!Arrays.equals(base, memoria)) {
+                contadores.computeIfAbsent(clave, k -> new Contador()).sumar(base, memoria);
+            }
+        }
+    }
+
+    private static Map<String, EstadisticasDTO.ResumenDTO> resumenes(Map<String, Contador> contadores) {
+        Map<String, EstadisticasDTO.ResumenDTO> resultado = new LinkedHashMap<>();
+        new TreeMap<>(contadores).forEach((clave, contador) -> resultado.put(clave, contador.resumen()));
+        return resultado;
+    }
+
+    private static final long[] CERO = new long[3];
+
+    private static long centesimas(Object puntaje) {
+        if (puntaje == null) {
+            return 0;
+        }
+        BigDecimal valor = puntaje instanceof BigDecimal bd ? bd : new BigDecimal(puntaje.toString());
+        return valor.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static class Acumulados {
+
+        final Contador total = new Contador();
+        final ConcurrentHashMap<String, Contador> porNivel = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, Contador> porTipo = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<LocalDate, Contador> porDia = new ConcurrentHashMap<>();
+
+        void sumar(String nivel, String tipo, LocalDate dia, long evaluaciones, long aprobadas, long puntaje) {
+            sumarTotales(nivel, tipo, evaluaciones, aprobadas, puntaje);
+            sumarDia(dia, evaluaciones, aprobadas, puntaje);
+        }
+
+        void sumarTotales(String nivel, String tipo, long evaluaciones, long aprobadas, long puntaje) {
+            total.sumar(evaluaciones, aprobadas, puntaje);
+            porNivel.computeIfAbsent(nivel, k -> new Contador()).sumar(evaluaciones, aprobadas, puntaje);
+            porTipo.computeIfAbsent(tipo, k -> new Contador()).sumar(evaluaciones, aprobadas, puntaje);
+        }
+
+        void sumarDia(LocalDate dia, long evaluaciones, long aprobadas, long puntaje) {
+            porDia.computeIfAbsent(dia, k -> new Contador()).sumar(evaluaciones, aprobadas, puntaje);
+        }
+
+        Foto foto() {
+            Foto foto = new Foto();
+            foto.total = total.valores();
+            porNivel.forEach((nivel, contador) -> foto.porNivel.put(nivel, contador.valores()));
+            porTipo.forEach((tipo, contador) -> foto.porTipo.put(tipo, contador.valores()));
+            porDia.forEach((dia, contador) -> foto.porDia.put(dia, contador.valores()));
+            return foto;
+        }
+    }
+
+    // Valores fijos {evaluaciones, aprobadas, sumaPuntajeCentesimas}: copia de los contadores o totales de la base
+    private static class Foto {
+
+        long[] total = new long[3];
+        final Map<String, long[]> porNivel = new HashMap<>();
+        final Map<String, long[]> porTipo = new HashMap<>();
+        final Map<LocalDate, long[]> porDia = new HashMap<>();
+
+        <K> void sumar(Map<K, long[]> mapa, K clave, long[] valores) {
+            sumar(mapa.computeIfAbsent(clave, k -> new long[3]), valores);
+        }
+
+        void sumar(long[] destino, long[] valores) {
+            for (int i = 0; i < destino.length; i++) {
+                destino[i] += valores[i];
+            }
+        }
+    }
+
+    private static class Contador {
+
+        final LongAdder evaluaciones = new LongAdder();
+        final LongAdder aprobadas = new LongAdder();
+        final LongAdder sumaPuntajeCentesimas = new LongAdder();
+
+        void sumar(long evaluaciones, long aprobadas, long puntajeCentesimas) {
+            this.evaluaciones.add(evaluaciones);
+            this.aprobadas.add(aprobadas);
+            this.sumaPuntajeCentesimas.add(puntajeCentesimas);
+        }
+
+        void sumar(long[] base, long[] memoria) {
+            sumar(base[0] - memoria[0], base[1] - memoria[1], base[2] - memoria[2]);
+        }
+
+        long[] valores() {
+            return new long[] {evaluaciones.sum(), aprobadas.sum(), sumaPuntajeCentesimas.sum()};
+        }
+
+        EstadisticasDTO.ResumenDTO resumen() {
+            long n = evaluaciones.sum();
+            long aprobadasSuma = aprobadas.sum();
+            if (n == 0) {
+                return new EstadisticasDTO.ResumenDTO(0, 0, BigDecimal.ZERO, BigDecimal.ZERO);
+            }
+            BigDecimal tasa = BigDecimal.valueOf(aprobadasSuma * 100)
+                .divide(BigDecimal.valueOf(n), 2, RoundingMode.HALF_UP);
+            BigDecimal promedio = BigDecimal.valueOf(sumaPuntajeCentesimas.sum(), 2)
+                .divide(BigDecimal.valueOf(n), 2, RoundingMode.HALF_UP);
+            return new EstadisticasDTO.ResumenDTO(n, aprobadasSuma, tasa, promedio);
+        }
+    }
+}
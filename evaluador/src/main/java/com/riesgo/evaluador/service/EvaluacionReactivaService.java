@@ -0,0 +1,336 @@
+package com.riesgo.evaluador.service;
+
+import com.riesgo.evaluador.dto.ConsultaPaginaDTO;
+import com.riesgo.evaluador.dto.EvaluacionRequestDTO;
+import com.riesgo.evaluador.dto.EvaluacionResponseDTO;
+import com.riesgo.evaluador.dto.HistorialEvaluacionDTO;
+import com.riesgo.evaluador.dto.PaginaDTO;
+import com.riesgo.evaluador.model.FilaCliente;
+import com.riesgo.evaluador.model.FilaDeuda;
+import com.riesgo.evaluador.model.FilaHistorial;
+import com.riesgo.evaluador.model.ResultadoEvaluacion;
+import com.riesgo.evaluador.model.SolicitudPuntaje;
+import com.riesgo.evaluador.repository.ClienteReactivoRepository;
+import com.riesgo.evaluador.repository.DeudaReactivoRepository;
+import com.riesgo.evaluador.repository.HistorialReactivoRepository;
+import com.riesgo.evaluador.repository.SecuenciasReactivas;
+import com.riesgo.evaluador.service.MetricasEvaluacion.Etapa;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /evaluar y el historial sobre R2DBC para la pila reactiva (perfil reactivo). Valida y puntúa con
+ * {@link CalculoRiesgo} y arma el cliente con {@link DatosSolicitud}, igual que
+ * {@link EvaluacionServiceImpl}; solo cambia el acceso a la base,
+ * que no bloquea el hilo del event loop. El lote, la reevaluación y las estadísticas siguen en JPA.
+ */
+@Slf4j
+@Service
+@Profile("reactivo")
+public class EvaluacionReactivaService {
+
+    @Autowired
+    private CalculoRiesgo calculoRiesgo;
+
+    @Autowired
+    private DatosSolicitud datosSolicitud;
+
+    @Autowired
+    private ClienteReactivoRepository clienteRepository;
+
+    @Autowired
+    private DeudaReactivoRepository deudaRepository;
+
+    @Autowired
+    private HistorialReactivoRepository historialRepository;
+
+    @Autowired
+    private SecuenciasReactivas secuencias;
+
+    @Autowired
+    private TransactionalOperator transaccion;
+
+    @Autowired
+    private EstadisticasEvaluacion estadisticas;
+
+    @Autowired
+    private MetricasEvaluacion metricas;
+
+    @Autowired
+    private Clock reloj;
+
+    @Value("${evaluacion.historial.tamano-maximo-pagina:1000}")
+    private int tamanoMaximoPagina;
+
+    public Mono<EvaluacionResponseDTO> evaluar(EvaluacionRequestDTO request) {
+        return Mono.defer(() -> {
+            long inicio = System.nanoTime();
+
+            // 1. Validar y puntuar sobre la solicitud: solo CPU, se hace antes de tocar la base
+            calculoRiesgo.validar(request);
+            long etapa = registrarEtapa(Etapa.VALIDACION, inicio);
+            SolicitudPuntaje solicitud = calculoRiesgo.crearSolicitud(request, LocalDateTime.now(reloj));
+            EvaluadorRiesgo evaluador = calculoRiesgo.seleccionarEvaluador(solicitud);
+            ResultadoEvaluacion resultado = calculoRiesgo.puntuar(evaluador, solicitud);
+            long finPuntaje = registrarEtapa(Etapa.PUNTAJE, etapa);
+
+            // 2. Cliente, deudas e historial en una sola transacción
+            return guardarCliente(request)
+                .flatMap(cliente -> {
+                    long desde = registrarEtapa(Etapa.PERSISTENCIA_CLIENTE, finPuntaje);
+                    return guardarHistorial(cliente, solicitud, resultado)
+                        .doOnSuccess(h -> registrarEtapa(Etapa.PERSISTENCIA_HISTORIAL, desde))
+                        .thenReturn(cliente);
+                })
+                .as(transaccion::transactional)
+                .map(cliente -> {
+                    // Tras el commit, como afterCommit en el servicio JPA
+                    estadisticas.registrar(cliente.getTipoCliente(), resultado);
+                    registrarEvaluacion(cliente, evaluador, resultado, solicitud, System.nanoTime() - inicio);
+                    return crearRespuesta(cliente, solicitud, resultado);
+                });
+        })
+        .onErrorMap(e -> !(e instanceof IllegalArgumentException), e -> {
+            log.error("Error interno al evaluar documento={}", request != null ? request.getDocumento() : null, e);
+            return new RuntimeException("Error al procesar la evaluación", e);
+        })
+        .doOnError(IllegalArgumentException.class,
+            e -> log.warn("Solicitud rechazada por validación: {}", e.getMessage()));
+    }
+
+    private long registrarEtapa(Etapa etapa, long desdeNanos) {
+        long ahora = System.nanoTime();
+        metricas.registrarEtapa(etapa, false, ahora - desdeNanos);
+        return ahora;
+    }
+
+    // Mismo evento estructurado que el servicio JPA
+    private void registrarEvaluacion(FilaCliente cliente, EvaluadorRiesgo evaluador, ResultadoEvaluacion resultado,
+                                     SolicitudPuntaje solicitud, long duracionNanos) {
+        metricas.registrarResultado(cliente.getTipoCliente(), evaluador, resultado, solicitud.montosDeudas().length);
+        metricas.registrarEtapa(Etapa.TOTAL, false, duracionNanos);
+        log.atInfo()
+            .addKeyValue("clienteId", cliente.getId())
+            .addKeyValue("tipoCliente", cliente.getTipoCliente())
+            .addKeyValue("evaluador", evaluador.getClass().getSimpleName())
+            .addKeyValue("nivelRiesgo", resultado.getNivelRiesgo())
+            .addKeyValue("puntaje", resultado.getPuntaje())
+            .addKeyValue("aprobado", resultado.isAprobado())
+            .addKeyValue("lote", false)
+            .addKeyValue("duracionMs", TimeUnit.NANOSECONDS.toMicros(duracionNanos) / 1000.0)
+            .log("Evaluación completada");
+    }
+
+    private EvaluacionResponseDTO crearRespuesta(FilaCliente cliente, SolicitudPuntaje solicitud,
+                                                 ResultadoEvaluacion resultado) {
+        return EvaluacionResponseDTO.fromEvaluacion(
+            cliente.getId(),
+            cliente.getNombre(),
+            cliente.getDocumento(),
+            cliente.getTipoCliente(),
+            resultado,
+            solicitud.ingresos(),
+            solicitud.totalDeudas(),
+            solicitud.montoSolicitado(),
+            solicitud.plazoEnMeses(),
+            solicitud.puntajeCrediticio()
+        );
+    }
+
+    private Mono<FilaHistorial> guardarHistorial(FilaCliente cliente, SolicitudPuntaje solicitud,
+                                                 ResultadoEvaluacion resultado) {
+        return secuencias.siguiente(SecuenciasReactivas.HISTORIAL)
+            .map(id -> FilaHistorial.de(id, cliente.getId(), cliente.getTipoCliente(), resultado,
+                solicitud.ingresos(), solicitud.totalDeudas()))
+            .flatMap(historialRepository::save);
+    }
+
+    // Inserta el cliente nuevo o actualiza el ya registrado con el mismo documento
+    private Mono<FilaCliente> guardarCliente(EvaluacionRequestDTO request) {
+        return clienteRepository.findByDocumento(request.getDocumento())
+            .flatMap(existente -> actualizarCliente(existente, request))
+            .switchIfEmpty(Mono.defer(() -> crearCliente(request)));
+    }
+
+    private Mono<FilaCliente> crearCliente(EvaluacionRequestDTO request) {
+        return secuencias.siguiente(SecuenciasReactivas.CLIENTES).flatMap(id -> {
+            FilaCliente cliente = new FilaCliente();
+            cliente.setId(id);
+            cliente.setNueva(true);
+            cliente.setTipoCliente(request.getTipoCliente());
+            cliente.setDocumento(request.getDocumento());
+            datosSolicitud.aplicarDatos(cliente, request);
+            return clienteRepository.save(cliente)
+                .then(cliente.isNatural()
+                    ? clienteRepository.insertarPersonaNatural(cliente.getId(), cliente.getFechaNacimiento(),
+                        cliente.getEstadoCivil(), cliente.getNumeroDependientes())
+                    : clienteRepository.insertarPersonaJuridica(cliente.getId(), cliente.getFechaConstitucion(),
+                        cliente.getSectorEconomico(), cliente.getNumeroEmpleados()))
+                .then(insertarDeudas(cliente.getId(), request.getDeudas()))
+                .thenReturn(cliente);
+        });
+    }
+
+    private Mono<FilaCliente> actualizarCliente(FilaCliente cliente, EvaluacionRequestDTO request) {
+        if (!cliente.getTipoCliente().equals(request.getTipoCliente())) {
+            return Mono.error(new IllegalArgumentException(
+                "El documento " + request.getDocumento() + " ya está registrado como cliente " + cliente.getTipoCliente()));
+        }
+        datosSolicitud.aplicarDatos(cliente, request);
+        return clienteRepository.save(cliente)
+            .then(cliente.isNatural()
+                ? clienteRepository.actualizarPersonaNatural(cliente.getId(), cliente.getFechaNacimiento(),
+                    cliente.getEstadoCivil(), cliente.getNumeroDependientes())
+                : clienteRepository.actualizarPersonaJuridica(cliente.getId(), cliente.getFechaConstitucion(),
+                    cliente.getSectorEconomico(), cliente.getNumeroEmpleados()))
+            .then(sincronizarDeudas(cliente.getId(), request.getDeudas()))
+            .thenReturn(cliente);
+    }
+
+    // Aplica el diff de DatosSolicitud#compararDeudas: UPDATE, DELETE por id e INSERT en lote
+    private Mono<Void> sincronizarDeudas(Long clienteId, List<EvaluacionRequestDTO.DeudaDTO> solicitadas) {
+        return deudaRepository.findByClienteId(clienteId).collectList().flatMap(actuales -> {
+            DatosSolicitud.CambiosDeudas<FilaDeuda> cambios = datosSolicitud.compararDeudas(actuales,
+                deuda -> DatosSolicitud.LineaDeuda.de(deuda.getTipo(), deuda.getMonto(), deuda.getFechaVencimiento(),
+                    deuda.getDiasMora(), deuda.getPlazoMeses()),
+                solicitadas);
+
+            List<FilaDeuda> actualizadas = new ArrayList<>(cambios.actualizaciones().size());
+            for (DatosSolicitud.Actualizacion<FilaDeuda> actualizacion : cambios.actualizaciones()) {
+                FilaDeuda deuda = actualizacion.deuda();
+                EvaluacionRequestDTO.DeudaDTO dto = actualizacion.solicitada();
+                deuda.setMonto(dto.getMonto());
+                deuda.setDiasMora(DatosSolicitud.diasMora(dto));
+                deuda.setPlazoMeses(dto.getPlazoMeses());
+                actualizadas.add(deuda);
+            }
+            List<Long> bajas = cambios.bajas().stream().map(FilaDeuda::getId).toList();
+
+            Mono<Void> actualizacion = actualizadas.isEmpty() ? Mono.empty() : deudaRepository.saveAll(actualizadas).then();
+            Mono<Void> borrado = bajas.isEmpty() ? Mono.empty() : deudaRepository.deleteAllById(bajas);
+            return actualizacion.then(borrado).then(insertarDeudas(clienteId, cambios.altas()));
+        });
+    }
+
+    private Mono<Void> insertarDeudas(Long clienteId, List<EvaluacionRequestDTO.DeudaDTO> deudas) {
+        if (deudas == null || deudas.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(deudas)
+            .concatMap(dto -> secuencias.siguiente(SecuenciasReactivas.DEUDAS).map(id -> crearDeuda(id, clienteId, dto)))
+            .collectList()
+            .flatMap(deudaRepository::insertarLote);
+    }
+
+    private FilaDeuda crearDeuda(Long id, Long clienteId, EvaluacionRequestDTO.DeudaDTO dto) {
+        FilaDeuda deuda = new FilaDeuda();
+        deuda.setId(id);
+        deuda.setClienteId(clienteId);
+        deuda.setTipo(dto.getTipo());
+        deuda.setMonto(dto.getMonto());
+        deuda.setFechaVencimiento(dto.getFechaVencimiento());
+        deuda.setDiasMora(DatosSolicitud.diasMora(dto));
+        deuda.setPlazoMeses(dto.getPlazoMeses());
+        return deuda;
+    }
+
+    public Mono<PaginaDTO<HistorialEvaluacionDTO>> obtenerHistorial(ConsultaPaginaDTO consulta) {
+        return Mono.defer(() -> {
+            consulta.validar(tamanoMaximoPagina);
+            Flux<FilaHistorial> filas = consulta.usaCursor()
+                ? historialRepository.findAntesDe(consulta.getCursorFecha(), consulta.getCursorId(), limite(consulta))
+                : historialRepository.findPagina(limite(consulta), desplazamiento(consulta));
+            return crearPagina(filas, consulta);
+        });
+    }
+
+    public Mono<PaginaDTO<HistorialEvaluacionDTO>> obtenerHistorialPorCliente(Long clienteId, ConsultaPaginaDTO consulta) {
+        return Mono.defer(() -> {
+            consulta.validar(tamanoMaximoPagina);
+            Flux<FilaHistorial> filas = consulta.usaCursor()
+                ? historialRepository.findByClienteIdAntesDe(
+                    clienteId, consulta.getCursorFecha(), consulta.getCursorId(), limite(consulta))
+                : historialRepository.findPaginaByClienteId(clienteId, limite(consulta), desplazamiento(consulta));
+            return crearPagina(filas, consulta);
+        });
+    }
+
+    public Mono<PaginaDTO<HistorialEvaluacionDTO>> obtenerHistorialPorNivelRiesgo(String nivelRiesgo,
+                                                                                   ConsultaPaginaDTO consulta) {
+        return Mono.defer(() -> {
+            consulta.validar(tamanoMaximoPagina);
+            Flux<FilaHistorial> filas = consulta.usaCursor()
+                ? historialRepository.findByNivelRiesgoAntesDe(
+                    nivelRiesgo, consulta.getCursorFecha(), consulta.getCursorId(), limite(consulta))
+                : historialRepository.findPaginaByNivelRiesgo(nivelRiesgo, limite(consulta), desplazamiento(consulta));
+            return crearPagina(filas, consulta);
+        });
+    }
+
+    public Mono<PaginaDTO<HistorialEvaluacionDTO>> obtenerHistorialPorFechas(LocalDateTime inicio, LocalDateTime fin,
+                                                                              ConsultaPaginaDTO consulta) {
+        return Mono.defer(() -> {
+            consulta.validar(tamanoMaximoPagina);
+            Flux<FilaHistorial> filas = consulta.usaCursor()
+                ? historialRepository.findByFechaEvaluacionBetweenAntesDe(
+                    inicio, fin, consulta.getCursorFecha(), consulta.getCursorId(), limite(consulta))
+                : historialRepository.findPaginaByFechaEvaluacionBetween(
+                    inicio, fin, limite(consulta), desplazamiento(consulta));
+            return crearPagina(filas, consulta);
+        });
+    }
+
+    public Mono<HistorialEvaluacionDTO> obtenerEvaluacion(Long id) {
+        return historialRepository.findById(id).map(HistorialEvaluacionDTO::fromFila);
+    }
+
+    // Todo el historial como flujo: las filas se leen a medida que el cliente HTTP las consume
+    public Flux<HistorialEvaluacionDTO> exportarHistorial() {
+        return historialRepository.findTodoOrdenado().map(HistorialEvaluacionDTO::fromFila);
+    }
+
+    // Una fila más que el tamaño de página indica que hay más registros
+    private static int limite(ConsultaPaginaDTO consulta) {
+        return consulta.getTamano() + 1;
+    }
+
+    private static long desplazamiento(ConsultaPaginaDTO consulta) {
+        return (long) consulta.getPagina() * consulta.getTamano();
+    }
+
+    private Mono<PaginaDTO<HistorialEvaluacionDTO>> crearPagina(Flux<FilaHistorial> filas, ConsultaPaginaDTO consulta) {
+        return filas.map(HistorialEvaluacionDTO::fromFila).collectList().map(leidas -> {
+            boolean hayMas = leidas.size() > consulta.getTamano();
+            List<HistorialEvaluacionDTO> contenido = hayMas ? leidas.subList(0, consulta.getTamano()) : leidas;
+
+            LocalDateTime siguienteFecha = null;
+            Long siguienteId = null;
+            if (hayMas) {
+                HistorialEvaluacionDTO ultimo = contenido.get(contenido.size() - 1);
+                siguienteFecha = ultimo.getFechaEvaluacion();
+                siguienteId = ultimo.getId();
+            }
+
+            return new PaginaDTO<>(
+                contenido,
+                consulta.usaCursor() ? null : consulta.getPagina(),
+                consulta.getTamano(),
+                hayMas,
+                siguienteFecha,
+                siguienteId
+            );
+        });
+    }
+}
@@ -1,21 +1,41 @@
 package com.riesgo.evaluador.service;
 
+import com.riesgo.evaluador.dto.ConsultaPaginaDTO;
+import com.riesgo.evaluador.dto.EvaluacionLoteResponseDTO;
 import com.riesgo.evaluador.dto.EvaluacionRequestDTO;
 import com.riesgo.evaluador.dto.EvaluacionResponseDTO;
 import com.riesgo.evaluador.dto.HistorialEvaluacionDTO;
+import com.riesgo.evaluador.dto.PaginaDTO;
+import com.riesgo.evaluador.model.ResultadoEvaluacion;
+import com.riesgo.evaluador.model.SolicitudPuntaje;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EvaluacionService {
     
     EvaluacionResponseDTO evaluar(EvaluacionRequestDTO request);
     
-    List<HistorialEvaluacionDTO> obtenerHistorial();
+    // Evaluación solo en memoria: no consulta ni escribe en la base
+    EvaluacionResponseDTO simular(EvaluacionRequestDTO request);
     
-    List<HistorialEvaluacionDTO> obtenerHistorialPorCliente(Long clienteId);
+    // Puntaje de una solicitud ya armada con el evaluador que le corresponde, sin persistir nada
+    ResultadoEvaluacion puntuar(SolicitudPuntaje solicitud);
     
-    List<HistorialEvaluacionDTO> obtenerHistorialPorNivelRiesgo(String nivelRiesgo);
+    EvaluacionLoteResponseDTO evaluarLote(List<EvaluacionRequestDTO> requests);
     
-    List<HistorialEvaluacionDTO> obtenerHistorialPorFechas(LocalDateTime inicio, LocalDateTime fin);
+    PaginaDTO<HistorialEvaluacionDTO> obtenerHistorial(ConsultaPaginaDTO consulta);
+    
+    PaginaDTO<HistorialEvaluacionDTO> obtenerHistorialPorCliente(Long clienteId, ConsultaPaginaDTO consulta);
+    
+    PaginaDTO<HistorialEvaluacionDTO> obtenerHistorialPorNivelRiesgo(String nivelRiesgo, ConsultaPaginaDTO consulta);
+    
+    PaginaDTO<HistorialEvaluacionDTO> obtenerHistorialPorFechas(LocalDateTime inicio, LocalDateTime fin,
+                                                                ConsultaPaginaDTO consulta);
+    
+    Optional<HistorialEvaluacionDTO> obtenerEvaluacion(Long id);
+    
+    void exportarHistorial(Consumer<HistorialEvaluacionDTO> consumidor);
 }
\ No newline at end of file
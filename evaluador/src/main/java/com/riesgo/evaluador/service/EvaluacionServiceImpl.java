@@ -1,217 +1,458 @@
 package com.riesgo.evaluador.service;
 
+import com.riesgo.evaluador.dto.ConsultaPaginaDTO;
+import com.riesgo.evaluador.dto.EvaluacionLoteResponseDTO;
 import com.riesgo.evaluador.dto.EvaluacionRequestDTO;
 import com.riesgo.evaluador.dto.EvaluacionResponseDTO;
 import com.riesgo.evaluador.dto.HistorialEvaluacionDTO;
+import com.riesgo.evaluador.dto.PaginaDTO;
 import com.riesgo.evaluador.model.*;
 import com.riesgo.evaluador.repository.ClienteRepository;
 import com.riesgo.evaluador.repository.HistorialRepository;
+import com.riesgo.evaluador.service.MetricasEvaluacion.Etapa;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 @Transactional
 public class EvaluacionServiceImpl implements EvaluacionService {
     
-    @Autowired
-    private EvaluadorRiesgoBajo evaluadorBajo;
+    private static final Sort ORDEN_HISTORIAL = Sort.by(Sort.Direction.DESC, "fechaEvaluacion", "id");
     
     @Autowired
-    private EvaluadorRiesgoMedio evaluadorMedio;
+    private CalculoRiesgo calculoRiesgo;
     
     @Autowired
-    private EvaluadorRiesgoAlto evaluadorAlto;
+    private DatosSolicitud datosSolicitud;
     
     @Autowired
     private HistorialRepository historialRepository;
     
+    @Autowired
+    private EstadisticasEvaluacion estadisticas;
+    
+    @Autowired
+    private EscrituraDiferidaHistorial escrituraDiferida;
+    
+    @Autowired
+    private MetricasEvaluacion metricas;
+    
     @Autowired
     private ClienteRepository clienteRepository;
     
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private Clock reloj;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${evaluacion.lote.tamano-bloque:100}")
+    private int tamanoBloqueLote;
+    
+    @Value("${evaluacion.lote.maximo-solicitudes:20000}")
+    private int maximoSolicitudesLote;
+    
+    @Value("${evaluacion.historial.tamano-maximo-pagina:1000}")
+    private int tamanoMaximoPagina;
+    
     @Override
     public EvaluacionResponseDTO evaluar(EvaluacionRequestDTO request) {
+        long inicio = System.nanoTime();
         try {
-            System.out.println("=== INICIO EVALUACIÓN ===");
-            System.out.println("Request recibido para: " + request.getNombre());
-            
             // 1. Validar datos de entrada
-            System.out.println("1. Validando request...");
-            validarRequest(request);
-            System.out.println("✅ Validación exitosa");
+            calculoRiesgo.validar(request);
+            long etapa = registrarEtapa(Etapa.VALIDACION, inicio);
+            log.debug("Solicitud válida para documento={}", request.getDocumento());
             
-            // 2. Crear el cliente según el tipo
-            System.out.println("2. Creando cliente...");
-            Cliente cliente = crearCliente(request);
-            System.out.println("✅ Cliente creado: " + cliente.getTipoCliente());
-            System.out.println("   - Ingresos: " + cliente.getIngresos());
-            System.out.println("   - Monto solicitado: " + cliente.getMontoSolicitado());
+            // 2. Crear el cliente o actualizar el existente con el mismo documento
+            Cliente cliente = guardarCliente(request,
+                clienteRepository.findConDeudasByDocumento(request.getDocumento()).orElse(null));
+            // Con ids de secuencia save() solo encola los INSERT: se envían aquí para que la etapa los mida
+            entityManager.flush();
+            etapa = registrarEtapa(Etapa.PERSISTENCIA_CLIENTE, etapa);
+            log.debug("Cliente guardado: id={}, tipo={}, ingresos={}, montoSolicitado={}",
+                cliente.getId(), cliente.getTipoCliente(), cliente.getIngresos(), cliente.getMontoSolicitado());
             
-            // 2.5. GUARDAR EL CLIENTE EN LA BASE DE DATOS
-            System.out.println("2.5. Guardando cliente en BD...");
-            cliente = clienteRepository.save(cliente);
-            System.out.println("✅ Cliente guardado con ID: " + cliente.getId());
-            
-            // 3. Seleccionar el evaluador apropiado
-            System.out.println("3. Seleccionando evaluador...");
-            EvaluadorRiesgo evaluador = seleccionarEvaluador(cliente);
-            System.out.println("✅ Evaluador seleccionado: " + evaluador.getClass().getSimpleName());
+            // 3. Seleccionar el evaluador apropiado sobre los datos de puntaje del cliente
+            SolicitudPuntaje solicitud = SolicitudPuntaje.de(cliente, ContextoEvaluacion.de(cliente, reloj));
+            EvaluadorRiesgo evaluador = calculoRiesgo.seleccionarEvaluador(solicitud);
+            etapa = registrarEtapa(Etapa.SELECCION_EVALUADOR, etapa);
+            log.debug("Evaluador seleccionado: {}", evaluador.getClass().getSimpleName());
             
             // 4. Realizar la evaluación
-            System.out.println("4. Iniciando evaluación...");
-            ResultadoEvaluacion resultado = evaluador.evaluar(cliente);
-            System.out.println("✅ Evaluación completada:");
-            System.out.println("   - Nivel: " + resultado.getNivelRiesgo());
-            System.out.println("   - Puntaje: " + resultado.getPuntaje());
-            System.out.println("   - Aprobado: " + resultado.isAprobado());
+            ResultadoEvaluacion resultado = calculoRiesgo.puntuar(evaluador, solicitud);
+            etapa = registrarEtapa(Etapa.PUNTAJE, etapa);
+            log.debug("Puntaje calculado: nivel={}, puntaje={}, aprobado={}",
+                resultado.getNivelRiesgo(), resultado.getPuntaje(), resultado.isAprobado());
             
             // 5. Guardar en el historial
-            System.out.println("5. Guardando historial...");
-            HistorialEvaluacion historial = HistorialEvaluacion.fromResultado(
-                cliente.getId(), 
-                cliente.getTipoCliente(), 
-                resultado,
-                cliente.getIngresos(),
-                cliente.getTotalDeudas()
-            );
-            historialRepository.save(historial);
-            System.out.println("✅ Historial guardado");
+            guardarHistorial(crearHistorial(cliente, resultado));
+            entityManager.flush();
+            estadisticas.registrar(cliente.getTipoCliente(), resultado);
+            registrarEtapa(Etapa.PERSISTENCIA_HISTORIAL, etapa);
+            log.debug("Historial guardado para cliente id={}", cliente.getId());
             
             // 6. Retornar respuesta
-            System.out.println("6. Creando respuesta...");
-            EvaluacionResponseDTO response = EvaluacionResponseDTO.fromEvaluacion(
-                cliente.getId(),
-                cliente.getNombre(),
-                cliente.getDocumento(),
-                cliente.getTipoCliente(),
-                resultado,
-                cliente.getIngresos(),
-                cliente.getTotalDeudas(),
-                cliente.getMontoSolicitado(),
-                cliente.getPlazoEnMeses(),
-                cliente.getPuntajeCrediticio()
-            );
-            System.out.println("✅ Respuesta creada exitosamente");
-            System.out.println("=== FIN EVALUACIÓN ===");
-            
+            EvaluacionResponseDTO response = crearRespuesta(cliente, resultado);
+            registrarEvaluacion(cliente, evaluador, resultado, System.nanoTime() - inicio, false);
             return response;
             
         } catch (IllegalArgumentException e) {
-            System.err.println("❌ Error de validación: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Solicitud rechazada por validación: {}", e.getMessage());
             throw e;
         } catch (Exception e) {
-            System.err.println("❌ ERROR INTERNO EN EVALUACIÓN: " + e.getMessage());
-            System.err.println("Tipo de excepción: " + e.getClass().getName());
-            e.printStackTrace();
+            log.error("Error interno al evaluar documento={}",
+                request != null ? request.getDocumento() : null, e);
             throw new RuntimeException("Error al procesar la evaluación", e);
         }
     }
     
-    private void validarRequest(EvaluacionRequestDTO request) {
-        if (request.getNombre() == null || request.getNombre().trim().isEmpty()) {
-            throw new IllegalArgumentException("El nombre es obligatorio");
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public EvaluacionResponseDTO simular(EvaluacionRequestDTO request) {
+        calculoRiesgo.validar(request);
+        
+        // Se puntúa directamente sobre la solicitud, sin entidades: no se consulta el documento
+        // ni se guarda cliente, historial ni estadísticas
+        SolicitudPuntaje solicitud = calculoRiesgo.crearSolicitud(request, LocalDateTime.now(reloj));
+        EvaluadorRiesgo evaluador = calculoRiesgo.seleccionarEvaluador(solicitud);
+        ResultadoEvaluacion resultado = calculoRiesgo.puntuar(evaluador, solicitud);
+        log.debug("Simulación: tipo={}, nivel={}, puntaje={}",
+            solicitud.tipoCliente(), resultado.getNivelRiesgo(), resultado.getPuntaje());
+        return EvaluacionResponseDTO.fromEvaluacion(
+            null,
+            request.getNombre(),
+            request.getDocumento(),
+            solicitud.tipoCliente(),
+            resultado,
+            solicitud.ingresos(),
+            solicitud.totalDeudas(),
+            solicitud.montoSolicitado(),
+            solicitud.plazoEnMeses(),
+            solicitud.puntajeCrediticio()
+        );
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResultadoEvaluacion puntuar(SolicitudPuntaje solicitud) {
+        return calculoRiesgo.puntuar(calculoRiesgo.seleccionarEvaluador(solicitud), solicitud);
+    }
+    
+    // Registra la etapa que empezó en desdeNanos y devuelve el instante en que empieza la siguiente
+    private long registrarEtapa(Etapa etapa, long desdeNanos) {
+        long ahora = System.nanoTime();
+        metricas.registrarEtapa(etapa, false, ahora - desdeNanos);
+        return ahora;
+    }
+    
+    // Un único evento estructurado por evaluación; el detalle paso a paso queda en DEBUG
+    private void registrarEvaluacion(Cliente cliente, EvaluadorRiesgo evaluador, ResultadoEvaluacion resultado,
+                                     long duracionNanos, boolean lote) {
+        metricas.registrarResultado(cliente.getTipoCliente(), evaluador, resultado,
+            cliente.getResumenDeudas().getCantidad());
+        if (!lote) {
+            metricas.registrarEtapa(Etapa.TOTAL, false, duracionNanos);
+        }
+        log.atInfo()
+            .addKeyValue("clienteId", cliente.getId())
+            .addKeyValue("tipoCliente", cliente.getTipoCliente())
+            .addKeyValue("evaluador", evaluador.getClass().getSimpleName())
+            .addKeyValue("nivelRiesgo", resultado.getNivelRiesgo())
+            .addKeyValue("puntaje", resultado.getPuntaje())
+            .addKeyValue("aprobado", resultado.isAprobado())
+            .addKeyValue("lote", lote)
+            .addKeyValue("duracionMs", TimeUnit.NANOSECONDS.toMicros(duracionNanos) / 1000.0)
+            .log("Evaluación completada");
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public EvaluacionLoteResponseDTO evaluarLote(List<EvaluacionRequestDTO> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("El lote debe contener al menos una solicitud");
+        }
+        if (requests.size() > maximoSolicitudesLote) {
+            throw new IllegalArgumentException("El lote no puede superar " + maximoSolicitudesLote + " solicitudes");
         }
         
-        if (request.getDocumento() == null || request.getDocumento().trim().isEmpty()) {
-            throw new IllegalArgumentException("El documento es obligatorio");
+        List<EvaluacionLoteResponseDTO.ResultadoItemDTO> resultados = new ArrayList<>(requests.size());
+        for (int inicio = 0; inicio < requests.size(); inicio += tamanoBloqueLote) {
+            int fin = Math.min(inicio + tamanoBloqueLote, requests.size());
+            resultados.addAll(procesarBloque(requests, inicio, fin));
         }
+        return EvaluacionLoteResponseDTO.fromResultados(resultados);
+    }
+    
+    // Procesa un bloque del lote en una sola transacción; si la escritura falla
+    // se reintenta cada solicitud por separado para aislar el registro defectuoso
+    private List<EvaluacionLoteResponseDTO.ResultadoItemDTO> procesarBloque(List<EvaluacionRequestDTO> requests,
+                                                                           int inicio, int fin) {
+        EvaluacionLoteResponseDTO.ResultadoItemDTO[] resultados =
+            new EvaluacionLoteResponseDTO.ResultadoItemDTO[fin - inicio];
+        List<Integer> indicesValidos = new ArrayList<>();
+        Set<String> documentosBloque = new HashSet<>();
         
-        if (request.getIngresos() == null || request.getIngresos().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Los ingresos son obligatorios y deben ser mayor a 0");
+        for (int i = inicio; i < fin; i++) {
+            EvaluacionRequestDTO request = requests.get(i);
+            try {
+                calculoRiesgo.validar(request);
+                if (!documentosBloque.add(request.getDocumento())) {
+                    throw new IllegalArgumentException("Documento duplicado dentro del lote");
+                }
+                indicesValidos.add(i);
+            } catch (IllegalArgumentException e) {
+                String documento = request != null ? request.getDocumento() : null;
+                resultados[i - inicio] = EvaluacionLoteResponseDTO.ResultadoItemDTO.fallo(i, documento, e.getMessage());
+            }
         }
         
-        if (request.getTipoCliente() == null || 
-            (!request.getTipoCliente().equals("NATURAL") && !request.getTipoCliente().equals("JURIDICA"))) {
-            throw new IllegalArgumentException("Tipo de cliente debe ser NATURAL o JURIDICA");
+        if (indicesValidos.isEmpty()) {
+            return List.of(resultados);
         }
         
-        // Validar monto solicitado
-        if (request.getMontoSolicitado() == null || request.getMontoSolicitado().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("El monto solicitado es obligatorio y debe ser mayor a 0");
+        try {
+            BloqueEvaluado bloque = transactionTemplate.execute(
+                status -> guardarYEvaluarBloque(seleccionarSolicitudes(requests, indicesValidos)));
+            publicar(bloque);
+            for (int j = 0; j < indicesValidos.size(); j++) {
+                int indice = indicesValidos.get(j);
+                resultados[indice - inicio] = EvaluacionLoteResponseDTO.ResultadoItemDTO.exito(
+                    indice, bloque.evaluaciones().get(j).respuesta());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Bloque [{}, {}) rechazado, reintentando individualmente: {}", inicio, fin, e.getMessage());
+            for (int indice : indicesValidos) {
+                resultados[indice - inicio] = procesarIndividual(requests, indice);
+            }
         }
         
-        // Validar plazo
-        if (request.getPlazoEnMeses() == null || request.getPlazoEnMeses() <= 0) {
-            throw new IllegalArgumentException("El plazo en meses es obligatorio y debe ser mayor a 0");
+        return List.of(resultados);
+    }
+    
+    private EvaluacionLoteResponseDTO.ResultadoItemDTO procesarIndividual(List<EvaluacionRequestDTO> requests, int indice) {
+        try {
+            // Se reconstruye el cliente: las entidades del intento fallido ya no son reutilizables
+            BloqueEvaluado bloque = transactionTemplate.execute(
+                status -> guardarYEvaluarBloque(List.of(requests.get(indice))));
+            publicar(bloque);
+            return EvaluacionLoteResponseDTO.ResultadoItemDTO.exito(indice, bloque.evaluaciones().get(0).respuesta());
+        } catch (IllegalArgumentException e) {
+            return EvaluacionLoteResponseDTO.ResultadoItemDTO.fallo(indice, requests.get(indice).getDocumento(), e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Error al procesar la solicitud {} del lote", indice, e);
+            return EvaluacionLoteResponseDTO.ResultadoItemDTO.fallo(
+                indice, requests.get(indice).getDocumento(), "Error al procesar la evaluación");
         }
+    }
+    
+    private List<EvaluacionRequestDTO> seleccionarSolicitudes(List<EvaluacionRequestDTO> requests, List<Integer> indices) {
+        List<EvaluacionRequestDTO> seleccionadas = new ArrayList<>(indices.size());
+        for (int indice : indices) {
+            seleccionadas.add(requests.get(indice));
+        }
+        return seleccionadas;
+    }
+    
+    // Métricas y log de cada evaluación de un bloque ya confirmado; si el bloque se revierte no se
+    // publica nada y el reintento individual no las cuenta dos veces
+    private void publicar(BloqueEvaluado bloque) {
+        metricas.registrarEtapa(Etapa.PERSISTENCIA_CLIENTE, true, bloque.persistenciaClienteNanos());
+        for (EvaluacionBloque evaluacion : bloque.evaluaciones()) {
+            metricas.registrarEtapa(Etapa.SELECCION_EVALUADOR, true, evaluacion.seleccionNanos());
+            metricas.registrarEtapa(Etapa.PUNTAJE, true, evaluacion.puntajeNanos());
+            registrarEvaluacion(evaluacion.cliente(), evaluacion.evaluador(), evaluacion.resultado(),
+                evaluacion.seleccionNanos() + evaluacion.puntajeNanos(), true);
+        }
+        metricas.registrarEtapa(Etapa.PERSISTENCIA_HISTORIAL, true, bloque.persistenciaHistorialNanos());
+    }
+    
+    private BloqueEvaluado guardarYEvaluarBloque(List<EvaluacionRequestDTO> solicitudes) {
+        // El tamaño de lote JDBC de la sesión sigue al tamaño de bloque configurado
+        entityManager.unwrap(Session.class).setJdbcBatchSize(tamanoBloqueLote);
         
-        // Validaciones específicas por tipo
-        if ("NATURAL".equals(request.getTipoCliente())) {
-            if (request.getFechaNacimiento() == null && request.getEdad() == null) {
-                throw new IllegalArgumentException("La fecha de nacimiento o edad es obligatoria para personas naturales");
+        // Una sola consulta para los clientes ya registrados del bloque (con sus deudas)
+        long inicioBloque = System.nanoTime();
+        Map<String, Cliente> existentes = new HashMap<>();
+        for (Cliente existente : clienteRepository.findConDeudasByDocumentoIn(
+                solicitudes.stream().map(EvaluacionRequestDTO::getDocumento).toList())) {
+            existentes.put(existente.getDocumento(), existente);
+        }
+        
+        List<Cliente> clientes = new ArrayList<>(solicitudes.size());
+        List<Cliente> nuevos = new ArrayList<>();
+        for (EvaluacionRequestDTO solicitud : solicitudes) {
+            Cliente existente = existentes.get(solicitud.getDocumento());
+            if (existente != null) {
+                actualizarCliente(existente, solicitud);
+                clientes.add(existente);
+            } else {
+                Cliente nuevo = crearCliente(solicitud);
+                nuevos.add(nuevo);
+                clientes.add(nuevo);
             }
         }
+        clienteRepository.saveAll(nuevos);
+        // INSERT y UPDATE de clientes y deudas dentro de su etapa; el flush final queda para el historial
+        entityManager.flush();
+        long persistenciaCliente = System.nanoTime() - inicioBloque;
         
-        if ("JURIDICA".equals(request.getTipoCliente()) && request.getFechaConstitucion() == null) {
-            throw new IllegalArgumentException("La fecha de constitución es obligatoria para personas jurídicas");
+        // Todo el bloque se evalúa con la misma fecha
+        LocalDateTime fechaEvaluacion = LocalDateTime.now(reloj);
+        List<HistorialEvaluacion> historiales = new ArrayList<>(clientes.size());
+        List<EvaluacionBloque> evaluaciones = new ArrayList<>(clientes.size());
+        for (Cliente cliente : clientes) {
+            long inicio = System.nanoTime();
+            SolicitudPuntaje solicitud = SolicitudPuntaje.de(cliente, ContextoEvaluacion.de(cliente, fechaEvaluacion));
+            EvaluadorRiesgo evaluador = calculoRiesgo.seleccionarEvaluador(solicitud);
+            long seleccionado = System.nanoTime();
+            ResultadoEvaluacion resultado = calculoRiesgo.puntuar(evaluador, solicitud);
+            historiales.add(crearHistorial(cliente, resultado));
+            estadisticas.registrar(cliente.getTipoCliente(), resultado);
+            evaluaciones.add(new EvaluacionBloque(cliente, evaluador, resultado, crearRespuesta(cliente, resultado),
+                seleccionado - inicio, System.nanoTime() - seleccionado));
         }
+        long inicioHistorial = System.nanoTime();
+        historialRepository.saveAll(historiales);
         
-        // Validar deudas si existen
-        if (request.getDeudas() != null) {
-            for (EvaluacionRequestDTO.DeudaDTO deuda : request.getDeudas()) {
-                if (deuda.getTipo() == null || deuda.getTipo().trim().isEmpty()) {
-                    throw new IllegalArgumentException("El tipo de deuda es obligatorio");
-                }
-                if (deuda.getMonto() == null || deuda.getMonto().compareTo(BigDecimal.ZERO) <= 0) {
-                    throw new IllegalArgumentException("El monto de la deuda debe ser mayor a 0");
-                }
-                if (deuda.getDiasMora() != null && deuda.getDiasMora() < 0) {
-                    throw new IllegalArgumentException("Los días de mora no pueden ser negativos");
-                }
-            }
+        // Enviar los INSERT pendientes y liberar el contexto de persistencia del bloque
+        entityManager.flush();
+        entityManager.clear();
+        return new BloqueEvaluado(evaluaciones, persistenciaCliente, System.nanoTime() - inicioHistorial);
+    }
+
+    
+    // Con escritura diferida el INSERT sale del camino de la respuesta; si la cola está llena se escribe aquí
+    private void guardarHistorial(HistorialEvaluacion historial) {
+        if (!escrituraDiferida.encolar(historial)) {
+            historialRepository.save(historial);
         }
     }
     
+    private HistorialEvaluacion crearHistorial(Cliente cliente, ResultadoEvaluacion resultado) {
+        return HistorialEvaluacion.fromResultado(
+            cliente.getId(), 
+            cliente.getTipoCliente(), 
+            resultado,
+            cliente.getIngresos(),
+            cliente.getTotalDeudas()
+        );
+    }
+    
+    private EvaluacionResponseDTO crearRespuesta(Cliente cliente, ResultadoEvaluacion resultado) {
+        return EvaluacionResponseDTO.fromEvaluacion(
+            cliente.getId(),
+            cliente.getNombre(),
+            cliente.getDocumento(),
+            cliente.getTipoCliente(),
+            resultado,
+            cliente.getIngresos(),
+            cliente.getTotalDeudas(),
+            cliente.getMontoSolicitado(),
+            cliente.getPlazoEnMeses(),
+            cliente.getPuntajeCrediticio()
+        );
+    }
+    
+    // Inserta el cliente nuevo o actualiza en sitio el ya registrado con el mismo documento
+    private Cliente guardarCliente(EvaluacionRequestDTO request, Cliente existente) {
+        if (existente == null) {
+            return clienteRepository.save(crearCliente(request));
+        }
+        actualizarCliente(existente, request);
+        return existente;
+    }
+    
     private Cliente crearCliente(EvaluacionRequestDTO request) {
-        Cliente cliente;
+        Cliente cliente = "NATURAL".equals(request.getTipoCliente()) ? new PersonaNatural() : new PersonaJuridica();
+        cliente.setDocumento(request.getDocumento());
+        datosSolicitud.aplicarDatos(cliente, request);
         
-        if ("NATURAL".equals(request.getTipoCliente())) {
-            PersonaNatural pn = new PersonaNatural();
-            pn.setFechaNacimiento(request.getFechaNacimiento());
-            pn.setEstadoCivil(request.getEstadoCivil());
-            pn.setNumeroDependientes(request.getNumeroDependientes() != null ? request.getNumeroDependientes() : 0);
-            
-            // Si no hay fecha de nacimiento pero sí edad, usar la edad directamente
-            if (request.getFechaNacimiento() == null && request.getEdad() != null) {
-                // Calcular fecha aproximada basada en la edad
-                pn.setFechaNacimiento(java.time.LocalDate.now().minusYears(request.getEdad()));
+        // Crear deudas
+        List<Deuda> deudas = new ArrayList<>();
+        if (request.getDeudas() != null) {
+            for (EvaluacionRequestDTO.DeudaDTO deudaDTO : request.getDeudas()) {
+                Deuda deuda = crearDeuda(deudaDTO);
+                deuda.setCliente(cliente);
+                deudas.add(deuda);
             }
-            
-            cliente = pn;
-        } else {
-            PersonaJuridica pj = new PersonaJuridica();
-            pj.setFechaConstitucion(request.getFechaConstitucion());
-            pj.setSectorEconomico(request.getSectorEconomico());
-            pj.setNumeroEmpleados(request.getNumeroEmpleados() != null ? request.getNumeroEmpleados() : 1);
-            cliente = pj;
         }
+        cliente.setDeudas(deudas);
         
-        // Datos comunes
-        cliente.setNombre(request.getNombre());
-        cliente.setDocumento(request.getDocumento());
-        cliente.setIngresos(request.getIngresos());
-        cliente.setMontoSolicitado(request.getMontoSolicitado());
-        cliente.setPlazoEnMeses(request.getPlazoEnMeses());
-        cliente.setPuntajeCrediticio(request.getPuntajeCrediticio());
+        return cliente;
+    }
+    
+    // Reevaluación: solo se modifican los campos y las deudas que cambiaron; el resto no genera SQL
+    private void actualizarCliente(Cliente cliente, EvaluacionRequestDTO request) {
+        if (!cliente.getTipoCliente().equals(request.getTipoCliente())) {
+            throw new IllegalArgumentException(
+                "El documento " + request.getDocumento() + " ya está registrado como cliente " + cliente.getTipoCliente());
+        }
+        datosSolicitud.aplicarDatos(cliente, request);
+        sincronizarDeudas(cliente, request.getDeudas());
+    }
+    
+    // Aplica el diff de DatosSolicitud#compararDeudas; las bajas se borran por orphanRemoval
+    private void sincronizarDeudas(Cliente cliente, List<EvaluacionRequestDTO.DeudaDTO> solicitadas) {
+        List<Deuda> actuales = cliente.getDeudas();
+        if (actuales == null) {
+            actuales = new ArrayList<>();
+            cliente.setDeudas(actuales);
+        }
         
-        // Crear deudas
-        if (request.getDeudas() != null && !request.getDeudas().isEmpty()) {
-            List<Deuda> deudas = request.getDeudas().stream()
-                .map(this::crearDeuda)
-                .collect(Collectors.toList());
-            deudas.forEach(deuda -> deuda.setCliente(cliente));
-            cliente.setDeudas(deudas);
-        } else {
-            cliente.setDeudas(List.of()); // Lista vacía si no tiene deudas
+        DatosSolicitud.CambiosDeudas<Deuda> cambios = datosSolicitud.compararDeudas(actuales,
+            deuda -> DatosSolicitud.LineaDeuda.de(deuda.getTipo(), deuda.getMonto(), deuda.getFechaVencimiento(),
+                deuda.getDiasMora(), deuda.getPlazoMeses()),
+            solicitadas);
+        for (DatosSolicitud.Actualizacion<Deuda> actualizacion : cambios.actualizaciones()) {
+            Deuda deuda = actualizacion.deuda();
+            EvaluacionRequestDTO.DeudaDTO dto = actualizacion.solicitada();
+            deuda.setMonto(dto.getMonto());
+            deuda.setDiasMora(DatosSolicitud.diasMora(dto));
+            deuda.setPlazoMeses(dto.getPlazoMeses());
         }
         
-        return cliente;
+        // Se borra por identidad: equals/hashCode de las entidades recorren la relación bidireccional
+        Set<Deuda> bajas = Collections.newSetFromMap(new IdentityHashMap<>());
+        bajas.addAll(cambios.bajas());
+        actuales.removeIf(bajas::contains);
+        for (EvaluacionRequestDTO.DeudaDTO dto : cambios.altas()) {
+            Deuda deuda = crearDeuda(dto);
+            deuda.setCliente(cliente);
+            actuales.add(deuda);
+        }
+        cliente.recalcularResumenDeudas();
     }
     
     private Deuda crearDeuda(EvaluacionRequestDTO.DeudaDTO deudaDTO) {
@@ -219,64 +460,110 @@ public class EvaluacionServiceImpl implements EvaluacionService {
         deuda.setTipo(deudaDTO.getTipo());
         deuda.setMonto(deudaDTO.getMonto());
         deuda.setFechaVencimiento(deudaDTO.getFechaVencimiento());
-        deuda.setDiasMora(deudaDTO.getDiasMora() != null ? deudaDTO.getDiasMora() : 0);
+        deuda.setDiasMora(DatosSolicitud.diasMora(deudaDTO));
         deuda.setPlazoMeses(deudaDTO.getPlazoMeses());
         return deuda;
     }
     
-    private EvaluadorRiesgo seleccionarEvaluador(Cliente cliente) {
-        BigDecimal ratioDeuda = calcularRatioDeuda(cliente);
-        boolean tieneMoras = cliente.getDeudas() != null && 
-            cliente.getDeudas().stream().anyMatch(d -> d.isEnMora());
-        
-        // Lógica de selección del evaluador
-        if (tieneMoras || ratioDeuda.compareTo(new BigDecimal("0.6")) > 0) {
-            return evaluadorAlto;
-        } else if (ratioDeuda.compareTo(new BigDecimal("0.4")) > 0) {
-            return evaluadorMedio;
-        } else {
-            return evaluadorBajo;
-        }
+    // ... resto de métodos del servicio (obtenerHistorial, etc.)
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaDTO<HistorialEvaluacionDTO> obtenerHistorial(ConsultaPaginaDTO consulta) {
+        consulta.validar(tamanoMaximoPagina);
+        Slice<HistorialEvaluacionDTO> pagina = consulta.usaCursor()
+            ? historialRepository.findAntesDe(consulta.getCursorFecha(), consulta.getCursorId(), porCursor(consulta))
+            : historialRepository.findAllBy(porPagina(consulta));
+        return crearPagina(pagina, consulta);
     }
     
-    private BigDecimal calcularRatioDeuda(Cliente cliente) {
-        if (cliente.getIngresos().compareTo(BigDecimal.ZERO) == 0) {
-            return BigDecimal.ONE;
-        }
-        return cliente.getTotalDeudas()
-            .divide(cliente.getIngresos(), 4, BigDecimal.ROUND_HALF_UP);
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaDTO<HistorialEvaluacionDTO> obtenerHistorialPorCliente(Long clienteId, ConsultaPaginaDTO consulta) {
+        consulta.validar(tamanoMaximoPagina);
+        Slice<HistorialEvaluacionDTO> pagina = consulta.usaCursor()
+            ? historialRepository.findByClienteIdAntesDe(
+                clienteId, consulta.getCursorFecha(), consulta.getCursorId(), porCursor(consulta))
+            : historialRepository.findByClienteIdOrderByFechaEvaluacionDesc(clienteId, porPagina(consulta));
+        return crearPagina(pagina, consulta);
     }
     
-    // ... resto de métodos del servicio (obtenerHistorial, etc.)
     @Override
     @Transactional(readOnly = true)
-    public List<HistorialEvaluacionDTO> obtenerHistorial() {
-        return historialRepository.findAll().stream()
-            .map(HistorialEvaluacionDTO::fromEntity)
-            .collect(Collectors.toList());
+    public PaginaDTO<HistorialEvaluacionDTO> obtenerHistorialPorNivelRiesgo(String nivelRiesgo, ConsultaPaginaDTO consulta) {
+        consulta.validar(tamanoMaximoPagina);
+        Slice<HistorialEvaluacionDTO> pagina = consulta.usaCursor()
+            ? historialRepository.findByNivelRiesgoAntesDe(
+                nivelRiesgo, consulta.getCursorFecha(), consulta.getCursorId(), porCursor(consulta))
+            : historialRepository.findByNivelRiesgoOrderByFechaEvaluacionDesc(nivelRiesgo, porPagina(consulta));
+        return crearPagina(pagina, consulta);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<HistorialEvaluacionDTO> obtenerHistorialPorCliente(Long clienteId) {
-        return historialRepository.findByClienteIdOrderByFechaEvaluacionDesc(clienteId).stream()
-            .map(HistorialEvaluacionDTO::fromEntity)
-            .collect(Collectors.toList());
+    public PaginaDTO<HistorialEvaluacionDTO> obtenerHistorialPorFechas(LocalDateTime inicio, LocalDateTime fin,
+                                                                       ConsultaPaginaDTO consulta) {
+        consulta.validar(tamanoMaximoPagina);
+        Slice<HistorialEvaluacionDTO> pagina = consulta.usaCursor()
+            ? historialRepository.findByFechaEvaluacionBetweenAntesDe(
+                inicio, fin, consulta.getCursorFecha(), consulta.getCursorId(), porCursor(consulta))
+            : historialRepository.findByFechaEvaluacionBetween(inicio, fin, porPagina(consulta));
+        return crearPagina(pagina, consulta);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<HistorialEvaluacionDTO> obtenerHistorialPorNivelRiesgo(String nivelRiesgo) {
-        return historialRepository.findByNivelRiesgoOrderByFechaEvaluacionDesc(nivelRiesgo).stream()
-            .map(HistorialEvaluacionDTO::fromEntity)
-            .collect(Collectors.toList());
+    public Optional<HistorialEvaluacionDTO> obtenerEvaluacion(Long id) {
+        return historialRepository.findById(id).map(HistorialEvaluacionDTO::fromEntity);
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<HistorialEvaluacionDTO> obtenerHistorialPorFechas(LocalDateTime inicio, LocalDateTime fin) {
-        return historialRepository.findByFechaEvaluacionBetween(inicio, fin).stream()
-            .map(HistorialEvaluacionDTO::fromEntity)
-            .collect(Collectors.toList());
+    public void exportarHistorial(Consumer<HistorialEvaluacionDTO> consumidor) {
+        try (Stream<HistorialEvaluacion> historial = historialRepository.streamAll()) {
+            historial.forEach(h -> {
+                consumidor.accept(HistorialEvaluacionDTO.fromEntity(h));
+                // Sin desvincular, el contexto de persistencia retendría todas las filas leídas
+                entityManager.detach(h);
+            });
+        }
+    }
+    
+    private Pageable porPagina(ConsultaPaginaDTO consulta) {
+        return PageRequest.of(consulta.getPagina(), consulta.getTamano(), ORDEN_HISTORIAL);
+    }
+    
+    private Pageable porCursor(ConsultaPaginaDTO consulta) {
+        // El orden (fechaEvaluacion, id) ya está en la consulta por cursor
+        return PageRequest.of(0, consulta.getTamano());
+    }
+    
+    private PaginaDTO<HistorialEvaluacionDTO> crearPagina(Slice<HistorialEvaluacionDTO> slice, ConsultaPaginaDTO consulta) {
+        List<HistorialEvaluacionDTO> contenido = slice.getContent();
+        
+        LocalDateTime siguienteFecha = null;
+        Long siguienteId = null;
+        if (slice.hasNext() && !contenido.isEmpty()) {
+            HistorialEvaluacionDTO ultimo = contenido.get(contenido.size() - 1);
+            siguienteFecha = ultimo.getFechaEvaluacion();
+            siguienteId = ultimo.getId();
+        }
+        
+        return new PaginaDTO<>(
+            contenido,
+            consulta.usaCursor() ? null : consulta.getPagina(),
+            consulta.getTamano(),
+            slice.hasNext(),
+            siguienteFecha,
+            siguienteId
+        );
+    }
+    
+    // Lo que un bloque deja para publicar tras el COMMIT: tiempos de sus etapas y cada evaluación
+    private record BloqueEvaluado(List<EvaluacionBloque> evaluaciones, long persistenciaClienteNanos,
+                                  long persistenciaHistorialNanos) {
+    }
+    
+    private record EvaluacionBloque(Cliente cliente, EvaluadorRiesgo evaluador, ResultadoEvaluacion resultado,
+                                    EvaluacionResponseDTO respuesta, long seleccionNanos, long puntajeNanos) {
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,10 @@
 package com.riesgo.evaluador.service;
 
 import com.riesgo.evaluador.model.Cliente;
-import com.riesgo.evaluador.model.PersonaNatural;
-import com.riesgo.evaluador.model.PersonaJuridica;
+import com.riesgo.evaluador.model.ContextoEvaluacion;
 import com.riesgo.evaluador.model.ResultadoEvaluacion;
+import com.riesgo.evaluador.model.SectorEconomico;
+import com.riesgo.evaluador.model.SolicitudPuntaje;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -12,15 +13,19 @@ import java.math.RoundingMode;
 @Component
 public abstract class EvaluadorRiesgo {
     
+    public final ResultadoEvaluacion evaluar(Cliente cliente, ContextoEvaluacion contexto) {
+        return evaluar(SolicitudPuntaje.de(cliente, contexto));
+    }
+    
     // Método template que define el flujo de evaluación
-    public final ResultadoEvaluacion evaluar(Cliente cliente) {
-        BigDecimal puntaje = calcularPuntajeFinal(cliente);
+    public final ResultadoEvaluacion evaluar(SolicitudPuntaje solicitud) {
+        BigDecimal puntaje = calcularPuntajeFinal(solicitud);
         String nivelRiesgo = determinarNivelRiesgo(puntaje);
         boolean aprobado = determinarAprobacion(puntaje);
-        String observaciones = generarObservaciones(cliente, puntaje);
-        BigDecimal montoMaximo = calcularMontoMaximo(cliente, puntaje);
+        String observaciones = generarObservaciones(solicitud, puntaje);
+        BigDecimal montoMaximo = calcularMontoMaximo(solicitud, puntaje);
         BigDecimal tasaInteres = calcularTasaInteres(nivelRiesgo);
-        Integer plazoAprobado = calcularPlazoAprobado(cliente, nivelRiesgo);
+        Integer plazoAprobado = calcularPlazoAprobado(solicitud, nivelRiesgo);
         String mensaje = generarMensaje(aprobado, nivelRiesgo);
         
         return ResultadoEvaluacion.crear(
@@ -31,43 +36,44 @@ public abstract class EvaluadorRiesgo {
             montoMaximo,
             tasaInteres,
             plazoAprobado,
-            mensaje
+            mensaje,
+            solicitud.fechaEvaluacion()
         );
     }
     
     // Método principal para calcular el puntaje final con las nuevas reglas
-    private BigDecimal calcularPuntajeFinal(Cliente cliente) {
+    private BigDecimal calcularPuntajeFinal(SolicitudPuntaje solicitud) {
         BigDecimal puntaje = new BigDecimal("100"); // Puntaje base de 100
         
         // 1. Penalización por puntaje crediticio
-        if (cliente.getPuntajeCrediticio() != null && cliente.getPuntajeCrediticio() < 650) {
+        if (solicitud.puntajeCrediticio() != null && solicitud.puntajeCrediticio() < 650) {
             puntaje = puntaje.subtract(new BigDecimal("30"));
         }
         
         // 2. Penalización por deudas según tipo de cliente
-        if (cliente instanceof PersonaNatural) {
+        if (solicitud.esNatural()) {
             // Deudas > 40% del ingreso mensual
-            if (cliente.getRatioDeudaIngreso().compareTo(new BigDecimal("0.40")) > 0) {
+            if (solicitud.ratioDeudaIngreso().compareTo(new BigDecimal("0.40")) > 0) {
                 puntaje = puntaje.subtract(new BigDecimal("15"));
             }
             
             // Monto solicitado > 50% del ingreso mensual
-            if (cliente.getMontoSolicitado() != null && 
-                cliente.getRatioMontoSolicitadoIngreso().compareTo(new BigDecimal("0.50")) > 0) {
+            if (solicitud.montoSolicitado() != null && 
+                solicitud.ratioMontoSolicitadoIngreso().compareTo(new BigDecimal("0.50")) > 0) {
                 puntaje = puntaje.subtract(new BigDecimal("10"));
             }
-        } else if (cliente instanceof PersonaJuridica) {
+        } else if (solicitud.esJuridica()) {
             // Para jurídicas, calculamos sobre ingreso anual
-            BigDecimal ingresoAnual = cliente.getIngresos().multiply(new BigDecimal("12"));
+            BigDecimal ingresoAnual = solicitud.ingresos().multiply(new BigDecimal("12"));
             
             // Evitar división por cero
             if (ingresoAnual.compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal ratioDeudaAnual = cliente.getTotalDeudas()
+                BigDecimal ratioDeudaAnual = solicitud.totalDeudas()
                     .divide(ingresoAnual, 4, RoundingMode.HALF_UP);
                 
                 BigDecimal ratioMontoAnual = BigDecimal.ZERO;
-                if (cliente.getMontoSolicitado() != null) {
-                    ratioMontoAnual = cliente.getMontoSolicitado()
+                if (solicitud.montoSolicitado() != null) {
+                    ratioMontoAnual = solicitud.montoSolicitado()
                         .divide(ingresoAnual, 4, RoundingMode.HALF_UP);
                 }
                 
@@ -84,7 +90,7 @@ public abstract class EvaluadorRiesgo {
         }
         
         // 3. Aplicar penalizaciones adicionales específicas del evaluador
-        puntaje = aplicarPenalizacionesAdicionales(cliente, puntaje);
+        puntaje = aplicarPenalizacionesAdicionales(solicitud, puntaje);
         
         return puntaje.max(BigDecimal.ZERO); // No puede ser negativo
     }
@@ -120,8 +126,8 @@ public abstract class EvaluadorRiesgo {
     }
     
     // Calcular plazo aprobado
-    private Integer calcularPlazoAprobado(Cliente cliente, String nivelRiesgo) {
-        Integer plazoSolicitado = cliente.getPlazoEnMeses() != null ? cliente.getPlazoEnMeses() : 12;
+    private Integer calcularPlazoAprobado(SolicitudPuntaje solicitud, String nivelRiesgo) {
+        Integer plazoSolicitado = solicitud.plazoEnMeses() != null ? solicitud.plazoEnMeses() : 12;
         
         switch (nivelRiesgo) {
             case "BAJO":
@@ -154,27 +160,39 @@ public abstract class EvaluadorRiesgo {
     }
     
     // Métodos abstractos que implementarán las subclases
-    protected abstract BigDecimal aplicarPenalizacionesAdicionales(Cliente cliente, BigDecimal puntajeBase);
-    protected abstract BigDecimal calcularMontoMaximo(Cliente cliente, BigDecimal puntaje);
+    protected abstract BigDecimal aplicarPenalizacionesAdicionales(SolicitudPuntaje solicitud, BigDecimal puntajeBase);
+    protected abstract BigDecimal calcularMontoMaximo(SolicitudPuntaje solicitud, BigDecimal puntaje);
     
     // Método común para generar observaciones
-    protected String generarObservaciones(Cliente cliente, BigDecimal puntaje) {
+    protected String generarObservaciones(SolicitudPuntaje solicitud, BigDecimal puntaje) {
         StringBuilder obs = new StringBuilder();
         obs.append("Puntaje final: ").append(puntaje).append(". ");
         
-        if (cliente.getPuntajeCrediticio() != null && cliente.getPuntajeCrediticio() < 650) {
+        if (solicitud.puntajeCrediticio() != null && solicitud.puntajeCrediticio() < 650) {
             obs.append("Puntaje crediticio bajo. ");
         }
         
-        BigDecimal ratioDeuda = cliente.getRatioDeudaIngreso();
+        BigDecimal ratioDeuda = solicitud.ratioDeudaIngreso();
         if (ratioDeuda.compareTo(new BigDecimal("0.4")) > 0) {
             obs.append("Alto nivel de endeudamiento. ");
         }
         
-        if (cliente.getDeudas() != null && cliente.getDeudas().stream().anyMatch(d -> d.isEnMora())) {
+        if (solicitud.tieneMora()) {
             obs.append("Presenta deudas en mora. ");
         }
         
         return obs.toString();
     }
+    
+    // Ajuste por sector del nivel (índice: ordinal), tomado de las reglas incluidas en la aplicación;
+    // no sigue al archivo configurado ni a /reglas/recargar
+    static BigDecimal[] ajustesSector(String nivel) {
+        PlanEvaluacion plan = ReglasEvaluacion.cargarPorDefecto();
+        SectorEconomico[] sectores = SectorEconomico.values();
+        BigDecimal[] ajustes = new BigDecimal[sectores.length];
+        for (SectorEconomico sector : sectores) {
+            ajustes[sector.ordinal()] = BigDecimal.valueOf(plan.ajusteSector(nivel, sector));
+        }
+        return ajustes;
+    }
 }
\ No newline at end of file
@@ -1,8 +1,6 @@
 package com.riesgo.evaluador.service;
 
-import com.riesgo.evaluador.model.Cliente;
-import com.riesgo.evaluador.model.PersonaNatural;
-import com.riesgo.evaluador.model.PersonaJuridica;
+import com.riesgo.evaluador.model.SolicitudPuntaje;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -11,29 +9,32 @@ import java.math.RoundingMode;
 @Service
 public class EvaluadorRiesgoBajo extends EvaluadorRiesgo {
 
+    private static final BigDecimal[] AJUSTES_SECTOR = ajustesSector("BAJO");
+
     @Override
-    protected BigDecimal aplicarPenalizacionesAdicionales(Cliente cliente, BigDecimal puntajeBase) {
+    protected BigDecimal aplicarPenalizacionesAdicionales(SolicitudPuntaje solicitud, BigDecimal puntajeBase) {
         BigDecimal puntaje = puntajeBase;
         
         // Bonificaciones para riesgo bajo
-        if (cliente instanceof PersonaNatural pn) {
+        if (solicitud.esNatural()) {
+            int edad = solicitud.edad();
             // Bonificación por edad óptima
-            if (pn.getEdad() >= 25 && pn.getEdad() <= 55) {
+            if (edad >= 25 && edad <= 55) {
                 puntaje = puntaje.add(new BigDecimal("5"));
             }
             // Pequeña penalización por muchos dependientes
-            if (pn.getNumeroDependientes() != null && pn.getNumeroDependientes() > 3) {
+            if (solicitud.numeroDependientes() != null && solicitud.numeroDependientes() > 3) {
                 puntaje = puntaje.subtract(new BigDecimal("3"));
             }
-        } else if (cliente instanceof PersonaJuridica pj) {
+        } else if (solicitud.esJuridica()) {
+            int anosConstitucion = solicitud.anosConstitucion();
             // Bonificación por años de constitución
-            if (pj.getAnosConstitucion() >= 5) {
+            if (anosConstitucion >= 5) {
                 puntaje = puntaje.add(new BigDecimal("10"));
             }
             // Bonificación por sector estable
-            if ("TECNOLOGIA".equals(pj.getSectorEconomico()) || 
-                "SERVICIOS".equals(pj.getSectorEconomico())) {
-                puntaje = puntaje.add(new BigDecimal("5"));
+            if (solicitud.sector() != null) {
+                puntaje = puntaje.add(AJUSTES_SECTOR[solicitud.sector().ordinal()]);
             }
         }
         
@@ -41,8 +42,8 @@ public class EvaluadorRiesgoBajo extends EvaluadorRiesgo {
     }
 
     @Override
-    protected BigDecimal calcularMontoMaximo(Cliente cliente, BigDecimal puntaje) {
-        BigDecimal ingresos = cliente.getIngresos();
+    protected BigDecimal calcularMontoMaximo(SolicitudPuntaje solicitud, BigDecimal puntaje) {
+        BigDecimal ingresos = solicitud.ingresos();
         BigDecimal multiplicador = new BigDecimal("5"); // 5 veces los ingresos para riesgo bajo
         
         // Multiplicador adicional por puntaje alto
@@ -1,8 +1,6 @@
 package com.riesgo.evaluador.service;
 
-import com.riesgo.evaluador.model.Cliente;
-import com.riesgo.evaluador.model.PersonaNatural;
-import com.riesgo.evaluador.model.PersonaJuridica;
+import com.riesgo.evaluador.model.SolicitudPuntaje;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -11,38 +9,41 @@ import java.math.RoundingMode;
 @Service
 public class EvaluadorRiesgoMedio extends EvaluadorRiesgo {
 
+    private static final BigDecimal[] AJUSTES_SECTOR = ajustesSector("MEDIO");
+
     @Override
-    protected BigDecimal aplicarPenalizacionesAdicionales(Cliente cliente, BigDecimal puntajeBase) {
+    protected BigDecimal aplicarPenalizacionesAdicionales(SolicitudPuntaje solicitud, BigDecimal puntajeBase) {
         BigDecimal puntaje = puntajeBase;
         
         // Penalizaciones adicionales para riesgo medio
-        if (cliente instanceof PersonaNatural pn) {
+        if (solicitud.esNatural()) {
+            int edad = solicitud.edad();
             // Penalización por edad de riesgo
-            if (pn.getEdad() < 22 || pn.getEdad() > 60) {
+            if (edad < 22 || edad > 60) {
                 puntaje = puntaje.subtract(new BigDecimal("5"));
             }
             // Penalización por muchos dependientes
-            if (pn.getNumeroDependientes() != null && pn.getNumeroDependientes() > 2) {
+            if (solicitud.numeroDependientes() != null && solicitud.numeroDependientes() > 2) {
                 puntaje = puntaje.subtract(new BigDecimal("5"));
             }
             // Pequeña bonificación por estabilidad
-            if (pn.getEdad() >= 30 && pn.getEdad() <= 50 && 
-                (pn.getNumeroDependientes() == null || pn.getNumeroDependientes() <= 2)) {
+            if (edad >= 30 && edad <= 50 && 
+                (solicitud.numeroDependientes() == null || solicitud.numeroDependientes() <= 2)) {
                 puntaje = puntaje.add(new BigDecimal("3"));
             }
-        } else if (cliente instanceof PersonaJuridica pj) {
+        } else if (solicitud.esJuridica()) {
+            int anosConstitucion = solicitud.anosConstitucion();
             // Penalización por pocos años de constitución
-            if (pj.getAnosConstitucion() < 3) {
+            if (anosConstitucion < 3) {
                 puntaje = puntaje.subtract(new BigDecimal("8"));
             }
             // Pequeña bonificación por experiencia
-            if (pj.getAnosConstitucion() >= 7) {
+            if (anosConstitucion >= 7) {
                 puntaje = puntaje.add(new BigDecimal("5"));
             }
             // Penalización por sectores volátiles
-            if ("CONSTRUCCION".equals(pj.getSectorEconomico()) || 
-                "TURISMO".equals(pj.getSectorEconomico())) {
-                puntaje = puntaje.subtract(new BigDecimal("3"));
+            if (solicitud.sector() != null) {
+                puntaje = puntaje.add(AJUSTES_SECTOR[solicitud.sector().ordinal()]);
             }
         }
         
@@ -50,8 +51,8 @@ public class EvaluadorRiesgoMedio extends EvaluadorRiesgo {
     }
 
     @Override
-    protected BigDecimal calcularMontoMaximo(Cliente cliente, BigDecimal puntaje) {
-        BigDecimal ingresos = cliente.getIngresos();
+    protected BigDecimal calcularMontoMaximo(SolicitudPuntaje solicitud, BigDecimal puntaje) {
+        BigDecimal ingresos = solicitud.ingresos();
         BigDecimal multiplicador = new BigDecimal("3"); // 3 veces los ingresos para riesgo medio
         
         // Ajuste por puntaje
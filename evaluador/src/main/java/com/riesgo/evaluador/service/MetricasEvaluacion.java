@@ -0,0 +1,70 @@
+package com.riesgo.evaluador.service;
+
+import com.riesgo.evaluador.model.ResultadoEvaluacion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas Micrometer del flujo de evaluación, publicadas en /actuator/prometheus.
+ *
+ * evaluacion.etapa: duración de cada etapa (etapa, lote). En /evaluar/lote la persistencia
+ * de clientes e historial se mide por bloque y el resto por solicitud.
+ * evaluacion.resultados: evaluaciones por nivelRiesgo, tipoCliente, evaluador y aprobado.
+ * evaluacion.deudas: líneas de deuda por solicitud.
+ * Los histogramas y percentiles se configuran en management.metrics.distribution.
+ */
+@Component
+public class MetricasEvaluacion {
+
+    public enum Etapa {
+        VALIDACION, PERSISTENCIA_CLIENTE, SELECCION_EVALUADOR, PUNTAJE, PERSISTENCIA_HISTORIAL, TOTAL
+    }
+
+    private final MeterRegistry registry;
+    // Temporizadores creados al arrancar: [etapa][individual = 0, lote = 1]
+    private final Timer[][] etapas = new Timer[Etapa.values().length][2];
+    private final DistributionSummary deudasPorSolicitud;
+    private final ConcurrentHashMap<String, Counter> resultados = new ConcurrentHashMap<>();
+
+    public MetricasEvaluacion(MeterRegistry registry) {
+        this.registry = registry;
+        for (Etapa etapa : Etapa.values()) {
+            for (int lote = 0; lote < 2; lote++) {
+                etapas[etapa.ordinal()][lote] = Timer.builder("evaluacion.etapa")
+                    .description("Duración de cada etapa de la evaluación")
+                    .tag("etapa", etapa.name().toLowerCase(Locale.ROOT))
+                    .tag("lote", Boolean.toString(lote == 1))
+                    .register(registry);
+            }
+        }
+        this.deudasPorSolicitud = DistributionSummary.builder("evaluacion.deudas")
+            .description("Líneas de deuda por solicitud evaluada")
+            .baseUnit("deudas")
+            .register(registry);
+    }
+
+    public void registrarEtapa(Etapa etapa, boolean lote, long duracionNanos) {
+        etapas[etapa.ordinal()][lote ? 1 : 0].record(duracionNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void registrarResultado(String tipoCliente, EvaluadorRiesgo evaluador, ResultadoEvaluacion resultado,
+                                   int cantidadDeudas) {
+        String nombreEvaluador = evaluador.getClass().getSimpleName();
+        String clave = resultado.getNivelRiesgo() + '|' + tipoCliente + '|' + nombreEvaluador + '|' + resultado.isAprobado();
+        resultados.computeIfAbsent(clave, k -> Counter.builder("evaluacion.resultados")
+            .description("Evaluaciones completadas")
+            .tag("nivelRiesgo", resultado.getNivelRiesgo())
+            .tag("tipoCliente", tipoCliente)
+            .tag("evaluador", nombreEvaluador)
+            .tag("aprobado", Boolean.toString(resultado.isAprobado()))
+            .register(registry)).increment();
+        deudasPorSolicitud.record(cantidadDeudas);
+    }
+}
@@ -0,0 +1,228 @@
+package com.riesgo.evaluador.service;
+
+import com.riesgo.evaluador.model.Cliente;
+import com.riesgo.evaluador.model.ContextoEvaluacion;
+import com.riesgo.evaluador.model.ResultadoEvaluacion;
+import com.riesgo.evaluador.model.SectorEconomico;
+import com.riesgo.evaluador.model.SolicitudPuntaje;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.function.Supplier;
+
+/**
+ * Motor de puntaje que ejecuta las reglas de riesgo compiladas ({@link PlanEvaluacion}) en aritmética
+ * de punto fijo: montos en centavos (long) y umbrales ya escalados en el plan. Con las reglas incluidas
+ * reproduce exactamente {@link EvaluadorRiesgo#evaluar(SolicitudPuntaje)}; cuando un monto no
+ * cabe en la representación escalada se aplican las mismas reglas en BigDecimal.
+ */
+@Component
+public class MotorPuntajeEscalado {
+
+    static final int NIVEL_BAJO = 0;
+    static final int NIVEL_MEDIO = 1;
+    static final int NIVEL_ALTO = 2;
+
+    // Montos de hasta 10 dígitos enteros (1e12 centavos): los productos cruzados caben en un long
+    private static final long LIMITE_CENTAVOS = 1_000_000_000_000L;
+    private static final long NO_REPRESENTABLE = Long.MIN_VALUE;
+
+    // Los ratios se redondean a 4 decimales (HALF_UP) antes de compararse, ver PlanEvaluacion#factorUmbral
+    private static final long ESCALA_RATIO = 20_000L;
+
+    private static final String[] NIVELES = {"BAJO", "MEDIO", "ALTO"};
+    private static final String[] MENSAJES = {
+        "Cliente apto para préstamo con condiciones preferenciales",
+        "Cliente apto para préstamo con condiciones ajustadas",
+        "Cliente apto para préstamo con condiciones restrictivas"
+    };
+    private static final String MENSAJE_RECHAZO = "Cliente no apto para préstamo";
+
+    // Puntajes y observaciones precalculados: el puntaje es entero y acotado
+    private static final int PUNTAJE_TABLA_MAXIMO = 255;
+    private static final int OBS_CREDITICIO = 1;
+    private static final int OBS_ENDEUDAMIENTO = 2;
+    private static final int OBS_MORA = 4;
+    private static final BigDecimal[] PUNTAJES = new BigDecimal[PUNTAJE_TABLA_MAXIMO + 1];
+    private static final String[][] OBSERVACIONES = new String[PUNTAJE_TABLA_MAXIMO + 1][8];
+
+    static {
+        for (int p = 0; p <= PUNTAJE_TABLA_MAXIMO; p++) {
+            PUNTAJES[p] = BigDecimal.valueOf(p);
+            for (int marcas = 0; marcas < 8; marcas++) {
+                OBSERVACIONES[p][marcas] = construirObservaciones(p, marcas);
+            }
+        }
+    }
+
+    private final Supplier<PlanEvaluacion> planes;
+
+    @Autowired
+    public MotorPuntajeEscalado(ReglasEvaluacion reglas) {
+        this.planes = reglas::actual;
+    }
+
+    // Motor con las reglas incluidas en la aplicación (pruebas y benchmarks)
+    public MotorPuntajeEscalado() {
+        PlanEvaluacion plan = ReglasEvaluacion.cargarPorDefecto();
+        this.planes = () -> plan;
+    }
+
+    // Plan vigente; en el motor escalado también fija los ratios con los que CalculoRiesgo elige el evaluador
+    public PlanEvaluacion planVigente() {
+        return planes.get();
+    }
+
+    public ResultadoEvaluacion evaluar(Cliente cliente, EvaluadorRiesgo evaluador, ContextoEvaluacion contexto) {
+        return evaluar(SolicitudPuntaje.de(cliente, contexto), evaluador);
+    }
+
+    public ResultadoEvaluacion evaluar(SolicitudPuntaje solicitud, EvaluadorRiesgo evaluador) {
+        int nivelEvaluador = nivelEvaluador(evaluador);
+        boolean natural = solicitud.esNatural();
+        if (nivelEvaluador < 0 || (!natural && !solicitud.esJuridica())) {
+            // Evaluadores o tipos de cliente sin reglas en el plan
+            return evaluador.evaluar(solicitud);
+        }
+        BigDecimal ingresosCliente = solicitud.ingresos();
+        if (ingresosCliente == null || ingresosCliente.signum() <= 0) {
+            throw new IllegalArgumentException("Los ingresos son obligatorios y deben ser mayor a 0");
+        }
+        if (natural && solicitud.edad() == null) {
+            throw new IllegalArgumentException("La edad es obligatoria para personas naturales");
+        }
+
+        // Un único plan por evaluación, aunque se recargue mientras tanto
+        PlanEvaluacion plan = planes.get();
+        int tipo = natural ? PlanEvaluacion.TIPO_NATURAL : PlanEvaluacion.TIPO_JURIDICA;
+        BigDecimal totalDeudasCliente = solicitud.totalDeudas();
+        int deudasMora = solicitud.deudasEnMora();
+
+        Integer puntajeCrediticio = solicitud.puntajeCrediticio();
+        boolean crediticioBajo = puntajeCrediticio != null && puntajeCrediticio < plan.puntajeCrediticioMinimo;
+
+        long ingresos = centavos(ingresosCliente);
+        long totalDeudas = centavos(totalDeudasCliente);
+        boolean tieneMonto = solicitud.montoSolicitado() != null;
+        long montoSolicitado = tieneMonto ? centavos(solicitud.montoSolicitado()) : 0;
+        boolean escalado = ingresos != NO_REPRESENTABLE && montoSolicitado != NO_REPRESENTABLE
+            && totalDeudas != NO_REPRESENTABLE && Math.abs(totalDeudas) <= LIMITE_CENTAVOS;
+
+        boolean superaDeuda;
+        boolean superaMonto;
+        boolean endeudado;
+        if (escalado) {
+            superaDeuda = superaRatio(totalDeudas, ingresos, plan.factorDeuda[tipo]);
+            superaMonto = tieneMonto && superaRatio(montoSolicitado, ingresos, plan.factorMonto[tipo]);
+            endeudado = superaRatio(totalDeudas, ingresos, plan.factorEndeudamiento);
+        } else {
+            BigDecimal base = ingresosCliente.multiply(BigDecimal.valueOf(plan.divisorIngreso[tipo]));
+            superaDeuda = superaRatio(totalDeudasCliente, base, plan.umbralDeuda[tipo]);
+            superaMonto = tieneMonto && superaRatio(solicitud.montoSolicitado(), base, plan.umbralMonto[tipo]);
+            endeudado = superaRatio(totalDeudasCliente, ingresosCliente, plan.umbralEndeudamiento);
+        }
+
+        int puntaje = plan.puntajeBase;
+        if (crediticioBajo) {
+            puntaje -= plan.penalizacionCrediticio;
+        }
+        if (superaDeuda) {
+            puntaje -= plan.penalizacionDeuda[tipo];
+        }
+        if (superaMonto) {
+            puntaje -= plan.penalizacionMonto[tipo];
+        }
+
+        PlanEvaluacion.Ajustes ajustes = plan.ajustes[nivelEvaluador][tipo];
+        if (natural) {
+            // Los dependientes nulos se comportan como cualquier valor negativo en todas las reglas
+            int dependientes = solicitud.numeroDependientes() != null ? solicitud.numeroDependientes() : -1;
+            puntaje += ajustes.aplicar(solicitud.edad(), dependientes, 0, 0, -1);
+        } else {
+            int empleados = solicitud.numeroEmpleados() != null ? solicitud.numeroEmpleados() : Integer.MAX_VALUE;
+            int anosConstitucion = solicitud.anosConstitucion() != null ? solicitud.anosConstitucion() : 0;
+            SectorEconomico sector = solicitud.sector();
+            puntaje += ajustes.aplicar(0, 0, anosConstitucion, empleados, sector != null ? sector.ordinal() : -1);
+        }
+
+        puntaje -= deudasMora * plan.penalizacionPorMora[nivelEvaluador];
+        puntaje = Math.max(puntaje, 0);
+
+        int nivelRiesgo = puntaje >= plan.nivelBajoDesde ? NIVEL_BAJO
+            : puntaje >= plan.aprobacionDesde ? NIVEL_MEDIO : NIVEL_ALTO;
+        boolean aprobado = puntaje >= plan.aprobacionDesde;
+
+        int marcas = (crediticioBajo ? OBS_CREDITICIO : 0)
+            | (endeudado ? OBS_ENDEUDAMIENTO : 0)
+            | (deudasMora > 0 ? OBS_MORA : 0);
+
+        int plazoSolicitado = solicitud.plazoEnMeses() != null ? solicitud.plazoEnMeses() : 12;
+
+        int tramo = tramoMontoMaximo(plan.tramoDesde[nivelEvaluador], puntaje);
+        BigDecimal montoMaximo = escalado
+            ? BigDecimal.valueOf((ingresos * plan.tramoMultiplicador[nivelEvaluador][tramo] + 50) / 100, 2)
+            : ingresosCliente.multiply(plan.tramoMultiplicadorDecimal[nivelEvaluador][tramo])
+                .setScale(2, RoundingMode.HALF_UP);
+
+        return ResultadoEvaluacion.crear(
+            NIVELES[nivelRiesgo],
+            puntaje <= PUNTAJE_TABLA_MAXIMO ? PUNTAJES[puntaje] : BigDecimal.valueOf(puntaje),
+            puntaje <= PUNTAJE_TABLA_MAXIMO ? OBSERVACIONES[puntaje][marcas] : construirObservaciones(puntaje, marcas),
+            aprobado,
+            montoMaximo,
+            plan.tasas[nivelRiesgo],
+            Math.min(plazoSolicitado, plan.plazosMaximos[nivelRiesgo]),
+            aprobado ? MENSAJES[nivelRiesgo] : MENSAJE_RECHAZO,
+            solicitud.fechaEvaluacion()
+        );
+    }
+
+    // Primer tramo cuyo "desde" alcanza el puntaje; el último tramo es incondicional
+    private static int tramoMontoMaximo(int[] desde, int puntaje) {
+        int tramo = 0;
+        while (puntaje < desde[tramo]) {
+            tramo++;
+        }
+        return tramo;
+    }
+
+    private static boolean superaRatio(long numerador, long ingresos, long factorUmbral) {
+        return numerador * ESCALA_RATIO >= factorUmbral * ingresos;
+    }
+
+    private static boolean superaRatio(BigDecimal numerador, BigDecimal base, BigDecimal umbral) {
+        return numerador.divide(base, 4, RoundingMode.HALF_UP).compareTo(umbral) > 0;
+    }
+
+    private static int nivelEvaluador(EvaluadorRiesgo evaluador) {
+        if (evaluador instanceof EvaluadorRiesgoBajo) return NIVEL_BAJO;
+        if (evaluador instanceof EvaluadorRiesgoMedio) return NIVEL_MEDIO;
+        if (evaluador instanceof EvaluadorRiesgoAlto) return NIVEL_ALTO;
+        return -1;
+    }
+
+    // Convierte un monto a centavos, o NO_REPRESENTABLE si tiene más de 2 decimales o excede el límite
+    private static long centavos(BigDecimal monto) {
+        if (monto == null || monto.scale() > 2 || monto.precision() - monto.scale() > 10) {
+            return NO_REPRESENTABLE;
+        }
+        return monto.movePointRight(2).longValue();
+    }
+
+    private static String construirObservaciones(int puntaje, int marcas) {
+        StringBuilder obs = new StringBuilder();
+        obs.append("Puntaje final: ").append(puntaje).append(". ");
+        if ((marcas & OBS_CREDITICIO) != 0) {
+            obs.append("Puntaje crediticio bajo. ");
+        }
+        if ((marcas & OBS_ENDEUDAMIENTO) != 0) {
+            obs.append("Alto nivel de endeudamiento. ");
+        }
+        if ((marcas & OBS_MORA) != 0) {
+            obs.append("Presenta deudas en mora. ");
+        }
+        return obs.toString();
+    }
+}
@@ -0,0 +1,355 @@
+package com.riesgo.evaluador.service;
+
+import com.riesgo.evaluador.model.SectorEconomico;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reglas de riesgo compiladas: umbrales ya escalados a enteros y ajustes de cada evaluador
+ * aplanados en arrays paralelos, de modo que el motor evalúa comparaciones primitivas sin
+ * recorrer objetos. Es inmutable; una recarga produce un plan nuevo que se publica de forma atómica.
+ */
+@Getter
+public final class PlanEvaluacion {
+
+    static final int TIPO_NATURAL = 0;
+    static final int TIPO_JURIDICA = 1;
+
+    static final int CAMPO_EDAD = 0;
+    static final int CAMPO_DEPENDIENTES = 1;
+    static final int CAMPO_ANOS_CONSTITUCION = 2;
+    static final int CAMPO_EMPLEADOS = 3;
+    static final int CAMPO_SECTOR = 4;
+
+    private static final String[] CAMPOS = {"EDAD", "DEPENDIENTES", "ANOS_CONSTITUCION", "EMPLEADOS", "SECTOR"};
+    private static final String[] NIVELES = {"BAJO", "MEDIO", "ALTO"};
+    private static final String[] TIPOS = {"NATURAL", "JURIDICA"};
+    private static final BigDecimal UMBRAL_MAXIMO = BigDecimal.TEN;
+    private static final BigDecimal MULTIPLICADOR_MAXIMO = BigDecimal.valueOf(100);
+
+    static {
+        // Las listas de sectores se compilan como máscara de bits sobre el ordinal
+        if (SectorEconomico.values().length > Long.SIZE) {
+            throw new IllegalStateException("El catálogo de sectores no cabe en una máscara de 64 bits");
+        }
+    }
+
+    private final String version;
+    private final String origen;
+    private final LocalDateTime fechaCarga;
+
+    // Escalares globales
+    final int puntajeBase;
+    final int puntajeCrediticioMinimo;
+    final int penalizacionCrediticio;
+    final int nivelBajoDesde;
+    final int aprobacionDesde;
+    final long factorEndeudamiento;
+    final BigDecimal umbralEndeudamiento;
+
+    // Selección del evaluador por ratio deuda / ingreso a 4 decimales: > alto o con mora, ALTO; > medio, MEDIO
+    final BigDecimal ratioEvaluadorMedio;
+    final BigDecimal ratioEvaluadorAlto;
+
+    // Por nivel de riesgo resultante (BAJO, MEDIO, ALTO)
+    final BigDecimal[] tasas = new BigDecimal[3];
+    final int[] plazosMaximos = new int[3];
+
+    // Por tipo de cliente (NATURAL, JURIDICA)
+    final int[] divisorIngreso = new int[2];
+    final long[] factorDeuda = new long[2];
+    final long[] factorMonto = new long[2];
+    final BigDecimal[] umbralDeuda = new BigDecimal[2];
+    final BigDecimal[] umbralMonto = new BigDecimal[2];
+    final int[] penalizacionDeuda = new int[2];
+    final int[] penalizacionMonto = new int[2];
+
+    // Por evaluador (BAJO, MEDIO, ALTO) y, en ajustes, por tipo de cliente
+    final int[] penalizacionPorMora = new int[3];
+    final Ajustes[][] ajustes = new Ajustes[3][2];
+    final int[][] tramoDesde = new int[3][];
+    final int[][] tramoMultiplicador = new int[3][];
+    final BigDecimal[][] tramoMultiplicadorDecimal = new BigDecimal[3][];
+
+    private PlanEvaluacion(ReglasRiesgo reglas, String origen) {
+        this.version = requerido(reglas.getVersion(), "version");
+        this.origen = origen;
+        this.fechaCarga = LocalDateTime.now();
+
+        this.puntajeBase = reglas.getPuntajeBase();
+        ReglasRiesgo.PuntajeCrediticio crediticio = requerido(reglas.getPuntajeCrediticio(), "puntajeCrediticio");
+        this.puntajeCrediticioMinimo = crediticio.getMinimo();
+        this.penalizacionCrediticio = crediticio.getPenalizacion();
+        this.nivelBajoDesde = reglas.getNivelBajoDesde();
+        this.aprobacionDesde = reglas.getAprobacionDesde();
+        if (aprobacionDesde > nivelBajoDesde) {
+            throw new IllegalArgumentException("aprobacionDesde no puede superar a nivelBajoDesde");
+        }
+        this.umbralEndeudamiento = validarUmbral(reglas.getUmbralEndeudamiento(), "umbralEndeudamiento");
+        this.factorEndeudamiento = factorUmbral(umbralEndeudamiento, 1);
+
+        ReglasRiesgo.SeleccionEvaluador seleccion = requerido(reglas.getSeleccionEvaluador(), "seleccionEvaluador");
+        this.ratioEvaluadorMedio = validarUmbral(seleccion.getRatioMedio(), "seleccionEvaluador.ratioMedio");
+        this.ratioEvaluadorAlto = validarUmbral(seleccion.getRatioAlto(), "seleccionEvaluador.ratioAlto");
+        if (ratioEvaluadorMedio.compareTo(ratioEvaluadorAlto) > 0) {
+            throw new IllegalArgumentException("seleccionEvaluador.ratioMedio no puede superar a ratioAlto");
+        }
+
+        for (int nivel = 0; nivel < 3; nivel++) {
+            tasas[nivel] = requerido(reglas.getTasas().get(NIVELES[nivel]), "tasas." + NIVELES[nivel]);
+            Integer plazo = reglas.getPlazosMaximos().get(NIVELES[nivel]);
+            plazosMaximos[nivel] = plazo != null ? plazo : Integer.MAX_VALUE;
+        }
+
+        for (int tipo = 0; tipo < 2; tipo++) {
+            String clave = "ratios." + TIPOS[tipo];
+            ReglasRiesgo.RatiosTipo ratios = requerido(reglas.getRatios().get(TIPOS[tipo]), clave);
+            if (ratios.getDivisorIngreso() < 1 || ratios.getDivisorIngreso() > 12) {
+                throw new IllegalArgumentException(clave + ".divisorIngreso debe estar entre 1 y 12");
+            }
+            divisorIngreso[tipo] = ratios.getDivisorIngreso();
+            ReglasRiesgo.Umbral deuda = requerido(ratios.getDeuda(), clave + ".deuda");
+            ReglasRiesgo.Umbral monto = requerido(ratios.getMonto(), clave + ".monto");
+            umbralDeuda[tipo] = validarUmbral(deuda.getUmbral(), clave + ".deuda.umbral");
+            umbralMonto[tipo] = validarUmbral(monto.getUmbral(), clave + ".monto.umbral");
+            factorDeuda[tipo] = factorUmbral(umbralDeuda[tipo], divisorIngreso[tipo]);
+            factorMonto[tipo] = factorUmbral(umbralMonto[tipo], divisorIngreso[tipo]);
+            penalizacionDeuda[tipo] = deuda.getPenalizacion();
+            penalizacionMonto[tipo] = monto.getPenalizacion();
+        }
+
+        for (int nivel = 0; nivel < 3; nivel++) {
+            String clave = "evaluadores." + NIVELES[nivel];
+            ReglasRiesgo.ReglasEvaluador evaluador = requerido(reglas.getEvaluadores().get(NIVELES[nivel]), clave);
+            penalizacionPorMora[nivel] = evaluador.getPenalizacionPorMora();
+            ajustes[nivel][TIPO_NATURAL] = compilarAjustes(evaluador.getNatural(), TIPO_NATURAL, clave + ".natural");
+            ajustes[nivel][TIPO_JURIDICA] = compilarAjustes(evaluador.getJuridica(), TIPO_JURIDICA, clave + ".juridica");
+            compilarTramos(nivel, evaluador.getMontoMaximo(), clave + ".montoMaximo");
+        }
+    }
+
+    public static PlanEvaluacion compilar(ReglasRiesgo reglas, String origen) {
+        return new PlanEvaluacion(reglas, origen);
+    }
+
+    /**
+     * Puntos que el evaluador del nivel (BAJO, MEDIO, ALTO) suma a una persona jurídica solo por su
+     * sector: reglas cuyas condiciones son todas de SECTOR e incluyen al sector. Las reglas que combinan
+     * el sector con otros campos dependen del cliente y no se cuentan.
+     */
+    public int ajusteSector(String nivel, SectorEconomico sector) {
+        Ajustes reglas = ajustes[indiceNivel(nivel)][TIPO_JURIDICA];
+        int total = 0;
+        for (int r = 0; r < reglas.ajuste.length; r++) {
+            boolean soloSector = true;
+            for (int c = reglas.inicio[r]; c < reglas.inicio[r + 1]; c++) {
+                soloSector &= reglas.campo[c] == CAMPO_SECTOR && ((reglas.mascara[c] >>> sector.ordinal()) & 1L) != 0;
+            }
+            if (soloSector) {
+                total += reglas.ajuste[r];
+            }
+        }
+        return total;
+    }
+
+    private static int indiceNivel(String nivel) {
+        for (int i = 0; i < NIVELES.length; i++) {
+            if (NIVELES[i].equals(nivel)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Nivel de riesgo desconocido '" + nivel + "'");
+    }
+
+    private Ajustes compilarAjustes(List<ReglasRiesgo.Regla> reglas, int tipo, String clave) {
+        int totalCondiciones = 0;
+        for (ReglasRiesgo.Regla regla : reglas) {
+            totalCondiciones += regla.getCuando().size();
+        }
+
+        Ajustes compilados = new Ajustes(reglas.size(), totalCondiciones);
+        int c = 0;
+        for (int r = 0; r < reglas.size(); r++) {
+            ReglasRiesgo.Regla regla = reglas.get(r);
+            String claveRegla = clave + "[" + r + "]";
+            if (regla.getCuando().isEmpty()) {
+                throw new IllegalArgumentException(claveRegla + " debe tener al menos una condición");
+            }
+            compilados.inicio[r] = c;
+            compilados.ajuste[r] = regla.getAjuste();
+            for (ReglasRiesgo.Condicion condicion : regla.getCuando()) {
+                compilarCondicion(condicion, tipo, compilados, c++, claveRegla);
+            }
+        }
+        compilados.inicio[reglas.size()] = c;
+        return compilados;
+    }
+
+    // Toda condición numérica se reduce a un rango [minimo, maximo], opcionalmente negado
+    private void compilarCondicion(ReglasRiesgo.Condicion condicion, int tipo, Ajustes destino, int c, String clave) {
+        int campo = campo(condicion.getCampo(), clave);
+        if ((campo <= CAMPO_DEPENDIENTES) != (tipo == TIPO_NATURAL)) {
+            throw new IllegalArgumentException(clave + ": el campo " + CAMPOS[campo] + " no aplica a clientes " + TIPOS[tipo]);
+        }
+        destino.campo[c] = campo;
+
+        int operadores = (condicion.getMenorQue() != null ? 1 : 0) + (condicion.getMayorQue() != null ? 1 : 0)
+            + (condicion.getMinimo() != null ? 1 : 0) + (condicion.getMaximo() != null ? 1 : 0)
+            + (condicion.getEntre() != null ? 1 : 0) + (condicion.getFuera() != null ? 1 : 0)
+            + (condicion.getEn() != null ? 1 : 0);
+        if (operadores != 1) {
+            throw new IllegalArgumentException(clave + ": cada condición debe tener exactamente un operador");
+        }
+
+        if (campo == CAMPO_SECTOR) {
+            if (condicion.getEn() == null) {
+                throw new IllegalArgumentException(clave + ": SECTOR solo admite el operador 'en'");
+            }
+            long mascara = 0;
+            for (String nombre : condicion.getEn()) {
+                SectorEconomico sector = SectorEconomico.buscar(nombre);
+                if (sector == null) {
+                    throw new IllegalArgumentException(clave + ": sector desconocido '" + nombre + "'");
+                }
+                mascara |= 1L << sector.ordinal();
+            }
+            destino.mascara[c] = mascara;
+            return;
+        }
+        if (condicion.getEn() != null) {
+            throw new IllegalArgumentException(clave + ": el operador 'en' solo aplica a SECTOR");
+        }
+
+        int minimo = Integer.MIN_VALUE;
+        int maximo = Integer.MAX_VALUE;
+        boolean negada = false;
+        if (condicion.getMenorQue() != null) {
+            maximo = condicion.getMenorQue() - 1;
+        } else if (condicion.getMayorQue() != null) {
+            minimo = condicion.getMayorQue() + 1;
+        } else if (condicion.getMinimo() != null) {
+            minimo = condicion.getMinimo();
+        } else if (condicion.getMaximo() != null) {
+            maximo = condicion.getMaximo();
+        } else {
+            List<Integer> rango = condicion.getEntre() != null ? condicion.getEntre() : condicion.getFuera();
+            if (rango.size() != 2 || rango.get(0) > rango.get(1)) {
+                throw new IllegalArgumentException(clave + ": 'entre' y 'fuera' requieren [desde, hasta] ordenados");
+            }
+            minimo = rango.get(0);
+            maximo = rango.get(1);
+            negada = condicion.getFuera() != null;
+        }
+        destino.minimo[c] = minimo;
+        destino.maximo[c] = maximo;
+        destino.negada[c] = negada;
+    }
+
+    private void compilarTramos(int nivel, List<ReglasRiesgo.TramoMonto> tramos, String clave) {
+        if (tramos.isEmpty() || tramos.get(tramos.size() - 1).getDesde() != null) {
+            throw new IllegalArgumentException(clave + " debe terminar en un tramo sin 'desde'");
+        }
+        tramoDesde[nivel] = new int[tramos.size()];
+        tramoMultiplicador[nivel] = new int[tramos.size()];
+        tramoMultiplicadorDecimal[nivel] = new BigDecimal[tramos.size()];
+        for (int t = 0; t < tramos.size(); t++) {
+            ReglasRiesgo.TramoMonto tramo = tramos.get(t);
+            if (t < tramos.size() - 1 && tramo.getDesde() == null) {
+                throw new IllegalArgumentException(clave + "[" + t + "] requiere 'desde'");
+            }
+            BigDecimal multiplicador = requerido(tramo.getMultiplicador(), clave + "[" + t + "].multiplicador");
+            if (multiplicador.signum() < 0 || multiplicador.compareTo(MULTIPLICADOR_MAXIMO) > 0
+                    || multiplicador.stripTrailingZeros().scale() > 2) {
+                throw new IllegalArgumentException(clave + "[" + t + "].multiplicador debe estar entre 0 y 100 con hasta 2 decimales");
+            }
+            tramoDesde[nivel][t] = tramo.getDesde() != null ? tramo.getDesde() : Integer.MIN_VALUE;
+            tramoMultiplicador[nivel][t] = multiplicador.movePointRight(2).intValueExact();
+            tramoMultiplicadorDecimal[nivel][t] = multiplicador;
+        }
+    }
+
+    private static int campo(String nombre, String clave) {
+        for (int i = 0; i < CAMPOS.length; i++) {
+            if (CAMPOS[i].equals(nombre)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(clave + ": campo desconocido '" + nombre + "'");
+    }
+
+    // Los umbrales se comparan tras redondear el ratio a 4 decimales
+    private static BigDecimal validarUmbral(BigDecimal umbral, String clave) {
+        requerido(umbral, clave);
+        if (umbral.signum() < 0 || umbral.compareTo(UMBRAL_MAXIMO) > 0 || umbral.stripTrailingZeros().scale() > 4) {
+            throw new IllegalArgumentException(clave + " debe estar entre 0 y 10 con hasta 4 decimales");
+        }
+        return umbral;
+    }
+
+    // round4(a / (b * divisor)) > t  <=>  a * 20000 >= (2 * t * 10000 + 1) * divisor * b   (b > 0)
+    private static long factorUmbral(BigDecimal umbral, int divisorIngreso) {
+        long puntosBasicos = umbral.movePointRight(4).longValueExact();
+        return (2 * puntosBasicos + 1) * divisorIngreso;
+    }
+
+    private static <T> T requerido(T valor, String clave) {
+        if (valor == null) {
+            throw new IllegalArgumentException("Falta '" + clave + "' en las reglas");
+        }
+        return valor;
+    }
+
+    /**
+     * Ajustes de un evaluador para un tipo de cliente. La regla r abarca las condiciones
+     * [inicio[r], inicio[r + 1]) y suma ajuste[r] cuando se cumplen todas.
+     */
+    static final class Ajustes {
+
+        final int[] inicio;
+        final int[] ajuste;
+        final int[] campo;
+        final int[] minimo;
+        final int[] maximo;
+        final boolean[] negada;
+        final long[] mascara;
+
+        private Ajustes(int reglas, int condiciones) {
+            inicio = new int[reglas + 1];
+            ajuste = new int[reglas];
+            campo = new int[condiciones];
+            minimo = new int[condiciones];
+            maximo = new int[condiciones];
+            negada = new boolean[condiciones];
+            mascara = new long[condiciones];
+        }
+
+        int aplicar(int edad, int dependientes, int anosConstitucion, int empleados, int sector) {
+            int total = 0;
+            for (int r = 0, n = ajuste.length; r < n; r++) {
+                boolean cumple = true;
+                for (int c = inicio[r], fin = inicio[r + 1]; c < fin; c++) {
+                    boolean condicion;
+                    if (campo[c] == CAMPO_SECTOR) {
+                        condicion = sector >= 0 && ((mascara[c] >>> sector) & 1L) != 0;
+                    } else {
+                        int valor = switch (campo[c]) {
+                            case CAMPO_EDAD -> edad;
+                            case CAMPO_DEPENDIENTES -> dependientes;
+                            case CAMPO_ANOS_CONSTITUCION -> anosConstitucion;
+                            default -> empleados;
+                        };
+                        condicion = (valor >= minimo[c] & valor <= maximo[c]) != negada[c];
+                    }
+                    cumple &= condicion;
+                }
+                if (cumple) {
+                    total += ajuste[r];
+                }
+            }
+            return total;
+        }
+    }
+}
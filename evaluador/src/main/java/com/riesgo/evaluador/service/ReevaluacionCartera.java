@@ -0,0 +1,442 @@
+package com.riesgo.evaluador.service;
+
+import com.riesgo.evaluador.dto.EstadoReevaluacionDTO;
+import com.riesgo.evaluador.model.Cliente;
+import com.riesgo.evaluador.model.ContextoEvaluacion;
+import com.riesgo.evaluador.model.HistorialEvaluacion;
+import com.riesgo.evaluador.model.Reevaluacion;
+import com.riesgo.evaluador.model.ResultadoEvaluacion;
+import com.riesgo.evaluador.model.SolicitudPuntaje;
+import com.riesgo.evaluador.repository.ClienteRepository;
+import com.riesgo.evaluador.repository.HistorialRepository;
+import com.riesgo.evaluador.repository.ReevaluacionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reevaluación de toda la cartera con las reglas vigentes, para comparar cada cliente con su
+ * última evaluación cuando cambia la política de riesgo.
+ *
+ * Los clientes se recorren por id en páginas de tamano-pagina: una consulta de ids por clave y
+ * otra con fetch join de las deudas. Mientras una página se puntúa en paralelo (ForkJoinPool) y su
+ * historial se inserta en lote, un hilo virtual ya lee la siguiente; en memoria nunca hay más de dos
+ * páginas. El punto de control (Reevaluacion) avanza en la misma transacción que el historial de
+ * cada página, así que una ejecución detenida o caída se reanuda sin duplicar registros.
+ */
+@Slf4j
+@Component
+public class ReevaluacionCartera {
+
+    private static final Duration ESPERA_CIERRE = Duration.ofSeconds(30);
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private HistorialRepository historialRepository;
+
+    @Autowired
+    private ReevaluacionRepository reevaluacionRepository;
+
+    @Autowired
+    private EvaluacionService evaluacionService;
+
+    @Autowired
+    private ReglasEvaluacion reglasEvaluacion;
+
+    @Autowired
+    private EstadisticasEvaluacion estadisticas;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Clock reloj;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${evaluacion.motor:escalado}")
+    private String motor;
+
+    @Value("${evaluacion.reevaluacion.tamano-pagina:500}")
+    private int tamanoPagina;
+
+    // Hilos de puntaje; 0 usa un hilo por núcleo
+    @Value("${evaluacion.reevaluacion.paralelismo:0}")
+    private int paralelismo;
+
+    @Value("${evaluacion.reevaluacion.intervalo-progreso:PT30S}")
+    private Duration intervaloProgreso;
+
+    private final AtomicReference<Ejecucion> enCurso = new AtomicReference<>();
+    private TransactionTemplate lectura;
+
+    @PostConstruct
+    public void inicializar() {
+        lectura = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        lectura.setReadOnly(true);
+    }
+
+    /**
+     * Reanuda la última reevaluación sin terminar o, si no hay ninguna, inicia una nueva.
+     * Con nueva = true la pendiente se cancela y se empieza desde el primer cliente.
+     * Lanza IllegalStateException si ya hay una en ejecución o si las reglas cambiaron desde
+     * que empezó la pendiente.
+     */
+    public EstadoReevaluacionDTO iniciar(boolean nueva) {
+        Ejecucion ejecucion = new Ejecucion();
+        if (!enCurso.compareAndSet(null, ejecucion)) {
+            throw new IllegalStateException("Ya hay una reevaluación en ejecución");
+        }
+        try {
+            ejecucion.arrancar(transactionTemplate.execute(status -> preparar(nueva)));
+        } catch (RuntimeException e) {
+            enCurso.set(null);
+            throw e;
+        }
+        Thread hilo = new Thread(() -> ejecutar(ejecucion), "reevaluacion-cartera");
+        hilo.setDaemon(true);
+        ejecucion.hilo = hilo;
+        hilo.start();
+        return ejecucion.estado();
+    }
+
+    // La ejecución termina tras la página en curso y queda DETENIDA, lista para reanudarse
+    public EstadoReevaluacionDTO detener() {
+        Ejecucion ejecucion = enCurso.get();
+        if (ejecucion == null) {
+            throw new IllegalStateException("No hay ninguna reevaluación en ejecución");
+        }
+        // Mientras se prepara no se marca: el 409 no debe dejar una parada pendiente que el cliente no ve
+        EstadoReevaluacionDTO estado = ejecucion.estado();
+        if (estado == null) {
+            throw new IllegalStateException("La reevaluación todavía se está preparando");
+        }
+        ejecucion.detener = true;
+        return estado;
+    }
+
+    public Optional<EstadoReevaluacionDTO> obtenerEstado() {
+        Ejecucion ejecucion = enCurso.get();
+        EstadoReevaluacionDTO estado = ejecucion != null ? ejecucion.estado() : null;
+        if (estado != null) {
+            return Optional.of(estado);
+        }
+        return reevaluacionRepository.findFirstByOrderByIdDesc()
+            .map(reevaluacion -> EstadoReevaluacionDTO.fromReevaluacion(reevaluacion, false, null));
+    }
+
+    private Reevaluacion preparar(boolean nueva) {
+        PlanEvaluacion plan = reglasEvaluacion.actual();
+        LocalDateTime ahora = LocalDateTime.now(reloj);
+
+        Optional<Reevaluacion> pendiente = reevaluacionRepository.findFirstByOrderByIdDesc()
+            .filter(reevaluacion -> !reevaluacion.isTerminada());
+        if (pendiente.isPresent()) {
+            Reevaluacion reevaluacion = pendiente.get();
+            if (!nueva) {
+                if (!reevaluacion.getVersionReglas().equals(plan.getVersion()) || !reevaluacion.getMotor().equals(motor)) {
+                    throw new IllegalStateException("La reevaluación " + reevaluacion.getId() + " empezó con las reglas "
+                        + reevaluacion.getVersionReglas() + " (motor " + reevaluacion.getMotor()
+                        + "); para usar las vigentes hay que iniciar una nueva");
+                }
+                reevaluacion.setEstado(Reevaluacion.Estado.EN_CURSO);
+                reevaluacion.setMensaje(null);
+                reevaluacion.setFechaActualizacion(ahora);
+                log.info("Reanudando la reevaluación {} desde el cliente {}", reevaluacion.getId(),
+                    reevaluacion.getUltimoClienteId());
+                return reevaluacionRepository.save(reevaluacion);
+            }
+            reevaluacion.setEstado(Reevaluacion.Estado.CANCELADA);
+            reevaluacion.setFechaActualizacion(ahora);
+            reevaluacion.setFechaFin(ahora);
+            reevaluacionRepository.save(reevaluacion);
+        }
+
+        long hasta = clienteRepository.findMaxId().orElse(0L);
+        Reevaluacion reevaluacion = new Reevaluacion();
+        reevaluacion.setEstado(Reevaluacion.Estado.EN_CURSO);
+        reevaluacion.setVersionReglas(plan.getVersion());
+        reevaluacion.setMotor(motor);
+        reevaluacion.setFechaEvaluacion(ahora);
+        reevaluacion.setClienteIdHasta(hasta);
+        reevaluacion.setTotalClientes(clienteRepository.countHasta(hasta));
+        reevaluacion.setUltimoClienteId(0L);
+        reevaluacion.setFechaInicio(ahora);
+        reevaluacion.setFechaActualizacion(ahora);
+        reevaluacion = reevaluacionRepository.save(reevaluacion);
+        log.info("Reevaluación {} iniciada: {} clientes, reglas {}", reevaluacion.getId(),
+            reevaluacion.getTotalClientes(), reevaluacion.getVersionReglas());
+        return reevaluacion;
+    }
+
+    private void ejecutar(Ejecucion ejecucion) {
+        Reevaluacion reevaluacion = ejecucion.reevaluacion;
+        Long id = reevaluacion.getId();
+        long hasta = reevaluacion.getClienteIdHasta();
+        LocalDateTime fechaEvaluacion = reevaluacion.getFechaEvaluacion();
+
+        ForkJoinPool puntaje = new ForkJoinPool(paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors());
+        // La lectura anticipada solo espera a la base: basta un hilo virtual
+        ExecutorService lector = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Pagina pagina = leerPagina(reevaluacion.getUltimoClienteId(), hasta, fechaEvaluacion);
+            while (pagina != null) {
+                if (ejecucion.detener) {
+                    finalizar(ejecucion, Reevaluacion.Estado.DETENIDA, null);
+                    return;
+                }
+                long siguienteDesde = pagina.ultimoId();
+                Future<Pagina> siguiente = lector.submit(() -> leerPagina(siguienteDesde, hasta, fechaEvaluacion));
+                ResultadoEvaluacion[] resultados = puntuar(pagina, puntaje);
+                ejecucion.avanzar(escribirPagina(id, pagina, resultados));
+                registrarProgreso(ejecucion, false);
+                pagina = siguiente.get();
+            }
+            finalizar(ejecucion, Reevaluacion.Estado.COMPLETADA, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finalizar(ejecucion, Reevaluacion.Estado.DETENIDA, "Interrumpida");
+        } catch (Exception e) {
+            Throwable causa = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            log.error("La reevaluación {} falló tras el cliente {}", id, ejecucion.reevaluacion.getUltimoClienteId(), causa);
+            finalizar(ejecucion, Reevaluacion.Estado.FALLIDA, causa.getMessage());
+        } finally {
+            puntaje.shutdownNow();
+            lector.shutdownNow();
+            enCurso.compareAndSet(ejecucion, null);
+        }
+    }
+
+    // Siguiente página tras el cliente desde, o null si ya no quedan
+    private Pagina leerPagina(long desde, long hasta, LocalDateTime fechaEvaluacion) {
+        return lectura.execute(status -> {
+            List<Long> ids = clienteRepository.findIdsEntre(desde, hasta, PageRequest.of(0, tamanoPagina));
+            if (ids.isEmpty()) {
+                return null;
+            }
+            List<Cliente> clientes = clienteRepository.findConDeudasByIdIn(ids);
+            List<ClientePagina> solicitudes = new ArrayList<>(clientes.size());
+            for (Cliente cliente : clientes) {
+                ContextoEvaluacion contexto = ContextoEvaluacion.de(cliente, fechaEvaluacion);
+                solicitudes.add(new ClientePagina(cliente.getId(), SolicitudPuntaje.de(cliente, contexto)));
+            }
+
+            Map<Long, Previa> previas = new HashMap<>(ids.size() * 2);
+            for (Object[] fila : historialRepository.findUltimasByClienteIdIn(ids)) {
+                // Con fechas empatadas se toma el registro de mayor id
+                previas.merge((Long) fila[0], new Previa((Long) fila[1], (String) fila[2], (Boolean) fila[3]),
+                    (a, b) -> a.id() >= b.id() ? a : b);
+            }
+            return new Pagina(ids.get(ids.size() - 1), solicitudes, previas);
+        });
+    }
+
+    // Reparte la página en un tramo por hilo; un cliente que no puede puntuarse cuenta como error
+    private ResultadoEvaluacion[] puntuar(Pagina pagina, ForkJoinPool puntaje)
+            throws InterruptedException, ExecutionException {
+        List<ClientePagina> clientes = pagina.clientes();
+        ResultadoEvaluacion[] resultados = new ResultadoEvaluacion[clientes.size()];
+        int tramos = Math.max(1, Math.min(puntaje.getParallelism(), clientes.size()));
+        List<Callable<Void>> tareas = new ArrayList<>(tramos);
+        for (int t = 0; t < tramos; t++) {
+            int inicio = t * clientes.size() / tramos;
+            int fin = (t + 1) * clientes.size() / tramos;
+            tareas.add(() -> {
+                for (int i = inicio; i < fin; i++) {
+                    ClientePagina cliente = clientes.get(i);
+                    try {
+                        resultados[i] = evaluacionService.puntuar(cliente.solicitud());
+                    } catch (RuntimeException e) {
+                        log.warn("No se pudo reevaluar el cliente {}: {}", cliente.id(), e.getMessage());
+                    }
+                }
+                return null;
+            });
+        }
+        for (Future<Void> tarea : puntaje.invokeAll(tareas)) {
+            tarea.get();
+        }
+        return resultados;
+    }
+
+    // Historial de la página y avance del punto de control en una sola transacción
+    private Reevaluacion escribirPagina(Long id, Pagina pagina, ResultadoEvaluacion[] resultados) {
+        return transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(tamanoPagina);
+            Reevaluacion reevaluacion = reevaluacionRepository.findById(id)
+                .orElseThrow(() -> new IllegalStateException("La reevaluación " + id + " ya no existe"));
+
+            List<HistorialEvaluacion> historiales = new ArrayList<>(resultados.length);
+            long errores = 0;
+            long cambiosNivel = 0;
+            long cambiosAprobacion = 0;
+            long sinHistorialPrevio = 0;
+            for (int i = 0; i < resultados.length; i++) {
+                ResultadoEvaluacion resultado = resultados[i];
+                if (resultado == null) {
+                    errores++;
+                    continue;
+                }
+                ClientePagina cliente = pagina.clientes().get(i);
+                SolicitudPuntaje solicitud = cliente.solicitud();
+                HistorialEvaluacion historial = HistorialEvaluacion.fromResultado(cliente.id(), solicitud.tipoCliente(),
+                    resultado, solicitud.ingresos(), solicitud.totalDeudas());
+                historial.setReevaluacionId(id);
+                historiales.add(historial);
+                estadisticas.registrar(solicitud.tipoCliente(), resultado);
+
+                Previa previa = pagina.previas().get(cliente.id());
+                if (previa == null) {
+                    sinHistorialPrevio++;
+                } else {
+                    if (!previa.nivelRiesgo().equals(resultado.getNivelRiesgo())) {
+                        cambiosNivel++;
+                    }
+                    if (previa.aprobado() != resultado.isAprobado()) {
+                        cambiosAprobacion++;
+                    }
+                }
+            }
+            historialRepository.saveAll(historiales);
+
+            reevaluacion.setUltimoClienteId(pagina.ultimoId());
+            reevaluacion.setProcesados(reevaluacion.getProcesados() + historiales.size());
+            reevaluacion.setErrores(reevaluacion.getErrores() + errores);
+            reevaluacion.setCambiosNivel(reevaluacion.getCambiosNivel() + cambiosNivel);
+            reevaluacion.setCambiosAprobacion(reevaluacion.getCambiosAprobacion() + cambiosAprobacion);
+            reevaluacion.setSinHistorialPrevio(reevaluacion.getSinHistorialPrevio() + sinHistorialPrevio);
+            reevaluacion.setFechaActualizacion(LocalDateTime.now(reloj));
+            return reevaluacion;
+        });
+    }
+
+    private void finalizar(Ejecucion ejecucion, Reevaluacion.Estado estado, String mensaje) {
+        Long id = ejecucion.reevaluacion.getId();
+        try {
+            ejecucion.avanzar(transactionTemplate.execute(status -> {
+                Reevaluacion reevaluacion = reevaluacionRepository.findById(id).orElseThrow();
+                LocalDateTime ahora = LocalDateTime.now(reloj);
+                reevaluacion.setEstado(estado);
+                reevaluacion.setMensaje(mensaje);
+                reevaluacion.setFechaActualizacion(ahora);
+                if (estado == Reevaluacion.Estado.COMPLETADA) {
+                    reevaluacion.setFechaFin(ahora);
+                }
+                return reevaluacion;
+            }));
+            registrarProgreso(ejecucion, true);
+        } catch (RuntimeException e) {
+            // El punto de control sigue en la base: la ejecución puede reanudarse aunque figure EN_CURSO
+            log.error("No se pudo registrar el estado {} de la reevaluación {}", estado, id, e);
+        }
+    }
+
+    private void registrarProgreso(Ejecucion ejecucion, boolean finalizada) {
+        long ahora = System.nanoTime();
+        if (!finalizada && ahora - ejecucion.ultimoRegistroNanos < intervaloProgreso.toNanos()) {
+            return;
+        }
+        ejecucion.ultimoRegistroNanos = ahora;
+        EstadoReevaluacionDTO estado = ejecucion.estado();
+        log.atInfo()
+            .addKeyValue("reevaluacionId", estado.getId())
+            .addKeyValue("estado", estado.getEstado())
+            .addKeyValue("procesados", estado.getProcesados())
+            .addKeyValue("errores", estado.getErrores())
+            .addKeyValue("totalClientes", estado.getTotalClientes())
+            .addKeyValue("porcentaje", estado.getPorcentaje())
+            .addKeyValue("clientesPorSegundo", estado.getClientesPorSegundo())
+            .addKeyValue("cambiosNivel", estado.getCambiosNivel())
+            .log(finalizada ? "Reevaluación de cartera finalizada" : "Progreso de la reevaluación de cartera");
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        Ejecucion ejecucion = enCurso.get();
+        if (ejecucion == null || ejecucion.hilo == null) {
+            return;
+        }
+        ejecucion.detener = true;
+        try {
+            ejecucion.hilo.join(ESPERA_CIERRE.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Estado en memoria de la ejecución en este proceso
+    private static final class Ejecucion {
+
+        private volatile Reevaluacion reevaluacion;
+        private volatile boolean detener;
+        private Thread hilo;
+        private long inicioNanos;
+        private long recorridosAlInicio;
+        private long ultimoRegistroNanos;
+
+        // reevaluacion se publica al final: quien la ve ya ve también el resto de campos
+        void arrancar(Reevaluacion reevaluacion) {
+            this.inicioNanos = System.nanoTime();
+            this.ultimoRegistroNanos = inicioNanos;
+            this.recorridosAlInicio = reevaluacion.getProcesados() + reevaluacion.getErrores();
+            this.reevaluacion = reevaluacion;
+        }
+
+        void avanzar(Reevaluacion reevaluacion) {
+            this.reevaluacion = reevaluacion;
+        }
+
+        // null mientras se prepara la ejecución
+        EstadoReevaluacionDTO estado() {
+            Reevaluacion actual = reevaluacion;
+            if (actual == null) {
+                return null;
+            }
+            double segundos = (System.nanoTime() - inicioNanos) / 1e9;
+            long recorridos = actual.getProcesados() + actual.getErrores() - recorridosAlInicio;
+            BigDecimal porSegundo = segundos > 0
+                ? BigDecimal.valueOf(recorridos / segundos).setScale(1, RoundingMode.HALF_UP)
+                : null;
+            return EstadoReevaluacionDTO.fromReevaluacion(actual,
+                actual.getEstado() == Reevaluacion.Estado.EN_CURSO, porSegundo);
+        }
+    }
+
+    private record ClientePagina(Long id, SolicitudPuntaje solicitud) {
+    }
+
+    private record Previa(Long id, String nivelRiesgo, boolean aprobado) {
+    }
+
+    private record Pagina(long ultimoId, List<ClientePagina> clientes, Map<Long, Previa> previas) {
+    }
+}
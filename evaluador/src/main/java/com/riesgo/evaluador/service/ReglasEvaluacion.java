@@ -0,0 +1,82 @@
+package com.riesgo.evaluador.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Origen de las reglas de riesgo que ejecuta {@link MotorPuntajeEscalado}. El archivo se compila
+ * al arrancar y puede recargarse en caliente: el plan nuevo reemplaza al anterior de forma atómica,
+ * de modo que cada evaluación usa un único plan de principio a fin.
+ */
+@Slf4j
+@Component
+public class ReglasEvaluacion {
+
+    static final String ARCHIVO_POR_DEFECTO = "reglas/reglas-riesgo.yaml";
+
+    private static final ObjectMapper YAML = new ObjectMapper(new YAMLFactory())
+        .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${evaluacion.reglas.archivo:classpath:" + ARCHIVO_POR_DEFECTO + "}")
+    private String archivo;
+
+    private final AtomicReference<PlanEvaluacion> plan = new AtomicReference<>();
+
+    @PostConstruct
+    public void inicializar() {
+        PlanEvaluacion cargado = cargar(resourceLoader.getResource(archivo));
+        plan.set(cargado);
+        log.info("Reglas de riesgo cargadas: version={}, origen={}", cargado.getVersion(), cargado.getOrigen());
+    }
+
+    public PlanEvaluacion actual() {
+        return plan.get();
+    }
+
+    // Vuelve a leer el archivo; si no es válido lanza IllegalArgumentException y se conserva el plan vigente
+    public PlanEvaluacion recargar() {
+        PlanEvaluacion nuevo = cargar(resourceLoader.getResource(archivo));
+        PlanEvaluacion anterior = plan.getAndSet(nuevo);
+        log.info("Reglas de riesgo recargadas: versionAnterior={}, version={}", anterior.getVersion(), nuevo.getVersion());
+        return nuevo;
+    }
+
+    static PlanEvaluacion cargar(Resource recurso) {
+        try (InputStream entrada = recurso.getInputStream()) {
+            ReglasRiesgo reglas = YAML.readValue(entrada, ReglasRiesgo.class);
+            return PlanEvaluacion.compilar(reglas, recurso.getDescription());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Archivo de reglas inválido: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el archivo de reglas " + recurso.getDescription(), e);
+        }
+    }
+
+    // Reglas incluidas en la aplicación: motor clásico y motor fuera del contexto de Spring. El plan es
+    // inmutable y el archivo no cambia en ejecución, así que se compila una sola vez
+    static PlanEvaluacion cargarPorDefecto() {
+        return Incluidas.PLAN;
+    }
+
+    private static final class Incluidas {
+        static final PlanEvaluacion PLAN = cargar(new ClassPathResource(ARCHIVO_POR_DEFECTO));
+    }
+}
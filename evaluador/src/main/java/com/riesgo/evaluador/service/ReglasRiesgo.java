@@ -0,0 +1,86 @@
+package com.riesgo.evaluador.service;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estructura del archivo de reglas (reglas/reglas-riesgo.yaml) tal como se lee;
+ * {@link PlanEvaluacion#compilar} la valida y la convierte en el plan que ejecuta el motor.
+ */
+@Data
+public class ReglasRiesgo {
+
+    private String version;
+    private int puntajeBase;
+    private PuntajeCrediticio puntajeCrediticio;
+    private int nivelBajoDesde;
+    private int aprobacionDesde;
+    private BigDecimal umbralEndeudamiento;
+    private SeleccionEvaluador seleccionEvaluador;
+    private Map<String, BigDecimal> tasas = new HashMap<>();
+    private Map<String, Integer> plazosMaximos = new HashMap<>();
+    private Map<String, RatiosTipo> ratios = new HashMap<>();
+    private Map<String, ReglasEvaluador> evaluadores = new HashMap<>();
+
+    @Data
+    public static class SeleccionEvaluador {
+        private BigDecimal ratioMedio;
+        private BigDecimal ratioAlto;
+    }
+
+    @Data
+    public static class PuntajeCrediticio {
+        private int minimo;
+        private int penalizacion;
+    }
+
+    @Data
+    public static class RatiosTipo {
+        private int divisorIngreso = 1;
+        private Umbral deuda;
+        private Umbral monto;
+    }
+
+    @Data
+    public static class Umbral {
+        private BigDecimal umbral;
+        private int penalizacion;
+    }
+
+    @Data
+    public static class ReglasEvaluador {
+        private int penalizacionPorMora;
+        private List<Regla> natural = new ArrayList<>();
+        private List<Regla> juridica = new ArrayList<>();
+        private List<TramoMonto> montoMaximo = new ArrayList<>();
+    }
+
+    @Data
+    public static class Regla {
+        private List<Condicion> cuando = new ArrayList<>();
+        private int ajuste;
+    }
+
+    @Data
+    public static class Condicion {
+        private String campo;
+        private Integer menorQue;
+        private Integer mayorQue;
+        private Integer minimo;
+        private Integer maximo;
+        private List<Integer> entre;
+        private List<Integer> fuera;
+        private List<String> en;
+    }
+
+    @Data
+    public static class TramoMonto {
+        private Integer desde;
+        private BigDecimal multiplicador;
+    }
+}
@@ -0,0 +1,42 @@
+-- Paso al esquema de tabla única (perfil tabla-unica): las columnas de personas_naturales y
+-- personas_juridicas se copian a cliente. Requiere V5__discriminador_tipo_cliente.sql.
+--
+-- Aplicar con el servicio detenido, antes de arrancar con el perfil:
+--   psql -h localhost -U admin -d riesgo_db -f V6__clientes_tabla_unica.sql
+--
+-- El script es idempotente. El cambio es de un solo sentido: no hay migración inversa y, una vez
+-- aplicado, la base solo debe usarse con el perfil tabla-unica. Con el perfil desactivado el mapeo
+-- JOINED no vería los clientes dados de alta después (no tienen fila de subtipo) y, con prod, Flyway
+-- rechaza arrancar porque V6 figura aplicada sin estar entre sus scripts. Para volver a JOINED hay
+-- que restaurar una copia de la base anterior a este script.
+
+ALTER TABLE cliente ADD COLUMN IF NOT EXISTS fecha_nacimiento DATE;
+ALTER TABLE cliente ADD COLUMN IF NOT EXISTS estado_civil VARCHAR(255);
+ALTER TABLE cliente ADD COLUMN IF NOT EXISTS numero_dependientes INTEGER;
+ALTER TABLE cliente ADD COLUMN IF NOT EXISTS fecha_constitucion DATE;
+ALTER TABLE cliente ADD COLUMN IF NOT EXISTS sector_economico VARCHAR(255);
+ALTER TABLE cliente ADD COLUMN IF NOT EXISTS numero_empleados INTEGER;
+
+UPDATE cliente c
+SET tipo_cliente = 'NATURAL',
+    fecha_nacimiento = pn.fecha_nacimiento,
+    estado_civil = pn.estado_civil,
+    numero_dependientes = pn.numero_dependientes
+FROM personas_naturales pn
+WHERE pn.id = c.id;
+
+UPDATE cliente c
+SET tipo_cliente = 'JURIDICA',
+    fecha_constitucion = pj.fecha_constitucion,
+    sector_economico = pj.sector_economico,
+    numero_empleados = pj.numero_empleados
+FROM personas_juridicas pj
+WHERE pj.id = c.id;
+
+-- En tabla única el discriminador es la única forma de saber el subtipo
+ALTER TABLE cliente ALTER COLUMN tipo_cliente SET NOT NULL;
+
+-- Las tablas de subtipo quedan sin uso con los datos previos a la migración. Una vez validado
+-- el esquema de tabla única se pueden borrar:
+--   DROP TABLE personas_naturales;
+--   DROP TABLE personas_juridicas;
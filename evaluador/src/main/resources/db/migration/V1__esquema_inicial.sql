@@ -0,0 +1,54 @@
+-- Esquema inicial, tal como lo creaba ddl-auto antes de V2: ids IDENTITY y herencia JOINED
+-- (cliente + personas_naturales / personas_juridicas).
+--
+-- Flyway (perfil prod) solo lo ejecuta sobre una base vacía. Una base creada por ddl-auto ya
+-- tiene estas tablas: baseline-on-migrate la marca como versión 1 y se aplican desde V2.
+
+CREATE TABLE cliente (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tipo_cliente       VARCHAR(31) NOT NULL,
+    nombre             VARCHAR(255) NOT NULL,
+    documento          VARCHAR(255) NOT NULL UNIQUE,
+    ingresos           NUMERIC(38,2) NOT NULL,
+    monto_solicitado   NUMERIC(38,2),
+    plazo_meses        INTEGER,
+    puntaje_crediticio INTEGER
+);
+
+CREATE TABLE personas_naturales (
+    id                  BIGINT PRIMARY KEY REFERENCES cliente,
+    fecha_nacimiento    DATE,
+    estado_civil        VARCHAR(255),
+    numero_dependientes INTEGER
+);
+
+CREATE TABLE personas_juridicas (
+    id                 BIGINT PRIMARY KEY REFERENCES cliente,
+    fecha_constitucion DATE,
+    sector_economico   VARCHAR(255),
+    numero_empleados   INTEGER
+);
+
+CREATE TABLE deudas (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tipo              VARCHAR(255) NOT NULL,
+    monto             NUMERIC(38,2) NOT NULL,
+    fecha_vencimiento DATE,
+    dias_mora         INTEGER,
+    plazo_meses       INTEGER,
+    cliente_id        BIGINT REFERENCES cliente
+);
+
+CREATE TABLE historial_evaluaciones (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cliente_id           BIGINT NOT NULL,
+    tipo_cliente         VARCHAR(255) NOT NULL,
+    nivel_riesgo         VARCHAR(255) NOT NULL,
+    puntaje              NUMERIC(38,2) NOT NULL,
+    observaciones        TEXT,
+    fecha_evaluacion     TIMESTAMP(6) NOT NULL,
+    aprobado             BOOLEAN NOT NULL,
+    monto_maximo_credito NUMERIC(38,2),
+    ingresos_cliente     NUMERIC(38,2),
+    total_deudas         NUMERIC(38,2)
+);
@@ -0,0 +1,32 @@
+-- Paso de columnas IDENTITY a secuencias con optimizador pooled (allocationSize = 50)
+-- para que Hibernate pueda agrupar los INSERT en lotes JDBC.
+--
+-- Aplicar sobre una base existente antes de arrancar la nueva versión:
+--   psql -h localhost -U admin -d riesgo_db -f V2__ids_secuencias_pooled.sql
+--
+-- El script es idempotente: puede ejecutarse aunque ddl-auto ya haya creado las secuencias.
+
+CREATE SEQUENCE IF NOT EXISTS clientes_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS deudas_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS historial_evaluaciones_seq START WITH 1 INCREMENT BY 50;
+
+ALTER SEQUENCE clientes_seq INCREMENT BY 50;
+ALTER SEQUENCE deudas_seq INCREMENT BY 50;
+ALTER SEQUENCE historial_evaluaciones_seq INCREMENT BY 50;
+
+-- Con pooled, cada nextval marca el límite superior del bloque reservado:
+-- el siguiente valor debe quedar al menos 50 por encima del mayor id existente.
+SELECT setval('clientes_seq',
+    GREATEST((SELECT COALESCE(MAX(id), 0) FROM cliente), (SELECT last_value FROM clientes_seq)) + 50, false);
+SELECT setval('deudas_seq',
+    GREATEST((SELECT COALESCE(MAX(id), 0) FROM deudas), (SELECT last_value FROM deudas_seq)) + 50, false);
+SELECT setval('historial_evaluaciones_seq',
+    GREATEST((SELECT COALESCE(MAX(id), 0) FROM historial_evaluaciones), (SELECT last_value FROM historial_evaluaciones_seq)) + 50, false);
+
+-- Hibernate asigna ahora los ids; se retira la generación en la base (IDENTITY o serial)
+ALTER TABLE cliente ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE cliente ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE deudas ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE deudas ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE historial_evaluaciones ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE historial_evaluaciones ALTER COLUMN id DROP DEFAULT;
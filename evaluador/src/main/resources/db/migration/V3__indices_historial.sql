@@ -0,0 +1,11 @@
+-- Índices para las consultas del historial por cliente, nivel de riesgo y rango de fechas.
+-- Todas ordenan y paginan por (fecha_evaluacion, id).
+
+CREATE INDEX IF NOT EXISTS idx_historial_cliente_fecha
+    ON historial_evaluaciones (cliente_id, fecha_evaluacion, id);
+
+CREATE INDEX IF NOT EXISTS idx_historial_nivel_fecha
+    ON historial_evaluaciones (nivel_riesgo, fecha_evaluacion, id);
+
+CREATE INDEX IF NOT EXISTS idx_historial_fecha
+    ON historial_evaluaciones (fecha_evaluacion, id);
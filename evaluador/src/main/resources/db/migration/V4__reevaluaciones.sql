@@ -0,0 +1,37 @@
+-- Reevaluación de cartera: estado y punto de control de cada ejecución, y referencia desde
+-- el historial a la ejecución que generó cada registro.
+--
+-- Aplicar sobre una base existente antes de arrancar la nueva versión:
+--   psql -h localhost -U admin -d riesgo_db -f V4__reevaluaciones.sql
+--
+-- El script es idempotente: puede ejecutarse aunque ddl-auto ya haya creado la tabla.
+
+CREATE SEQUENCE IF NOT EXISTS reevaluaciones_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS reevaluaciones (
+    id                   BIGINT PRIMARY KEY,
+    revision             BIGINT,
+    estado               VARCHAR(20) NOT NULL,
+    version_reglas       VARCHAR(255) NOT NULL,
+    motor                VARCHAR(255) NOT NULL,
+    fecha_evaluacion     TIMESTAMP(6) NOT NULL,
+    cliente_id_hasta     BIGINT NOT NULL,
+    total_clientes       BIGINT NOT NULL,
+    ultimo_cliente_id    BIGINT NOT NULL,
+    procesados           BIGINT NOT NULL,
+    errores              BIGINT NOT NULL,
+    cambios_nivel        BIGINT NOT NULL,
+    cambios_aprobacion   BIGINT NOT NULL,
+    sin_historial_previo BIGINT NOT NULL,
+    fecha_inicio         TIMESTAMP(6) NOT NULL,
+    fecha_actualizacion  TIMESTAMP(6) NOT NULL,
+    fecha_fin            TIMESTAMP(6),
+    mensaje              TEXT
+);
+
+ALTER TABLE historial_evaluaciones ADD COLUMN IF NOT EXISTS reevaluacion_id BIGINT;
+
+-- Solo una fracción del historial procede de reevaluaciones
+CREATE INDEX IF NOT EXISTS idx_historial_reevaluacion
+    ON historial_evaluaciones (reevaluacion_id, cliente_id)
+    WHERE reevaluacion_id IS NOT NULL;
@@ -0,0 +1,13 @@
+-- tipo_cliente pasa de los nombres de entidad (PersonaNatural, PersonaJuridica) a NATURAL y JURIDICA,
+-- los valores de @DiscriminatorValue, comunes al esquema JOINED y al de tabla única.
+--
+-- Aplicar sobre una base existente antes de arrancar la nueva versión:
+--   psql -h localhost -U admin -d riesgo_db -f V5__discriminador_tipo_cliente.sql
+--
+-- El script es idempotente.
+
+UPDATE cliente SET tipo_cliente = 'NATURAL'
+WHERE tipo_cliente IS DISTINCT FROM 'NATURAL' AND id IN (SELECT id FROM personas_naturales);
+
+UPDATE cliente SET tipo_cliente = 'JURIDICA'
+WHERE tipo_cliente IS DISTINCT FROM 'JURIDICA' AND id IN (SELECT id FROM personas_juridicas);
@@ -0,0 +1,206 @@
+package com.riesgo.evaluador.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riesgo.evaluador.dto.EvaluacionRequestDTO;
+import com.riesgo.evaluador.repository.ClienteRepository;
+import com.riesgo.evaluador.repository.HistorialRepository;
+import com.riesgo.evaluador.model.HistorialEvaluacion;
+import com.riesgo.evaluador.service.CacheEvaluaciones;
+import com.riesgo.evaluador.service.EvaluacionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cache de respuestas de /evaluar sobre H2: un reenvío equivalente no vuelve a evaluar ni a
+ * escribir historial, tampoco si llega mientras la primera se evalúa; un canal excluido, una
+ * solicitud distinta o una recarga de reglas sí.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:cache;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=create",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.show_sql=false",
+    "evaluacion.cache.habilitada=true",
+    "evaluacion.cache.canales-deshabilitados=sucursal"
+})
+@AutoConfigureMockMvc
+class CacheEvaluacionesControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheEvaluaciones cacheEvaluaciones;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private HistorialRepository historialRepository;
+
+    @Autowired
+    private EvaluacionService evaluacionService;
+
+    @AfterEach
+    void limpiar() {
+        usarHistorial(historialRepository);
+        cacheEvaluaciones.invalidar();
+        historialRepository.deleteAllInBatch();
+        clienteRepository.deleteAll();
+    }
+
+    @Test
+    void reenvioEquivalenteSeRespondeDesdeLaCacheSinEscribir() throws Exception {
+        // Aciertos y fallos se acumulan durante todo el contexto
+        JsonNode antes = leer(get("/api/evaluacion/cache/estadisticas"));
+        JsonNode primera = evaluar(solicitud("C-1", "5200.00"), null, status().isOk());
+        assertEquals(1, historialRepository.count());
+
+        // Mismo contenido con otra escala en los montos: misma huella
+        JsonNode segunda = evaluar(solicitud("C-1", "5200"), null, status().isOk());
+        assertEquals(primera, segunda);
+        assertEquals(1, historialRepository.count());
+
+        JsonNode despues = leer(get("/api/evaluacion/cache/estadisticas"));
+        assertEquals(1, despues.get("aciertos").asLong() - antes.get("aciertos").asLong());
+        assertEquals(1, despues.get("fallos").asLong() - antes.get("fallos").asLong());
+        assertEquals(1, despues.get("entradas").asLong());
+    }
+
+    @Test
+    void solicitudDistintaOCanalExcluidoEvaluanDeNuevo() throws Exception {
+        evaluar(solicitud("C-2", "5200.00"), null, status().isOk());
+        evaluar(solicitud("C-2", "6100.00"), null, status().isOk());
+        assertEquals(2, historialRepository.count());
+
+        // El canal excluido no consulta la cache aunque la solicitud ya esté guardada
+        evaluar(solicitud("C-2", "6100.00"), " Sucursal ", status().isOk());
+        assertEquals(3, historialRepository.count());
+        evaluar(solicitud("C-2", "6100.00"), "WEB", status().isOk());
+        assertEquals(3, historialRepository.count());
+    }
+
+    @Test
+    void erroresNoSeGuardanYRecargarLasReglasVaciaLaCache() throws Exception {
+        EvaluacionRequestDTO invalida = solicitud("C-3", "0");
+        evaluar(invalida, null, status().isBadRequest());
+        evaluar(invalida, null, status().isBadRequest());
+        assertEquals(0, cacheEvaluaciones.obtenerEstadisticas().getEntradas());
+
+        evaluar(solicitud("C-3", "5200.00"), null, status().isOk());
+        mockMvc.perform(post("/api/evaluacion/reglas/recargar")).andExpect(status().isOk());
+        assertEquals(0, cacheEvaluaciones.obtenerEstadisticas().getEntradas());
+
+        evaluar(solicitud("C-3", "5200.00"), null, status().isOk());
+        assertEquals(2, historialRepository.count());
+    }
+
+    @Test
+    void reenviosSimultaneosEsperanLaPrimeraEvaluacion() throws Exception {
+        // El historial tarda en guardarse: los reenvíos llegan mientras la primera solicitud se evalúa
+        HistorialRepository lento = mock(HistorialRepository.class, delegatesTo(historialRepository));
+        doAnswer(invocacion -> {
+            Thread.sleep(300);
+            return historialRepository.save(invocacion.<HistorialEvaluacion>getArgument(0));
+        }).when(lento).save(any());
+        usarHistorial(lento);
+
+        int solicitudes = 6;
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(solicitudes);
+        try {
+            List<Future<JsonNode>> respuestas = new ArrayList<>();
+            for (int i = 0; i < solicitudes; i++) {
+                respuestas.add(hilos.submit(() -> {
+                    salida.await();
+                    return evaluar(solicitud("C-4", "5200.00"), null, status().isOk());
+                }));
+            }
+            salida.countDown();
+
+            JsonNode primera = respuestas.get(0).get();
+            for (Future<JsonNode> respuesta : respuestas) {
+                assertEquals(primera, respuesta.get());
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+        assertEquals(1, historialRepository.count());
+        assertEquals(1, clienteRepository.count());
+        assertEquals(1, cacheEvaluaciones.obtenerEstadisticas().getEntradas());
+    }
+
+    private void usarHistorial(HistorialRepository repositorio) {
+        Object servicio = AopTestUtils.getUltimateTargetObject(evaluacionService);
+        ReflectionTestUtils.setField(servicio, "historialRepository", repositorio);
+    }
+
+    private JsonNode evaluar(EvaluacionRequestDTO request, String canal, ResultMatcher esperado) throws Exception {
+        MockHttpServletRequestBuilder consulta = post("/api/evaluacion/evaluar")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request));
+        if (canal != null) {
+            consulta.header("X-Canal", canal);
+        }
+        String cuerpo = mockMvc.perform(consulta)
+            .andExpect(esperado)
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(cuerpo);
+    }
+
+    private JsonNode leer(MockHttpServletRequestBuilder consulta) throws Exception {
+        String cuerpo = mockMvc.perform(consulta)
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(cuerpo);
+    }
+
+    private static EvaluacionRequestDTO solicitud(String documento, String ingresos) {
+        EvaluacionRequestDTO request = new EvaluacionRequestDTO();
+        request.setNombre("Cliente " + documento);
+        request.setDocumento(documento);
+        request.setTipoCliente("NATURAL");
+        request.setIngresos(new BigDecimal(ingresos));
+        request.setMontoSolicitado(new BigDecimal("10000.00"));
+        request.setPlazoEnMeses(24);
+        request.setPuntajeCrediticio(700);
+        request.setFechaNacimiento(LocalDate.of(1985, 5, 20));
+        request.setEstadoCivil("SOLTERO");
+        request.setNumeroDependientes(0);
+        request.setDeudas(List.of(new EvaluacionRequestDTO.DeudaDTO(
+            "TARJETA", new BigDecimal("1500.00"), LocalDate.of(2026, 12, 31), 0, 12)));
+        return request;
+    }
+}
@@ -0,0 +1,204 @@
+package com.riesgo.evaluador.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riesgo.evaluador.model.HistorialEvaluacion;
+import com.riesgo.evaluador.repository.HistorialRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Historial sobre H2: paginación por número de página y por cursor (fechaEvaluacion, id), con
+ * fechas repetidas para que el id desempate, y exportación completa en NDJSON. Los listados se
+ * proyectan a DTO sin las observaciones.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:historial;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=create",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.show_sql=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "evaluacion.cache.habilitada=false"
+})
+@AutoConfigureMockMvc
+class EvaluacionControllerTest {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2024, 6, 11, 12, 0);
+    private static final int REGISTROS = 7;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HistorialRepository historialRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+
+    // Ids en el orden del historial: fecha descendente y, a igual fecha, id descendente
+    private final List<Long> ordenados = new ArrayList<>();
+
+    @BeforeEach
+    void crearHistorial() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<HistorialEvaluacion> historial = new ArrayList<>();
+        for (int i = 0; i < REGISTROS; i++) {
+            // Pares de registros con la misma fecha
+            historial.add(historial(i, FECHA.plusMinutes(i / 2)));
+        }
+        historialRepository.saveAll(historial).stream()
+            .sorted(Comparator.comparing(HistorialEvaluacion::getFechaEvaluacion)
+                .thenComparing(HistorialEvaluacion::getId).reversed())
+            .forEach(h -> ordenados.add(h.getId()));
+    }
+
+    @AfterEach
+    void limpiar() {
+        historialRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void paginaPorNumeroIndicaSiHayMas() throws Exception {
+        JsonNode primera = pagina(get("/api/evaluacion/historial").param("pagina", "0").param("tamano", "3"));
+        assertEquals(ordenados.subList(0, 3), ids(primera));
+        assertEquals(0, primera.get("pagina").asInt());
+        assertTrue(primera.get("hayMas").asBoolean());
+
+        JsonNode ultima = pagina(get("/api/evaluacion/historial").param("pagina", "2").param("tamano", "3"));
+        assertEquals(ordenados.subList(6, 7), ids(ultima));
+        assertFalse(ultima.get("hayMas").asBoolean());
+        assertTrue(ultima.get("siguienteCursorId").isNull());
+    }
+
+    @Test
+    void paginaPorCursorRecorreTodoSinRepetirNiSaltar() throws Exception {
+        List<Long> recorridos = new ArrayList<>();
+        JsonNode actual = pagina(get("/api/evaluacion/historial").param("tamano", "2"));
+        recorridos.addAll(ids(actual));
+        while (actual.get("hayMas").asBoolean()) {
+            actual = pagina(get("/api/evaluacion/historial")
+                .param("tamano", "2")
+                .param("cursorFecha", actual.get("siguienteCursorFecha").asText())
+                .param("cursorId", actual.get("siguienteCursorId").asText()));
+            assertTrue(actual.get("pagina").isNull());
+            recorridos.addAll(ids(actual));
+        }
+        assertEquals(ordenados, recorridos);
+    }
+
+    @Test
+    void listadosProyectanSinObservacionesNiEntidades() throws Exception {
+        estadisticas.clear();
+        List<JsonNode> paginas = List.of(
+            pagina(get("/api/evaluacion/historial")),
+            pagina(get("/api/evaluacion/historial/cliente/3")),
+            pagina(get("/api/evaluacion/historial/riesgo/BAJO")),
+            pagina(get("/api/evaluacion/historial/fechas")
+                .param("inicio", FECHA.toString())
+                .param("fin", FECHA.plusHours(1).toString())));
+
+        assertEquals(List.of(REGISTROS, 1, REGISTROS, REGISTROS),
+            paginas.stream().map(p -> p.get("contenido").size()).toList());
+        for (JsonNode pagina : paginas) {
+            pagina.get("contenido").forEach(registro -> assertTrue(registro.get("observaciones").isNull()));
+        }
+        assertEquals(0, estadisticas.getEntityLoadCount());
+
+        // El detalle sí trae el registro completo
+        long id = ordenados.get(0);
+        JsonNode detalle = pagina(get("/api/evaluacion/historial/" + id));
+        assertEquals("Observación " + detalle.get("clienteId").asLong(), detalle.get("observaciones").asText());
+        mockMvc.perform(get("/api/evaluacion/historial/" + (id + 1000)))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void consultaInvalidaSeRechaza() throws Exception {
+        mockMvc.perform(get("/api/evaluacion/historial").param("tamano", "0"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/evaluacion/historial").param("tamano", "1001"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/evaluacion/historial").param("cursorFecha", FECHA.toString()))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportarEscribeUnaLineaJsonPorRegistro() throws Exception {
+        MvcResult iniciado = mockMvc.perform(get("/api/evaluacion/historial/exportar"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String cuerpo = mockMvc.perform(asyncDispatch(iniciado))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertTrue(cuerpo.endsWith("\n"));
+        String[] lineas = cuerpo.split("\n");
+        assertEquals(REGISTROS, lineas.length);
+        List<Long> exportados = new ArrayList<>();
+        for (String linea : lineas) {
+            JsonNode registro = objectMapper.readTree(linea);
+            // A diferencia del listado, la exportación incluye las observaciones
+            assertEquals("Observación " + registro.get("clienteId").asLong(), registro.get("observaciones").asText());
+            exportados.add(registro.get("id").asLong());
+        }
+        assertEquals(ordenados, exportados);
+    }
+
+    private JsonNode pagina(MockHttpServletRequestBuilder consulta) throws Exception {
+        String cuerpo = mockMvc.perform(consulta)
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(cuerpo);
+    }
+
+    private static List<Long> ids(JsonNode pagina) {
+        List<Long> ids = new ArrayList<>();
+        pagina.get("contenido").forEach(registro -> ids.add(registro.get("id").asLong()));
+        return ids;
+    }
+
+    private static HistorialEvaluacion historial(long cliente, LocalDateTime fecha) {
+        HistorialEvaluacion historial = new HistorialEvaluacion();
+        historial.setClienteId(cliente);
+        historial.setTipoCliente("NATURAL");
+        historial.setNivelRiesgo("BAJO");
+        historial.setPuntaje(new BigDecimal("80.00"));
+        historial.setObservaciones("Observación " + cliente);
+        historial.setFechaEvaluacion(fecha);
+        historial.setAprobado(true);
+        return historial;
+    }
+}
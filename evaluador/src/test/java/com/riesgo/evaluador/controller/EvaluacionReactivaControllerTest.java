@@ -0,0 +1,143 @@
+package com.riesgo.evaluador.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riesgo.evaluador.dto.EvaluacionRequestDTO;
+import com.riesgo.evaluador.model.Cliente;
+import com.riesgo.evaluador.model.Deuda;
+import com.riesgo.evaluador.repository.ClienteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Perfil reactivo sobre H2: /evaluar escribe con R2DBC las mismas tablas que lee JPA, y el
+ * historial se pagina y se exporta desde la pila reactiva.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:reactivo;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactivo;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=create",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.show_sql=false",
+    "evaluacion.cache.habilitada=false"
+})
+@ActiveProfiles("reactivo")
+class EvaluacionReactivaControllerTest {
+
+    private static final String DOCUMENTO = "R-1001";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void evaluarActualizaClienteYDeudasYRegistraHistorial() throws Exception {
+        JsonNode primera = evaluar(solicitud(
+            deuda("TARJETA", "1500.00"), deuda("HIPOTECARIA", "40000.00")));
+        Map<String, Long> antes = idsPorTipo();
+        JsonNode segunda = evaluar(solicitud(
+            deuda("TARJETA", "1500"), deuda("HIPOTECARIA", "35000.00"), deuda("VEHICULAR", "8000.00")));
+
+        long clienteId = primera.get("clienteId").asLong();
+        assertEquals(clienteId, segunda.get("clienteId").asLong());
+
+        // Lo escrito por R2DBC se lee con JPA: la deuda igual se conserva, la de mismo tipo y
+        // vencimiento se actualiza en su fila y la nueva se inserta
+        Map<String, Long> despues = idsPorTipo();
+        assertEquals(List.of("HIPOTECARIA", "TARJETA", "VEHICULAR"), despues.keySet().stream().sorted().toList());
+        assertEquals(antes.get("TARJETA"), despues.get("TARJETA"));
+        assertEquals(antes.get("HIPOTECARIA"), despues.get("HIPOTECARIA"));
+        Cliente cliente = clienteRepository.findConDeudasByDocumento(DOCUMENTO).orElseThrow();
+        assertEquals(0, new BigDecimal("35000").compareTo(cliente.getDeudas().stream()
+            .filter(d -> "HIPOTECARIA".equals(d.getTipo())).findFirst().orElseThrow().getMonto()));
+
+        webTestClient.get().uri("/api/evaluacion/historial/cliente/{id}?tamano=1", clienteId)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.contenido.length()").isEqualTo(1)
+            .jsonPath("$.hayMas").isEqualTo(true);
+
+        String exportado = webTestClient.get().uri("/api/evaluacion/historial/exportar")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .expectBody(String.class)
+            .returnResult().getResponseBody();
+        String[] lineas = exportado.strip().split("\n");
+        assertEquals(2, lineas.length);
+        for (String linea : lineas) {
+            assertEquals(clienteId, objectMapper.readTree(linea).get("clienteId").asLong());
+        }
+    }
+
+    @Test
+    void evaluarRechazaSolicitudInvalida() {
+        EvaluacionRequestDTO request = solicitud();
+        request.setIngresos(BigDecimal.ZERO.subtract(BigDecimal.ONE));
+
+        webTestClient.post().uri("/api/evaluacion/evaluar")
+            .bodyValue(request)
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.error").isEqualTo("Error de validación");
+    }
+
+    private Map<String, Long> idsPorTipo() {
+        return clienteRepository.findConDeudasByDocumento(DOCUMENTO).orElseThrow().getDeudas().stream()
+            .collect(Collectors.toMap(Deuda::getTipo, Deuda::getId));
+    }
+
+    private JsonNode evaluar(EvaluacionRequestDTO request) throws Exception {
+        String cuerpo = webTestClient.post().uri("/api/evaluacion/evaluar")
+            .bodyValue(request)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class)
+            .returnResult().getResponseBody();
+        JsonNode respuesta = objectMapper.readTree(cuerpo);
+        assertTrue(respuesta.hasNonNull("nivelRiesgo"));
+        assertFalse(respuesta.get("clienteId").isNull());
+        return respuesta;
+    }
+
+    private static EvaluacionRequestDTO solicitud(EvaluacionRequestDTO.DeudaDTO... deudas) {
+        EvaluacionRequestDTO request = new EvaluacionRequestDTO();
+        request.setNombre("Ana Reactiva");
+        request.setDocumento(DOCUMENTO);
+        request.setTipoCliente("NATURAL");
+        request.setIngresos(new BigDecimal("4500.00"));
+        request.setMontoSolicitado(new BigDecimal("12000.00"));
+        request.setPlazoEnMeses(24);
+        request.setPuntajeCrediticio(680);
+        request.setFechaNacimiento(LocalDate.of(1988, 3, 14));
+        request.setEstadoCivil("CASADO");
+        request.setNumeroDependientes(1);
+        request.setDeudas(List.of(deudas));
+        return request;
+    }
+
+    private static EvaluacionRequestDTO.DeudaDTO deuda(String tipo, String monto) {
+        return new EvaluacionRequestDTO.DeudaDTO(tipo, new BigDecimal(monto), LocalDate.of(2027, 1, 31), 0, 12);
+    }
+}
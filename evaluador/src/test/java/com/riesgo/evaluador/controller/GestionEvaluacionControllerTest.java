@@ -0,0 +1,250 @@
+package com.riesgo.evaluador.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riesgo.evaluador.dto.EvaluacionRequestDTO;
+import com.riesgo.evaluador.model.HistorialEvaluacion;
+import com.riesgo.evaluador.model.PersonaNatural;
+import com.riesgo.evaluador.repository.ClienteRepository;
+import com.riesgo.evaluador.repository.HistorialRepository;
+import com.riesgo.evaluador.service.EstadisticasEvaluacion;
+import com.riesgo.evaluador.service.EvaluacionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Endpoints de gestión sobre H2. El lote se procesa en bloques de 4 solicitudes, cada uno en su
+ * propia transacción con flush y clear al terminar; la simulación no toca la base.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:gestion;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=create",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.show_sql=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "evaluacion.cache.habilitada=false",
+    "evaluacion.lote.tamano-bloque=4",
+    "evaluacion.lote.maximo-solicitudes=12"
+})
+@AutoConfigureMockMvc
+class GestionEvaluacionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private HistorialRepository historialRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EstadisticasEvaluacion estadisticasEvaluacion;
+
+    @Autowired
+    private EvaluacionService evaluacionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void prepararEstadisticas() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void limpiar() {
+        usarHistorial(historialRepository);
+        historialRepository.deleteAllInBatch();
+        clienteRepository.deleteAll();
+    }
+
+    @Test
+    void loteSeProcesaEnBloquesYConservaElOrdenDeLasSolicitudes() throws Exception {
+        // Cliente ya registrado: el lote lo actualiza en sitio
+        JsonNode previo = lote(List.of(solicitud("L-0")));
+        long idPrevio = previo.get("resultados").get(0).get("evaluacion").get("clienteId").asLong();
+
+        List<EvaluacionRequestDTO> solicitudes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            solicitudes.add(solicitud("L-" + i));
+        }
+        solicitudes.get(3).setIngresos(BigDecimal.ZERO);
+        // Duplicado dentro del mismo bloque [4, 8)
+        solicitudes.get(6).setDocumento("L-5");
+
+        estadisticas.clear();
+        JsonNode respuesta = lote(solicitudes);
+
+        assertEquals(10, respuesta.get("total").asInt());
+        assertEquals(8, respuesta.get("exitosas").asInt());
+        assertEquals(2, respuesta.get("fallidas").asInt());
+        JsonNode resultados = respuesta.get("resultados");
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, resultados.get(i).get("indice").asInt());
+            assertEquals(i != 3 && i != 6, resultados.get(i).get("exitoso").asBoolean(), "solicitud " + i);
+        }
+        assertEquals("Documento duplicado dentro del lote", resultados.get(6).get("error").asText());
+        assertEquals(idPrevio, resultados.get(0).get("evaluacion").get("clienteId").asLong());
+
+        // Tres bloques, una transacción cada uno y sin reintentos individuales; por bloque un flush
+        // tras los clientes y otro tras el historial, que deja el contexto vacío para el COMMIT
+        assertEquals(3, estadisticas.getSuccessfulTransactionCount());
+        assertEquals(6, estadisticas.getFlushCount());
+        assertEquals(7, estadisticas.getEntityStatistics(PersonaNatural.class.getName()).getInsertCount());
+        assertEquals(8, estadisticas.getEntityStatistics(HistorialEvaluacion.class.getName()).getInsertCount());
+        assertEquals(9, historialRepository.count());
+        assertTrue(clienteRepository.findByDocumento("L-3").isEmpty());
+    }
+
+    @Test
+    void bloqueRevertidoSeReintentaSinPublicarSusMetricasDosVeces() throws Exception {
+        double resultadosAntes = resultadosRegistrados();
+        long puntajeAntes = etapaLote("puntaje");
+        long clientesAntes = etapaLote("persistencia_cliente");
+
+        // El primer saveAll del historial falla: el bloque se revierte y cada solicitud se reintenta sola
+        HistorialRepository fallaUnaVez = mock(HistorialRepository.class, delegatesTo(historialRepository));
+        doThrow(new DataIntegrityViolationException("historial rechazado"))
+            .doAnswer(delegatesTo(historialRepository))
+            .when(fallaUnaVez).saveAll(any());
+        usarHistorial(fallaUnaVez);
+
+        List<EvaluacionRequestDTO> solicitudes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            solicitudes.add(solicitud("R-" + i));
+        }
+        assertEquals(4, lote(solicitudes).get("exitosas").asInt());
+        assertEquals(4, historialRepository.count());
+
+        // Solo cuentan las cuatro transacciones individuales confirmadas
+        assertEquals(4.0, resultadosRegistrados() - resultadosAntes);
+        assertEquals(4, etapaLote("puntaje") - puntajeAntes);
+        assertEquals(4, etapaLote("persistencia_cliente") - clientesAntes);
+    }
+
+    @Test
+    void loteVacioOSobreElMaximoSeRechaza() throws Exception {
+        mockMvc.perform(post("/api/evaluacion/evaluar/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/evaluacion/evaluar/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Collections.nCopies(13, solicitud("L-X")))))
+            .andExpect(status().isBadRequest());
+        assertEquals(0, historialRepository.count());
+    }
+
+    @Test
+    void simularPuntuaComoEvaluarSinLeerNiEscribirLaBase() throws Exception {
+        EvaluacionRequestDTO request = solicitud("S-1");
+        JsonNode evaluada = lote(List.of(request)).get("resultados").get(0).get("evaluacion");
+        long totalEstadisticas = estadisticasEvaluacion.obtener().getTotal().getEvaluaciones();
+
+        // El documento ya está registrado: la simulación tampoco lo consulta
+        estadisticas.clear();
+        JsonNode simulada = simular(request, status().isOk());
+
+        assertEquals(0, estadisticas.getPrepareStatementCount());
+        assertEquals(0, estadisticas.getTransactionCount());
+        assertEquals(1, historialRepository.count());
+        assertEquals(totalEstadisticas, estadisticasEvaluacion.obtener().getTotal().getEvaluaciones());
+
+        assertTrue(simulada.get("clienteId").isNull());
+        assertEquals("S-1", simulada.get("documentoCliente").asText());
+        for (String campo : List.of("nivelRiesgo", "puntajeFinal", "aprobado", "montoMaximoCredito", "totalDeudas")) {
+            assertEquals(evaluada.get(campo), simulada.get(campo), campo);
+        }
+
+        request.setIngresos(BigDecimal.ZERO);
+        simular(request, status().isBadRequest());
+    }
+
+    private void usarHistorial(HistorialRepository repositorio) {
+        Object servicio = AopTestUtils.getUltimateTargetObject(evaluacionService);
+        ReflectionTestUtils.setField(servicio, "historialRepository", repositorio);
+    }
+
+    private double resultadosRegistrados() {
+        return meterRegistry.find("evaluacion.resultados").counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private long etapaLote(String etapa) {
+        return meterRegistry.get("evaluacion.etapa").tag("etapa", etapa).tag("lote", "true").timer().count();
+    }
+
+    private JsonNode simular(EvaluacionRequestDTO request, ResultMatcher esperado) throws Exception {
+        String cuerpo = mockMvc.perform(post("/api/evaluacion/simular")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(esperado)
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(cuerpo);
+    }
+
+    private JsonNode lote(List<EvaluacionRequestDTO> solicitudes) throws Exception {
+        String cuerpo = mockMvc.perform(post("/api/evaluacion/evaluar/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(solicitudes)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(cuerpo);
+    }
+
+    private static EvaluacionRequestDTO solicitud(String documento) {
+        EvaluacionRequestDTO request = new EvaluacionRequestDTO();
+        request.setNombre("Cliente " + documento);
+        request.setDocumento(documento);
+        request.setTipoCliente("NATURAL");
+        request.setIngresos(new BigDecimal("5200.00"));
+        request.setMontoSolicitado(new BigDecimal("10000.00"));
+        request.setPlazoEnMeses(24);
+        request.setPuntajeCrediticio(700);
+        request.setFechaNacimiento(LocalDate.of(1985, 5, 20));
+        request.setEstadoCivil("SOLTERO");
+        request.setNumeroDependientes(0);
+        request.setDeudas(List.of(new EvaluacionRequestDTO.DeudaDTO(
+            "TARJETA", new BigDecimal("1500.00"), LocalDate.of(2026, 12, 31), 0, 12)));
+        return request;
+    }
+}
@@ -0,0 +1,69 @@
+package com.riesgo.evaluador.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResumenDeudasTest {
+
+    @Test
+    void calculaLosAgregadosEnUnaPasada() {
+        ResumenDeudas resumen = ResumenDeudas.calcular(List.of(
+            deuda("TARJETA", "1500.00", 0),
+            deuda("CONSUMO", "800.50", 45),
+            deuda("TARJETA", "200.00", 12),
+            deuda(null, "100.00", null)));
+
+        assertEquals(new BigDecimal("2600.50"), resumen.getTotal());
+        assertEquals(4, resumen.getCantidad());
+        assertEquals(2, resumen.getCantidadEnMora());
+        assertEquals(45, resumen.getMaximoDiasMora());
+        assertTrue(resumen.tieneMora());
+        assertEquals(new BigDecimal("1700.00"), resumen.getTotalPorTipo().get("TARJETA"));
+        assertEquals(new BigDecimal("100.00"), resumen.getTotalPorTipo().get(""));
+        assertSame(ResumenDeudas.VACIO, ResumenDeudas.calcular(null));
+        assertSame(ResumenDeudas.VACIO, ResumenDeudas.calcular(List.of()));
+    }
+
+    @Test
+    void setDeudasYRecalcularDescartanElResumenEnCache() {
+        PersonaNatural cliente = new PersonaNatural();
+        List<Deuda> deudas = new ArrayList<>(List.of(deuda("TARJETA", "1500.00", 0)));
+        cliente.setDeudas(deudas);
+
+        ResumenDeudas inicial = cliente.getResumenDeudas();
+        assertSame(inicial, cliente.getResumenDeudas());
+        assertFalse(inicial.tieneMora());
+
+        // Una modificación en sitio no se ve hasta recalcular
+        deudas.add(deuda("CONSUMO", "500.00", 30));
+        assertSame(inicial, cliente.getResumenDeudas());
+        ResumenDeudas recalculado = cliente.recalcularResumenDeudas();
+        assertEquals(new BigDecimal("2000.00"), cliente.getTotalDeudas());
+        assertEquals(1, recalculado.getCantidadEnMora());
+        assertSame(recalculado, cliente.getResumenDeudas());
+
+        // Reemplazar la lista descarta el resumen anterior
+        cliente.setDeudas(List.of(deuda("HIPOTECARIO", "90000.00", 0)));
+        assertEquals(new BigDecimal("90000.00"), cliente.getTotalDeudas());
+        assertEquals(0, cliente.getResumenDeudas().getCantidadEnMora());
+
+        cliente.setDeudas(null);
+        assertSame(ResumenDeudas.VACIO, cliente.getResumenDeudas());
+    }
+
+    private static Deuda deuda(String tipo, String monto, Integer diasMora) {
+        Deuda deuda = new Deuda();
+        deuda.setTipo(tipo);
+        deuda.setMonto(new BigDecimal(monto));
+        deuda.setDiasMora(diasMora);
+        return deuda;
+    }
+}
@@ -0,0 +1,33 @@
+package com.riesgo.evaluador.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SectorEconomicoTest {
+
+    @Test
+    void normalizarQuitaTildesYUnificaSeparadores() {
+        assertEquals("TECNOLOGIA", SectorEconomico.normalizar("Tecnología"));
+        assertEquals("MINERIA", SectorEconomico.normalizar("  minería "));
+        assertEquals("ENERGIA_SOLAR", SectorEconomico.normalizar("Energía - solar"));
+        assertEquals("A_B", SectorEconomico.normalizar("a \t b"));
+        assertNull(SectorEconomico.normalizar("   "));
+        assertNull(SectorEconomico.normalizar(null));
+    }
+
+    @Test
+    void buscarAceptaNombreODescripcionEnCualquierForma() {
+        for (SectorEconomico sector : SectorEconomico.values()) {
+            assertSame(sector, SectorEconomico.buscar(sector.name()));
+            assertSame(sector, SectorEconomico.buscar(sector.getDescripcion()));
+            assertSame(sector, SectorEconomico.buscar(sector.getDescripcion().toLowerCase()));
+        }
+        assertSame(SectorEconomico.CONSTRUCCION, SectorEconomico.buscar(" construccion "));
+        assertNull(SectorEconomico.buscar("Otro"));
+        assertNull(SectorEconomico.buscar(""));
+        assertNull(SectorEconomico.buscar(null));
+    }
+}
@@ -0,0 +1,11 @@
+package com.riesgo.evaluador.repository;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Las mismas lecturas con el esquema de tabla única (perfil tabla-unica): comprueba que
+ * META-INF/orm-tabla-unica.xml sigue siendo válido y que el número de consultas no cambia.
+ */
+@ActiveProfiles("tabla-unica")
+class ClienteRepositoryTablaUnicaTest extends ClienteRepositoryTest {
+}
@@ -0,0 +1,148 @@
+package com.riesgo.evaluador.repository;
+
+import com.riesgo.evaluador.model.Cliente;
+import com.riesgo.evaluador.model.ContextoEvaluacion;
+import com.riesgo.evaluador.model.Deuda;
+import com.riesgo.evaluador.model.PersonaJuridica;
+import com.riesgo.evaluador.model.PersonaNatural;
+import com.riesgo.evaluador.model.SectorEconomico;
+import com.riesgo.evaluador.model.SolicitudPuntaje;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Número de sentencias SQL al leer clientes con sus deudas: cada lectura debe costar un número
+ * fijo de consultas, sin importar cuántos clientes o deudas haya (sin N+1).
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.show_sql=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ClienteRepositoryTest {
+
+    private static final int CLIENTES = 40;
+    private static final int DEUDAS_POR_CLIENTE = 3;
+    private static final LocalDateTime FECHA = LocalDateTime.of(2024, 6, 11, 12, 0);
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> ids = new ArrayList<>();
+    private final List<String> documentos = new ArrayList<>();
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void crearClientes() {
+        for (int i = 0; i < CLIENTES; i++) {
+            Cliente cliente = i % 2 == 0 ? natural(i) : juridica(i);
+            cliente.setNombre("Cliente " + i);
+            cliente.setDocumento("DOC-" + i);
+            cliente.setIngresos(BigDecimal.valueOf(3000 + i));
+            List<Deuda> deudas = new ArrayList<>();
+            for (int j = 0; j < DEUDAS_POR_CLIENTE; j++) {
+                Deuda deuda = new Deuda();
+                deuda.setTipo("CONSUMO");
+                deuda.setMonto(BigDecimal.valueOf(100 * (j + 1)));
+                deuda.setDiasMora(j == 0 ? 15 : 0);
+                deuda.setCliente(cliente);
+                deudas.add(deuda);
+            }
+            cliente.setDeudas(deudas);
+            entityManager.persist(cliente);
+            ids.add(cliente.getId());
+            documentos.add(cliente.getDocumento());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+    }
+
+    @Test
+    void documentosDelLoteSeLeenConSusDeudasEnUnaConsulta() {
+        List<Cliente> clientes = clienteRepository.findConDeudasByDocumentoIn(documentos);
+
+        assertEquals(CLIENTES, puntuarTodos(clientes));
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void paginaDeReevaluacionCuestaDosConsultas() {
+        List<Long> pagina = clienteRepository.findIdsEntre(0L, Long.MAX_VALUE, PageRequest.of(0, 25));
+        List<Cliente> clientes = clienteRepository.findConDeudasByIdIn(pagina);
+
+        assertEquals(25, puntuarTodos(clientes));
+        assertEquals(2, estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void lecturaPorIdTraeLasDeudasConElGrafo() {
+        Cliente cliente = clienteRepository.findById(ids.get(0)).orElseThrow();
+        assertTrue(Hibernate.isInitialized(cliente.getDeudas()));
+        assertEquals(1, puntuarTodos(List.of(cliente)));
+
+        clienteRepository.findAllById(ids.subList(1, 11)).forEach(c -> puntuarTodos(List.of(c)));
+        assertEquals(2, estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    void deudasPerezosasSeCarganPorLotes() {
+        // Sin fetch join las deudas se piden por lotes de default_batch_fetch_size dueños, no una vez por cliente
+        List<Cliente> clientes = clienteRepository.findAll();
+
+        assertEquals(CLIENTES, puntuarTodos(clientes));
+        assertEquals(2, estadisticas.getPrepareStatementCount());
+    }
+
+    // Recorre las deudas como lo hace el puntaje; falla si alguna colección quedó sin cargar
+    private int puntuarTodos(List<Cliente> clientes) {
+        for (Cliente cliente : clientes) {
+            SolicitudPuntaje solicitud = SolicitudPuntaje.de(cliente, ContextoEvaluacion.de(cliente, FECHA));
+            assertEquals(DEUDAS_POR_CLIENTE, solicitud.cantidadDeudas());
+            assertEquals(1, solicitud.deudasEnMora());
+            // El sector se resuelve al cargar la entidad
+            assertEquals(cliente instanceof PersonaJuridica ? SectorEconomico.TECNOLOGIA : null, solicitud.sector());
+        }
+        return clientes.size();
+    }
+
+    private static PersonaNatural natural(int i) {
+        PersonaNatural natural = new PersonaNatural();
+        natural.setFechaNacimiento(LocalDate.of(1980, 1, 1).plusDays(i));
+        natural.setNumeroDependientes(i % 4);
+        return natural;
+    }
+
+    private static PersonaJuridica juridica(int i) {
+        PersonaJuridica juridica = new PersonaJuridica();
+        juridica.setFechaConstitucion(LocalDate.of(2010, 1, 1).plusDays(i));
+        juridica.setSectorEconomico("Tecnología");
+        juridica.setNumeroEmpleados(10 + i);
+        return juridica;
+    }
+}
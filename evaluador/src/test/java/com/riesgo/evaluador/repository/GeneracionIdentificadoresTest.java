@@ -0,0 +1,95 @@
+package com.riesgo.evaluador.repository;
+
+import com.riesgo.evaluador.model.Deuda;
+import com.riesgo.evaluador.model.HistorialEvaluacion;
+import com.riesgo.evaluador.model.PersonaNatural;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Ids de secuencias pooled: insertar muchos clientes con sus deudas e historial no cuesta una
+ * sentencia por fila, sino unas pocas lecturas de secuencia y un lote JDBC por tabla.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.show_sql=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class GeneracionIdentificadoresTest {
+
+    // Por debajo del tamaño de lote JDBC (50) y por encima del allocationSize de una sola lectura
+    private static final int CLIENTES = 40;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void insercionesSalenEnLotesSinLeerLaClaveGenerada() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        for (int i = 0; i < CLIENTES; i++) {
+            PersonaNatural cliente = natural(i);
+            entityManager.persist(cliente);
+            entityManager.persist(historial(cliente.getId()));
+        }
+        entityManager.flush();
+
+        assertEquals(CLIENTES, estadisticas.getEntityStatistics(PersonaNatural.class.getName()).getInsertCount());
+        assertEquals(2L * CLIENTES, estadisticas.getEntityStatistics(Deuda.class.getName()).getInsertCount());
+        assertEquals(CLIENTES, estadisticas.getEntityStatistics(HistorialEvaluacion.class.getName()).getInsertCount());
+        // 200 filas: siete lecturas de secuencia (2 clientes, 3 deudas, 2 historial; el optimizador
+        // pooled lee dos veces al arrancar) y un INSERT por tabla ejecutado como lote JDBC
+        assertEquals(7 + 4, estadisticas.getPrepareStatementCount());
+    }
+
+    private static PersonaNatural natural(int i) {
+        PersonaNatural natural = new PersonaNatural();
+        natural.setNombre("Cliente " + i);
+        natural.setDocumento("SEQ-" + i);
+        natural.setIngresos(new BigDecimal("3000.00"));
+        natural.setMontoSolicitado(new BigDecimal("5000.00"));
+        natural.setPlazoEnMeses(12);
+        natural.setPuntajeCrediticio(650);
+        natural.setFechaNacimiento(LocalDate.of(1980, 1, 1));
+        natural.setNumeroDependientes(0);
+        List<Deuda> deudas = new ArrayList<>();
+        for (String tipo : List.of("TARJETA", "CONSUMO")) {
+            Deuda deuda = new Deuda();
+            deuda.setTipo(tipo);
+            deuda.setMonto(new BigDecimal("400.00"));
+            deuda.setDiasMora(0);
+            deuda.setCliente(natural);
+            deudas.add(deuda);
+        }
+        natural.setDeudas(deudas);
+        return natural;
+    }
+
+    private static HistorialEvaluacion historial(Long clienteId) {
+        HistorialEvaluacion historial = new HistorialEvaluacion();
+        historial.setClienteId(clienteId);
+        historial.setTipoCliente("NATURAL");
+        historial.setNivelRiesgo("BAJO");
+        historial.setPuntaje(new BigDecimal("80.00"));
+        historial.setFechaEvaluacion(LocalDateTime.of(2024, 6, 11, 12, 0));
+        historial.setAprobado(true);
+        return historial;
+    }
+}
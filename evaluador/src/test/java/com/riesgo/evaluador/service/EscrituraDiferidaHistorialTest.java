@@ -0,0 +1,148 @@
+package com.riesgo.evaluador.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riesgo.evaluador.model.HistorialEvaluacion;
+import com.riesgo.evaluador.repository.HistorialRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Escritura diferida del historial contra H2: recuperación del respaldo, compactación, caminos
+ * síncronos de reserva y vaciado de la cola al cerrar. Sin transacción de prueba, porque el hilo
+ * escritor inserta en sus propias transacciones.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EscrituraDiferidaHistorialTest {
+
+    // Con nanosegundos: la base la guarda redondeada a microsegundos
+    private static final LocalDateTime FECHA = LocalDateTime.of(2024, 6, 11, 12, 0, 0, 123_456_789);
+
+    @Autowired
+    private HistorialRepository historialRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    Path directorio;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private Path archivo;
+    private EscrituraDiferidaHistorial escritura;
+
+    @BeforeEach
+    void configurar() {
+        archivo = directorio.resolve("historial-pendiente.log");
+        escritura = new EscrituraDiferidaHistorial();
+        ReflectionTestUtils.setField(escritura, "historialRepository", historialRepository);
+        ReflectionTestUtils.setField(escritura, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(escritura, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(escritura, "habilitada", true);
+        ReflectionTestUtils.setField(escritura, "capacidad", 10_000);
+        ReflectionTestUtils.setField(escritura, "tamanoLote", 500);
+        ReflectionTestUtils.setField(escritura, "esperaMaxima", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(escritura, "esperaCierre", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(escritura, "archivoRespaldo", archivo);
+    }
+
+    @AfterEach
+    void limpiar() {
+        historialRepository.deleteAll();
+    }
+
+    @Test
+    void recuperaLosRegistrosSinConfirmarSinDuplicarLosYaInsertados() throws Exception {
+        // El 2 llegó a la base pero el proceso cayó antes de su marca "C"; la última línea quedó a medias
+        historialRepository.save(historial(2));
+        Files.writeString(archivo,
+            anotacion(1) + "\n" + anotacion(2) + "\n" + anotacion(3) + "\n" + "C 1\n" + "R 4 {\"clienteId\":");
+
+        escritura.iniciar();
+        escritura.detener();
+
+        List<Long> clientes = historialRepository.findAll().stream()
+            .map(HistorialEvaluacion::getClienteId).sorted().toList();
+        assertEquals(List.of(2L, 3L), clientes);
+        // Todo lo anotado quedó confirmado: el respaldo se compacta
+        assertEquals(0, Files.size(archivo));
+    }
+
+    @Test
+    void cierreVaciaLaColaEnVariosLotesYCompactaElRespaldo() throws Exception {
+        escritura.iniciar();
+        for (int i = 0; i < 1_200; i++) {
+            assertTrue(escritura.encolar(historial(i)));
+        }
+        escritura.detener();
+
+        assertEquals(1_200, historialRepository.count());
+        assertEquals(0, Files.size(archivo));
+    }
+
+    @Test
+    void colaLlenaDevuelveElRegistroAlLlamador() throws Exception {
+        ReflectionTestUtils.setField(escritura, "capacidad", 1);
+        escritura.iniciar();
+
+        // El hueco se reserva al encolar y solo se libera tras el COMMIT y la inserción del lote
+        List<Boolean> encolados = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            encolados.add(escritura.encolar(historial(1)));
+            encolados.add(escritura.encolar(historial(2)));
+        });
+        escritura.detener();
+
+        assertEquals(List.of(true, false), encolados);
+        assertEquals(1, historialRepository.count());
+    }
+
+    @Test
+    void respaldoFallidoTrasElCommitSeGuardaEnUnaTransaccionNueva() throws Exception {
+        escritura.iniciar();
+        // Sin el módulo de java.time la fecha no se serializa y la anotación en el respaldo falla
+        ReflectionTestUtils.setField(escritura, "objectMapper", new ObjectMapper());
+
+        transactionTemplate.executeWithoutResult(status -> assertTrue(escritura.encolar(historial(1))));
+        escritura.detener();
+
+        // Guardado en el propio hilo durante afterCompletion, sin pasar por la cola ni el respaldo
+        assertEquals(1, historialRepository.count());
+        assertEquals(0, Files.size(archivo));
+    }
+
+    private String anotacion(long cliente) throws IOException {
+        return "R " + cliente + " " + objectMapper.writeValueAsString(historial(cliente));
+    }
+
+    private static HistorialEvaluacion historial(long cliente) {
+        HistorialEvaluacion historial = new HistorialEvaluacion();
+        historial.setClienteId(cliente);
+        historial.setTipoCliente("NATURAL");
+        historial.setNivelRiesgo("BAJO");
+        historial.setPuntaje(new BigDecimal("80.00"));
+        historial.setFechaEvaluacion(FECHA);
+        historial.setAprobado(true);
+        return historial;
+    }
+}
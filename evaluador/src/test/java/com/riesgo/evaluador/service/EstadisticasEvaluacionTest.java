@@ -0,0 +1,185 @@
+package com.riesgo.evaluador.service;
+
+import com.riesgo.evaluador.dto.EstadisticasDTO;
+import com.riesgo.evaluador.model.HistorialEvaluacion;
+import com.riesgo.evaluador.model.ResultadoEvaluacion;
+import com.riesgo.evaluador.repository.HistorialRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Contadores de estadísticas sobre H2: solo cuentan las evaluaciones confirmadas, la
+ * reconciliación con la base no pierde lo que se confirma mientras consulta y la ventana de días
+ * retenidos se corta con el reloj de la aplicación.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.datasource.url=jdbc:h2:mem:estadisticas;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=create",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.show_sql=false",
+    "evaluacion.cache.habilitada=false"
+})
+class EstadisticasEvaluacionTest {
+
+    @Autowired
+    private EstadisticasEvaluacion estadisticas;
+
+    @Autowired
+    private HistorialRepository historialRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Clock reloj;
+
+    @AfterEach
+    void limpiar() {
+        ReflectionTestUtils.setField(estadisticas, "reloj", reloj);
+        ReflectionTestUtils.setField(estadisticas, "diasRetenidos", 90);
+        ReflectionTestUtils.setField(estadisticas, "historialRepository", historialRepository);
+        historialRepository.deleteAllInBatch();
+        estadisticas.reconciliar();
+    }
+
+    @Test
+    void cuentaLoConfirmadoYDescartaLoRevertido() {
+        transactionTemplate.executeWithoutResult(status -> {
+            estadisticas.registrar("NATURAL", resultado("BAJO", true));
+            // Hasta el COMMIT no se cuenta
+            assertEquals(0, total());
+        });
+        assertEquals(1, total());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            estadisticas.registrar("NATURAL", resultado("BAJO", true));
+            status.setRollbackOnly();
+        });
+        EstadisticasDTO tras = estadisticas.obtener();
+        assertEquals(1, tras.getTotal().getEvaluaciones());
+        assertEquals(1, tras.getPorNivelRiesgo().get("BAJO").getEvaluaciones());
+        assertEquals(1, tras.getPorTipoCliente().get("NATURAL").getAprobadas());
+    }
+
+    @Test
+    void reconciliarConservaLoConfirmadoDuranteLasConsultas() {
+        historialRepository.save(historial("BAJO", true));
+        historialRepository.save(historial("ALTO", false));
+        estadisticas.reconciliar();
+        assertEquals(2, total());
+
+        // Una evaluación se confirma después de la última consulta y antes de aplicar la diferencia
+        HistorialRepository intercalado = mock(HistorialRepository.class, delegatesTo(historialRepository));
+        doAnswer(invocacion -> {
+            List<Object[]> filas = historialRepository.resumirPorDiaDesde(invocacion.getArgument(0));
+            historialRepository.save(historial("MEDIO", true));
+            estadisticas.registrar("NATURAL", resultado("MEDIO", true));
+            return filas;
+        }).doAnswer(delegatesTo(historialRepository)).when(intercalado).resumirPorDiaDesde(any());
+        ReflectionTestUtils.setField(estadisticas, "historialRepository", intercalado);
+
+        estadisticas.reconciliar();
+        EstadisticasDTO tras = estadisticas.obtener();
+        assertEquals(3, tras.getTotal().getEvaluaciones());
+        assertEquals(1, tras.getPorNivelRiesgo().get("MEDIO").getEvaluaciones());
+        assertEquals(3, tras.getPorDia().values().stream()
+            .mapToLong(EstadisticasDTO.ResumenDTO::getEvaluaciones).sum());
+
+        // La siguiente reconciliación ya encuentra la fila en la base y no cambia nada
+        estadisticas.reconciliar();
+        assertEquals(3, total());
+        assertEquals(2, estadisticas.obtener().getTotal().getAprobadas());
+    }
+
+    @Test
+    void reconciliarCorrigeLoQueNoLlegoALaBase() {
+        estadisticas.registrar("JURIDICA", resultado("ALTO", false));
+        historialRepository.save(historial("BAJO", true));
+
+        estadisticas.reconciliar();
+
+        EstadisticasDTO tras = estadisticas.obtener();
+        assertEquals(1, tras.getTotal().getEvaluaciones());
+        assertEquals(0, tras.getPorNivelRiesgo().get("ALTO").getEvaluaciones());
+        assertEquals(0, tras.getPorTipoCliente().get("JURIDICA").getEvaluaciones());
+        assertEquals(1, tras.getPorTipoCliente().get("NATURAL").getEvaluaciones());
+    }
+
+    @Test
+    void ventanaDeDiasSeCortaALaMedianocheDelReloj() {
+        ReflectionTestUtils.setField(estadisticas, "diasRetenidos", 2);
+        LocalDate ayer = LocalDate.of(2024, 6, 10);
+        LocalDate hoy = LocalDate.of(2024, 6, 11);
+        usarReloj(hoy.atTime(23, 59, 59));
+
+        for (LocalDate dia : List.of(ayer.minusDays(1), ayer, hoy)) {
+            estadisticas.registrar("NATURAL", resultado("BAJO", true, dia.atTime(12, 0)));
+            historialRepository.save(historial("BAJO", true, dia.atTime(12, 0)));
+        }
+        // Fuera de la ventana [ayer, hoy] el día se cuenta en los totales pero no se muestra
+        EstadisticasDTO antes = estadisticas.obtener();
+        assertEquals(3, antes.getTotal().getEvaluaciones());
+        assertEquals(List.of(ayer, hoy), List.copyOf(antes.getPorDia().keySet()));
+
+        // Un segundo después la ventana es [hoy, mañana]
+        usarReloj(hoy.plusDays(1).atStartOfDay());
+        assertEquals(List.of(hoy), List.copyOf(estadisticas.obtener().getPorDia().keySet()));
+
+        estadisticas.reconciliar();
+        EstadisticasDTO tras = estadisticas.obtener();
+        assertEquals(3, tras.getTotal().getEvaluaciones());
+        assertEquals(1, tras.getPorDia().get(hoy).getEvaluaciones());
+        assertNull(tras.getPorDia().get(ayer));
+        assertEquals(hoy.plusDays(1).atStartOfDay(), tras.getUltimaReconciliacion());
+    }
+
+    private void usarReloj(LocalDateTime instante) {
+        ZoneId zona = ZoneId.systemDefault();
+        ReflectionTestUtils.setField(estadisticas, "reloj", Clock.fixed(instante.atZone(zona).toInstant(), zona));
+    }
+
+    private long total() {
+        return estadisticas.obtener().getTotal().getEvaluaciones();
+    }
+
+    private static ResultadoEvaluacion resultado(String nivel, boolean aprobado) {
+        return resultado(nivel, aprobado, LocalDateTime.now());
+    }
+
+    private static ResultadoEvaluacion resultado(String nivel, boolean aprobado, LocalDateTime fecha) {
+        return ResultadoEvaluacion.crear(nivel, new BigDecimal("70.00"), null, aprobado, null, null, null, null, fecha);
+    }
+
+    private static HistorialEvaluacion historial(String nivel, boolean aprobado) {
+        return historial(nivel, aprobado, LocalDateTime.now());
+    }
+
+    private static HistorialEvaluacion historial(String nivel, boolean aprobado, LocalDateTime fecha) {
+        HistorialEvaluacion historial = new HistorialEvaluacion();
+        historial.setClienteId(1L);
+        historial.setTipoCliente("NATURAL");
+        historial.setNivelRiesgo(nivel);
+        historial.setPuntaje(new BigDecimal("70.00"));
+        historial.setFechaEvaluacion(fecha);
+        historial.setAprobado(aprobado);
+        return historial;
+    }
+}
@@ -0,0 +1,109 @@
+package com.riesgo.evaluador.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riesgo.evaluador.dto.EvaluacionRequestDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Nombres y etiquetas de las métricas de evaluación tal como las publica /actuator/prometheus.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:metricas;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=create",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.show_sql=false"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricasEvaluacionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void prometheusPublicaEtapasResultadosDeudasYCache() throws Exception {
+        // Dos /evaluar idénticos (el segundo desde la cache) y un lote de dos solicitudes en un bloque
+        evaluar("/api/evaluacion/evaluar", solicitud("M-1"));
+        evaluar("/api/evaluacion/evaluar", solicitud("M-1"));
+        evaluar("/api/evaluacion/evaluar/lote", List.of(solicitud("M-2"), solicitud("M-3")));
+
+        String texto = mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        for (String etapa : List.of("validacion", "persistencia_cliente", "seleccion_evaluador", "puntaje",
+                                    "persistencia_historial", "total")) {
+            assertEquals(1.0, valor(texto, "evaluacion_etapa_seconds_count",
+                "application=\"evaluador\"", "etapa=\"" + etapa + "\"", "lote=\"false\""), etapa);
+        }
+        // En el lote la persistencia se mide por bloque y el resto por solicitud
+        assertEquals(1.0, valor(texto, "evaluacion_etapa_seconds_count",
+            "etapa=\"persistencia_cliente\"", "lote=\"true\""));
+        assertEquals(2.0, valor(texto, "evaluacion_etapa_seconds_count", "etapa=\"puntaje\"", "lote=\"true\""));
+        assertTrue(valor(texto, "evaluacion_etapa_seconds_bucket", "etapa=\"total\"", "le=\"+Inf\"") > 0);
+
+        assertEquals(3.0, valor(texto, "evaluacion_resultados_total",
+            "tipoCliente=\"NATURAL\"", "nivelRiesgo=", "evaluador=\"EvaluadorRiesgo", "aprobado="));
+        assertEquals(3.0, valor(texto, "evaluacion_deudas_count"));
+        // Buckets SLO del resumen de deudas: las tres solicitudes traen una línea
+        assertEquals(3.0, valor(texto, "evaluacion_deudas_bucket", "le=\"1.0\""));
+        assertEquals(3.0, valor(texto, "evaluacion_deudas_bucket", "le=\"100.0\""));
+
+        assertEquals(1.0, valor(texto, "cache_gets_total", "cache=\"evaluaciones\"", "result=\"hit\""));
+        assertEquals(1.0, valor(texto, "cache_gets_total", "cache=\"evaluaciones\"", "result=\"miss\""));
+    }
+
+    private void evaluar(String ruta, Object cuerpo) throws Exception {
+        mockMvc.perform(post(ruta)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cuerpo)))
+            .andExpect(status().isOk());
+    }
+
+    // Suma las series de la métrica que llevan todas las etiquetas indicadas
+    private static double valor(String texto, String metrica, String... etiquetas) {
+        return texto.lines()
+            .filter(linea -> linea.startsWith(metrica + "{"))
+            .filter(linea -> Arrays.stream(etiquetas).allMatch(linea::contains))
+            .mapToDouble(linea -> Double.parseDouble(linea.substring(linea.lastIndexOf(' ') + 1)))
+            .sum();
+    }
+
+    private static EvaluacionRequestDTO solicitud(String documento) {
+        EvaluacionRequestDTO request = new EvaluacionRequestDTO();
+        request.setNombre("Cliente " + documento);
+        request.setDocumento(documento);
+        request.setTipoCliente("NATURAL");
+        request.setIngresos(new BigDecimal("5200.00"));
+        request.setMontoSolicitado(new BigDecimal("10000.00"));
+        request.setPlazoEnMeses(24);
+        request.setPuntajeCrediticio(700);
+        request.setFechaNacimiento(LocalDate.of(1985, 5, 20));
+        request.setEstadoCivil("SOLTERO");
+        request.setNumeroDependientes(0);
+        request.setDeudas(List.of(new EvaluacionRequestDTO.DeudaDTO(
+            "TARJETA", new BigDecimal("1500.00"), LocalDate.of(2026, 12, 31), 0, 12)));
+        return request;
+    }
+}
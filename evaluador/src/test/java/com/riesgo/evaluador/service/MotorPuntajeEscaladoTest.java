@@ -0,0 +1,160 @@
+package com.riesgo.evaluador.service;
+
+import com.riesgo.evaluador.model.Cliente;
+import com.riesgo.evaluador.model.ContextoEvaluacion;
+import com.riesgo.evaluador.model.Deuda;
+import com.riesgo.evaluador.model.PersonaJuridica;
+import com.riesgo.evaluador.model.PersonaNatural;
+import com.riesgo.evaluador.model.ResultadoEvaluacion;
+import com.riesgo.evaluador.model.SectorEconomico;
+import com.riesgo.evaluador.model.SolicitudPuntaje;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MotorPuntajeEscaladoTest {
+
+    private static final Clock RELOJ = Clock.fixed(Instant.parse("2024-06-11T12:00:00Z"), ZoneOffset.UTC);
+
+    private static final String[] SECTORES = {
+        "MINERIA", "AGRICULTURA", "ENTRETENIMIENTO", "CONSTRUCCION", "TURISMO",
+        "TECNOLOGIA", "SERVICIOS", "COMERCIO", null,
+        // Variantes de texto libre que deben resolver al mismo sector del catálogo
+        "Tecnología", "construcción", " Mineria ", "SECTOR_INEXISTENTE"
+    };
+
+    // Ratios en los bordes de los umbrales, antes y después del redondeo a 4 decimales
+    private static final String[] RATIOS_BORDE = {
+        "0.39995", "0.40004", "0.40005", "0.50004", "0.50005", "0.60004", "0.60005",
+        "3.60060", "3.60059", "4.20060", "4.20059", "0", "1"
+    };
+
+    private final MotorPuntajeEscalado motor = new MotorPuntajeEscalado();
+    private final EvaluadorRiesgo[] evaluadores = {
+        new EvaluadorRiesgoBajo(), new EvaluadorRiesgoMedio(), new EvaluadorRiesgoAlto()
+    };
+
+    @Test
+    void coincideConEvaluadoresBigDecimalEnClientesAleatorios() {
+        Random random = new Random(20240611L);
+        for (int i = 0; i < 20_000; i++) {
+            Cliente cliente = random.nextBoolean() ? personaNatural(random) : personaJuridica(random);
+            ContextoEvaluacion contexto = ContextoEvaluacion.de(cliente, RELOJ);
+            for (EvaluadorRiesgo evaluador : evaluadores) {
+                ResultadoEvaluacion esperado = evaluador.evaluar(cliente, contexto);
+                ResultadoEvaluacion obtenido = motor.evaluar(cliente, evaluador, contexto);
+                assertMismoResultado(esperado, obtenido, "iteración " + i + ", " + evaluador.getClass().getSimpleName());
+            }
+        }
+    }
+
+    @Test
+    void solicitudArmadaSinEntidadPuntuaIgualQueLaAdaptadaDelCliente() {
+        Random random = new Random(20240612L);
+        for (int i = 0; i < 2_000; i++) {
+            Cliente cliente = random.nextBoolean() ? personaNatural(random) : personaJuridica(random);
+            SolicitudPuntaje desdeCliente = SolicitudPuntaje.de(cliente, ContextoEvaluacion.de(cliente, RELOJ));
+            // Mismos datos, con el total y la mora calculados por el registro a partir de los arrays
+            SolicitudPuntaje armada = new SolicitudPuntaje(
+                desdeCliente.tipoCliente(), desdeCliente.ingresos(), desdeCliente.montoSolicitado(),
+                desdeCliente.plazoEnMeses(), desdeCliente.puntajeCrediticio(), desdeCliente.edad(),
+                desdeCliente.numeroDependientes(), desdeCliente.anosConstitucion(), desdeCliente.numeroEmpleados(),
+                desdeCliente.sector(), desdeCliente.montosDeudas(), desdeCliente.diasMoraDeudas(),
+                desdeCliente.fechaEvaluacion());
+            for (EvaluadorRiesgo evaluador : evaluadores) {
+                String caso = "iteración " + i + ", " + evaluador.getClass().getSimpleName();
+                assertMismoResultado(evaluador.evaluar(desdeCliente), motor.evaluar(armada, evaluador), caso);
+            }
+        }
+    }
+
+    private void assertMismoResultado(ResultadoEvaluacion esperado, ResultadoEvaluacion obtenido, String caso) {
+        assertEquals(esperado.getNivelRiesgo(), obtenido.getNivelRiesgo(), caso);
+        assertEquals(esperado.getPuntaje(), obtenido.getPuntaje(), caso);
+        assertEquals(esperado.getObservaciones(), obtenido.getObservaciones(), caso);
+        assertEquals(esperado.isAprobado(), obtenido.isAprobado(), caso);
+        assertEquals(esperado.getMontoMaximoCredito(), obtenido.getMontoMaximoCredito(), caso);
+        assertEquals(esperado.getTasaInteres(), obtenido.getTasaInteres(), caso);
+        assertEquals(esperado.getPlazoAprobado(), obtenido.getPlazoAprobado(), caso);
+        assertEquals(esperado.getMensaje(), obtenido.getMensaje(), caso);
+        assertEquals(esperado.getFechaEvaluacion(), obtenido.getFechaEvaluacion(), caso);
+    }
+
+    private PersonaNatural personaNatural(Random random) {
+        PersonaNatural pn = new PersonaNatural();
+        pn.setFechaNacimiento(LocalDate.now(RELOJ).minusYears(18 + random.nextInt(60)).minusDays(random.nextInt(365)));
+        pn.setNumeroDependientes(random.nextInt(8) == 0 ? null : random.nextInt(7));
+        pn.setEstadoCivil("SOLTERO");
+        completarDatosComunes(pn, random);
+        return pn;
+    }
+
+    private PersonaJuridica personaJuridica(Random random) {
+        PersonaJuridica pj = new PersonaJuridica();
+        pj.setFechaConstitucion(random.nextInt(10) == 0 ? null : LocalDate.now(RELOJ).minusDays(random.nextInt(365 * 15)));
+        pj.setSectorEconomico(SECTORES[random.nextInt(SECTORES.length)]);
+        pj.setSector(SectorEconomico.buscar(pj.getSectorEconomico()));
+        pj.setNumeroEmpleados(random.nextInt(8) == 0 ? null : random.nextInt(12));
+        completarDatosComunes(pj, random);
+        return pj;
+    }
+
+    private void completarDatosComunes(Cliente cliente, Random random) {
+        BigDecimal ingresos = monto(random, 100, 20_000);
+        cliente.setNombre("Cliente");
+        cliente.setDocumento(Long.toString(random.nextLong()));
+        cliente.setIngresos(ingresos);
+        cliente.setMontoSolicitado(random.nextInt(10) == 0 ? null : montoSegunRatio(random, ingresos));
+        cliente.setPlazoEnMeses(random.nextInt(10) == 0 ? null : 1 + random.nextInt(72));
+        cliente.setPuntajeCrediticio(random.nextInt(10) == 0 ? null : 500 + random.nextInt(300));
+
+        List<Deuda> deudas = new ArrayList<>();
+        int cantidad = random.nextInt(6);
+        if (cantidad == 1) {
+            // Una sola deuda que deja el ratio exactamente en un borde
+            deudas.add(deuda(random, montoSegunRatio(random, ingresos)));
+        } else {
+            for (int d = 0; d < cantidad; d++) {
+                deudas.add(deuda(random, monto(random, 1, 8_000)));
+            }
+        }
+        deudas.forEach(deuda -> deuda.setCliente(cliente));
+        cliente.setDeudas(deudas);
+    }
+
+    private Deuda deuda(Random random, BigDecimal monto) {
+        Deuda deuda = new Deuda();
+        deuda.setTipo("CONSUMO");
+        deuda.setMonto(monto);
+        deuda.setDiasMora(random.nextInt(5) == 0 ? 1 + random.nextInt(90) : 0);
+        deuda.setPlazoMeses(12);
+        return deuda;
+    }
+
+    private BigDecimal montoSegunRatio(Random random, BigDecimal ingresos) {
+        if (random.nextBoolean()) {
+            return monto(random, 1, 30_000);
+        }
+        BigDecimal ratio = new BigDecimal(RATIOS_BORDE[random.nextInt(RATIOS_BORDE.length)]);
+        BigDecimal monto = ingresos.multiply(ratio).setScale(2, RoundingMode.HALF_UP);
+        return monto.signum() > 0 ? monto : new BigDecimal("0.01");
+    }
+
+    // Montos con 0, 1 o 2 decimales, y ocasionalmente 3 para forzar el camino BigDecimal
+    private BigDecimal monto(Random random, int minimo, int maximo) {
+        int escala = random.nextInt(20) == 0 ? 3 : random.nextInt(3);
+        long unidades = minimo + random.nextInt(maximo - minimo);
+        long fraccion = escala == 0 ? 0 : random.nextInt((int) Math.pow(10, escala));
+        return BigDecimal.valueOf(unidades).add(BigDecimal.valueOf(fraccion, escala));
+    }
+}
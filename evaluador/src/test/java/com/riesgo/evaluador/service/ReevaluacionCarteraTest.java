@@ -0,0 +1,193 @@
+package com.riesgo.evaluador.service;
+
+import com.riesgo.evaluador.model.Cliente;
+import com.riesgo.evaluador.model.Deuda;
+import com.riesgo.evaluador.model.HistorialEvaluacion;
+import com.riesgo.evaluador.model.PersonaNatural;
+import com.riesgo.evaluador.model.Reevaluacion;
+import com.riesgo.evaluador.repository.ClienteRepository;
+import com.riesgo.evaluador.repository.HistorialRepository;
+import com.riesgo.evaluador.repository.ReevaluacionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reevaluación de cartera sobre H2 en páginas de 3 clientes: reanudación desde el punto de
+ * control, rechazo si las reglas cambiaron y comparación con la última evaluación previa.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.datasource.url=jdbc:h2:mem:reevaluacion;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=create",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.show_sql=false",
+    "evaluacion.reevaluacion.tamano-pagina=3",
+    "evaluacion.reevaluacion.paralelismo=2"
+})
+class ReevaluacionCarteraTest {
+
+    private static final int CLIENTES = 7;
+
+    @Autowired
+    private ReevaluacionCartera reevaluacionCartera;
+
+    @Autowired
+    private ReevaluacionRepository reevaluacionRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private HistorialRepository historialRepository;
+
+    @Autowired
+    private ReglasEvaluacion reglasEvaluacion;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void crearCartera() {
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 0; i < CLIENTES; i++) {
+            clientes.add(natural(i));
+        }
+        clienteRepository.saveAll(clientes).forEach(cliente -> ids.add(cliente.getId()));
+    }
+
+    @AfterEach
+    void limpiar() {
+        historialRepository.deleteAllInBatch();
+        reevaluacionRepository.deleteAllInBatch();
+        clienteRepository.deleteAll();
+    }
+
+    @Test
+    void reanudaDesdeElUltimoClienteConfirmado() throws InterruptedException {
+        // Ejecución detenida tras la primera página (3 clientes)
+        Reevaluacion detenida = pendiente(reglasEvaluacion.actual().getVersion());
+        detenida.setUltimoClienteId(ids.get(2));
+        detenida.setProcesados(3);
+        detenida = reevaluacionRepository.save(detenida);
+
+        assertEquals(detenida.getId(), reevaluacionCartera.iniciar(false).getId());
+        Reevaluacion terminada = esperarFin();
+
+        assertEquals(detenida.getId(), terminada.getId());
+        assertEquals(Reevaluacion.Estado.COMPLETADA, terminada.getEstado());
+        assertEquals(CLIENTES, terminada.getProcesados());
+        assertEquals(ids.get(CLIENTES - 1), terminada.getUltimoClienteId());
+        assertEquals(ids.subList(3, CLIENTES), clientesEvaluadosPor(terminada.getId()));
+    }
+
+    @Test
+    void reglasCambiadasImpidenReanudarHastaIniciarUnaNueva() throws InterruptedException {
+        Reevaluacion anterior = reevaluacionRepository.save(pendiente("version-anterior"));
+
+        assertThrows(IllegalStateException.class, () -> reevaluacionCartera.iniciar(false));
+        assertEquals(Reevaluacion.Estado.DETENIDA, estado(anterior));
+
+        reevaluacionCartera.iniciar(true);
+        Reevaluacion nueva = esperarFin();
+
+        assertEquals(Reevaluacion.Estado.CANCELADA, estado(anterior));
+        assertEquals(reglasEvaluacion.actual().getVersion(), nueva.getVersionReglas());
+        assertEquals(CLIENTES, nueva.getProcesados());
+        assertEquals(ids, clientesEvaluadosPor(nueva.getId()));
+    }
+
+    @Test
+    void cuentaLosCambiosRespectoDeLaUltimaEvaluacion() throws InterruptedException {
+        reevaluacionCartera.iniciar(true);
+        Reevaluacion primera = esperarFin();
+        assertEquals(CLIENTES, primera.getSinHistorialPrevio());
+        assertEquals(0, primera.getCambiosNivel());
+        assertEquals(0, primera.getCambiosAprobacion());
+
+        // Última evaluación previa distinta en nivel y aprobación para uno, inexistente para otro
+        List<HistorialEvaluacion> historial = historialRepository.findAll();
+        HistorialEvaluacion cambiado = historial.stream()
+            .filter(h -> h.getClienteId().equals(ids.get(0))).findFirst().orElseThrow();
+        cambiado.setNivelRiesgo("OTRO");
+        cambiado.setAprobado(!cambiado.isAprobado());
+        historialRepository.save(cambiado);
+        historialRepository.deleteAll(historial.stream()
+            .filter(h -> h.getClienteId().equals(ids.get(1))).toList());
+
+        reevaluacionCartera.iniciar(true);
+        Reevaluacion segunda = esperarFin();
+
+        assertEquals(CLIENTES, segunda.getProcesados());
+        assertEquals(1, segunda.getCambiosNivel());
+        assertEquals(1, segunda.getCambiosAprobacion());
+        assertEquals(1, segunda.getSinHistorialPrevio());
+    }
+
+    // Espera a que el hilo de la reevaluación termine y devuelve el punto de control final
+    private Reevaluacion esperarFin() throws InterruptedException {
+        AtomicReference<?> enCurso = (AtomicReference<?>) ReflectionTestUtils.getField(
+            reevaluacionCartera, "enCurso");
+        long limite = System.nanoTime() + 30_000_000_000L;
+        while (enCurso.get() != null) {
+            assertTrue(System.nanoTime() < limite, "La reevaluación no terminó");
+            Thread.sleep(20);
+        }
+        return reevaluacionRepository.findFirstByOrderByIdDesc().orElseThrow();
+    }
+
+    private Reevaluacion.Estado estado(Reevaluacion reevaluacion) {
+        return reevaluacionRepository.findById(reevaluacion.getId()).orElseThrow().getEstado();
+    }
+
+    private List<Long> clientesEvaluadosPor(Long reevaluacionId) {
+        return historialRepository.findAll().stream()
+            .filter(h -> reevaluacionId.equals(h.getReevaluacionId()))
+            .map(HistorialEvaluacion::getClienteId)
+            .sorted()
+            .toList();
+    }
+
+    private Reevaluacion pendiente(String versionReglas) {
+        LocalDateTime ahora = LocalDateTime.now();
+        Reevaluacion reevaluacion = new Reevaluacion();
+        reevaluacion.setEstado(Reevaluacion.Estado.DETENIDA);
+        reevaluacion.setVersionReglas(versionReglas);
+        reevaluacion.setMotor("escalado");
+        reevaluacion.setFechaEvaluacion(ahora);
+        reevaluacion.setClienteIdHasta(ids.get(CLIENTES - 1));
+        reevaluacion.setTotalClientes(CLIENTES);
+        reevaluacion.setUltimoClienteId(0L);
+        reevaluacion.setFechaInicio(ahora);
+        reevaluacion.setFechaActualizacion(ahora);
+        return reevaluacion;
+    }
+
+    private static PersonaNatural natural(int i) {
+        PersonaNatural natural = new PersonaNatural();
+        natural.setNombre("Cliente " + i);
+        natural.setDocumento("REEV-" + i);
+        natural.setIngresos(BigDecimal.valueOf(2000 + 500 * i));
+        natural.setFechaNacimiento(LocalDate.of(1975, 1, 1).plusYears(i));
+        natural.setNumeroDependientes(i % 3);
+        Deuda deuda = new Deuda();
+        deuda.setTipo("CONSUMO");
+        deuda.setMonto(BigDecimal.valueOf(300 * (i + 1)));
+        deuda.setDiasMora(i % 4 == 0 ? 45 : 0);
+        deuda.setCliente(natural);
+        natural.setDeudas(new ArrayList<>(List.of(deuda)));
+        return natural;
+    }
+}
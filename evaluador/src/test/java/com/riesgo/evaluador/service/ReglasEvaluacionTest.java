@@ -0,0 +1,132 @@
+package com.riesgo.evaluador.service;
+
+import com.riesgo.evaluador.model.SectorEconomico;
+import com.riesgo.evaluador.model.SolicitudPuntaje;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Archivo de reglas compilado en PlanEvaluacion: recarga en caliente, rechazo de archivos inválidos
+ * sin perder el plan vigente, y lo que se publica a partir del plan (/info, elección del evaluador).
+ */
+class ReglasEvaluacionTest {
+
+    @TempDir
+    Path directorio;
+
+    private Path archivo;
+    private String reglasIncluidas;
+    private ReglasEvaluacion reglas;
+    private CalculoRiesgo calculo;
+
+    @BeforeEach
+    void cargarReglas() throws IOException {
+        try (InputStream entrada = new ClassPathResource(ReglasEvaluacion.ARCHIVO_POR_DEFECTO).getInputStream()) {
+            reglasIncluidas = new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        archivo = directorio.resolve("reglas.yaml");
+        Files.writeString(archivo, reglasIncluidas);
+
+        reglas = new ReglasEvaluacion();
+        ReflectionTestUtils.setField(reglas, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(reglas, "archivo", "file:" + archivo);
+        reglas.inicializar();
+
+        calculo = new CalculoRiesgo();
+        ReflectionTestUtils.setField(calculo, "evaluadorBajo", new EvaluadorRiesgoBajo());
+        ReflectionTestUtils.setField(calculo, "evaluadorMedio", new EvaluadorRiesgoMedio());
+        ReflectionTestUtils.setField(calculo, "evaluadorAlto", new EvaluadorRiesgoAlto());
+        ReflectionTestUtils.setField(calculo, "motorEscalado", new MotorPuntajeEscalado(reglas));
+    }
+
+    @Test
+    void recargarPublicaElPlanNuevoYCambiaLaEleccionDelEvaluador() throws IOException {
+        SolicitudPuntaje ratioMedio = solicitud("1000", "450");
+        assertInstanceOf(EvaluadorRiesgoMedio.class, calculo.seleccionarEvaluador(ratioMedio));
+
+        Files.writeString(archivo, reglasIncluidas
+            .replace("version: \"2024.06-2\"", "version: \"prueba-2\"")
+            .replace("ratioMedio: \"0.4\"", "ratioMedio: \"0.5\""));
+        PlanEvaluacion recargado = reglas.recargar();
+
+        assertSame(recargado, reglas.actual());
+        assertEquals("prueba-2", reglas.actual().getVersion());
+        assertEquals(new BigDecimal("0.5"), reglas.actual().getRatioEvaluadorMedio());
+        assertInstanceOf(EvaluadorRiesgoBajo.class, calculo.seleccionarEvaluador(ratioMedio));
+    }
+
+    @Test
+    void motorClasicoEligeYPuntuaConSusReglasFijasAunqueElArchivoCambie() throws IOException {
+        ReflectionTestUtils.setField(calculo, "motor", "clasico");
+        Files.writeString(archivo, reglasIncluidas.replace("ratioMedio: \"0.4\"", "ratioMedio: \"0.5\""));
+        reglas.recargar();
+
+        // Ratio 0.45: BAJO para el archivo recargado, MEDIO para los ratios fijos del motor clásico
+        SolicitudPuntaje ratioMedio = solicitud("1000", "450");
+        EvaluadorRiesgo evaluador = calculo.seleccionarEvaluador(ratioMedio);
+        assertInstanceOf(EvaluadorRiesgoMedio.class, evaluador);
+        assertEquals(new BigDecimal("0.4"), calculo.ratioEvaluadorMedio());
+        assertEquals(new EvaluadorRiesgoMedio().evaluar(ratioMedio), calculo.puntuar(evaluador, ratioMedio));
+    }
+
+    @Test
+    void archivoInvalidoSeRechazaYSeConservaElPlanVigente() throws IOException {
+        PlanEvaluacion vigente = reglas.actual();
+
+        // Ratios de selección invertidos
+        Files.writeString(archivo, reglasIncluidas.replace("ratioMedio: \"0.4\"", "ratioMedio: \"0.7\""));
+        assertThrows(IllegalArgumentException.class, reglas::recargar);
+        assertSame(vigente, reglas.actual());
+
+        // Sección obligatoria ausente
+        Files.writeString(archivo, reglasIncluidas.replaceAll("(?m)^seleccionEvaluador:\\n(  .*\\n)+", ""));
+        assertThrows(IllegalArgumentException.class, reglas::recargar);
+        assertSame(vigente, reglas.actual());
+
+        // YAML que no corresponde a la estructura de reglas
+        Files.writeString(archivo, "version: \"roto\"\ncampoInexistente: 1\n");
+        assertThrows(IllegalArgumentException.class, reglas::recargar);
+        assertSame(vigente, reglas.actual());
+    }
+
+    @Test
+    void ajustesPorSectorDelMotorClasicoSonLosDelArchivoIncluido() throws IOException {
+        Files.writeString(archivo, reglasIncluidas.replace(
+            "{ campo: SECTOR, en: [TECNOLOGIA, SERVICIOS] } ], ajuste: 5", "{ campo: SECTOR, en: [TECNOLOGIA, SERVICIOS] } ], ajuste: 9"));
+        reglas.recargar();
+        assertEquals(9, calculo.ajusteSector("BAJO", SectorEconomico.TECNOLOGIA));
+
+        ReflectionTestUtils.setField(calculo, "motor", "clasico");
+        PlanEvaluacion incluido = ReglasEvaluacion.cargarPorDefecto();
+        for (SectorEconomico sector : SectorEconomico.values()) {
+            for (String nivel : new String[] {"BAJO", "MEDIO", "ALTO"}) {
+                assertEquals(incluido.ajusteSector(nivel, sector), calculo.ajusteSector(nivel, sector), nivel + " " + sector);
+            }
+        }
+        assertEquals(5, calculo.ajusteSector("BAJO", SectorEconomico.TECNOLOGIA));
+        assertEquals(-5, calculo.ajusteSector("ALTO", SectorEconomico.MINERIA));
+    }
+
+    private static SolicitudPuntaje solicitud(String ingresos, String deuda) {
+        return new SolicitudPuntaje(SolicitudPuntaje.NATURAL, new BigDecimal(ingresos), new BigDecimal("1000"), 12,
+            700, 35, 0, null, null, null,
+            new BigDecimal[] {new BigDecimal(deuda)}, new int[] {0}, LocalDateTime.of(2024, 6, 11, 12, 0));
+    }
+}
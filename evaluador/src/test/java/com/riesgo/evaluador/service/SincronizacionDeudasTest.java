@@ -0,0 +1,162 @@
+package com.riesgo.evaluador.service;
+
+import com.riesgo.evaluador.dto.EvaluacionRequestDTO;
+import com.riesgo.evaluador.model.Deuda;
+import com.riesgo.evaluador.repository.ClienteRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reevaluación de un documento ya registrado: las deudas de la solicitud se emparejan con las
+ * guardadas por contenido (monto sin ceros de escala) y luego por tipo y vencimiento, de modo que
+ * solo las líneas que cambian generan INSERT, UPDATE o DELETE.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.datasource.url=jdbc:h2:mem:sincronizacion;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.hibernate.ddl-auto=create",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.show_sql=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "evaluacion.cache.habilitada=false"
+})
+class SincronizacionDeudasTest {
+
+    private static final LocalDate VENCE_2026 = LocalDate.of(2026, 12, 31);
+    private static final LocalDate VENCE_2027 = LocalDate.of(2027, 6, 30);
+
+    @Autowired
+    private EvaluacionService evaluacionService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void prepararEstadisticas() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void lineasSinCambiosSeConservanAunqueElMontoCambieDeEscala() {
+        evaluar("S-1", deuda("TARJETA", "1500.00", VENCE_2026), deuda("HIPOTECARIA", "40000.50", VENCE_2027));
+        Map<String, Long> antes = idsPorTipo("S-1");
+
+        estadisticas.clear();
+        evaluar("S-1", deuda("TARJETA", "1500", VENCE_2026), deuda("HIPOTECARIA", "40000.500", VENCE_2027));
+
+        assertEquals(antes, idsPorTipo("S-1"));
+        assertEscriturasDeDeudas(0, 0, 0);
+    }
+
+    @Test
+    void lineasNuevasSeInsertanYLasQueFaltanSeBorran() {
+        evaluar("S-2", deuda("TARJETA", "1500.00", VENCE_2026), deuda("HIPOTECARIA", "40000.00", VENCE_2027));
+        Map<String, Long> antes = idsPorTipo("S-2");
+
+        estadisticas.clear();
+        evaluar("S-2", deuda("TARJETA", "1500.00", VENCE_2026), deuda("VEHICULAR", "8000.00", VENCE_2027));
+
+        Map<String, Long> despues = idsPorTipo("S-2");
+        assertEquals(List.of("TARJETA", "VEHICULAR"), despues.keySet().stream().sorted().toList());
+        assertEquals(antes.get("TARJETA"), despues.get("TARJETA"));
+        assertEscriturasDeDeudas(1, 0, 1);
+    }
+
+    @Test
+    void mismoTipoYVencimientoSeActualizaEnSitio() {
+        evaluar("S-3", deuda("TARJETA", "1500.00", VENCE_2026));
+        Long id = idsPorTipo("S-3").get("TARJETA");
+
+        estadisticas.clear();
+        evaluar("S-3", deuda("TARJETA", "900.00", VENCE_2026));
+
+        List<Deuda> deudas = deudas("S-3");
+        assertEquals(1, deudas.size());
+        assertEquals(id, deudas.get(0).getId());
+        assertEquals(0, new BigDecimal("900").compareTo(deudas.get(0).getMonto()));
+        assertEscriturasDeDeudas(0, 1, 0);
+    }
+
+    @Test
+    void lineasDuplicadasSeEmparejanUnaAUna() {
+        EvaluacionRequestDTO.DeudaDTO tarjeta = deuda("TARJETA", "250.00", VENCE_2026);
+        EvaluacionRequestDTO.DeudaDTO consumo = deuda("CONSUMO", "3000.00", VENCE_2027);
+        evaluar("S-4", tarjeta, tarjeta, consumo);
+        List<Long> tarjetas = idsDeTipo("S-4", "TARJETA");
+        assertEquals(2, tarjetas.size());
+
+        // Una de las dos líneas iguales sobra: se borra solo esa
+        estadisticas.clear();
+        evaluar("S-4", tarjeta, consumo);
+        List<Long> restante = idsDeTipo("S-4", "TARJETA");
+        assertEquals(1, restante.size());
+        assertTrue(tarjetas.contains(restante.get(0)));
+        assertEscriturasDeDeudas(0, 0, 1);
+
+        // Tres iguales contra una guardada: se conserva esa y se insertan dos
+        estadisticas.clear();
+        evaluar("S-4", tarjeta, tarjeta, tarjeta, consumo);
+        List<Long> tres = idsDeTipo("S-4", "TARJETA");
+        assertEquals(3, tres.size());
+        assertTrue(tres.contains(restante.get(0)));
+        assertEscriturasDeDeudas(2, 0, 0);
+    }
+
+    private void assertEscriturasDeDeudas(long inserciones, long actualizaciones, long borrados) {
+        EntityStatistics deudas = estadisticas.getEntityStatistics(Deuda.class.getName());
+        assertEquals(inserciones, deudas.getInsertCount(), "INSERT de deudas");
+        assertEquals(actualizaciones, deudas.getUpdateCount(), "UPDATE de deudas");
+        assertEquals(borrados, deudas.getDeleteCount(), "DELETE de deudas");
+    }
+
+    private void evaluar(String documento, EvaluacionRequestDTO.DeudaDTO... deudas) {
+        EvaluacionRequestDTO request = new EvaluacionRequestDTO();
+        request.setNombre("Cliente " + documento);
+        request.setDocumento(documento);
+        request.setTipoCliente("NATURAL");
+        request.setIngresos(new BigDecimal("5200.00"));
+        request.setMontoSolicitado(new BigDecimal("10000.00"));
+        request.setPlazoEnMeses(24);
+        request.setPuntajeCrediticio(700);
+        request.setFechaNacimiento(LocalDate.of(1985, 5, 20));
+        request.setEstadoCivil("SOLTERO");
+        request.setNumeroDependientes(0);
+        request.setDeudas(List.of(deudas));
+        evaluacionService.evaluar(request);
+    }
+
+    private List<Deuda> deudas(String documento) {
+        return clienteRepository.findConDeudasByDocumento(documento).orElseThrow().getDeudas();
+    }
+
+    private Map<String, Long> idsPorTipo(String documento) {
+        return deudas(documento).stream().collect(Collectors.toMap(Deuda::getTipo, Deuda::getId));
+    }
+
+    private List<Long> idsDeTipo(String documento, String tipo) {
+        return deudas(documento).stream().filter(d -> tipo.equals(d.getTipo())).map(Deuda::getId).toList();
+    }
+
+    private static EvaluacionRequestDTO.DeudaDTO deuda(String tipo, String monto, LocalDate vencimiento) {
+        return new EvaluacionRequestDTO.DeudaDTO(tipo, new BigDecimal(monto), vencimiento, 0, 12);
+    }
+}